@@ -0,0 +1,64 @@
+package pl.socketbyte.sqldriver.benchmark;
+
+import pl.socketbyte.sqldriver.SqlConnection;
+import pl.socketbyte.sqldriver.SqlDriver;
+import pl.socketbyte.sqldriver.query.SqlPredicate;
+
+/**
+ * Embedded in-memory H2 database of a benchmark trial, no server is needed
+ */
+public class BenchmarkDatabase {
+    private static final String PROPERTIES = "/jmh-h2.properties";
+
+    private final SqlDriver driver;
+
+    /**
+     * @param fieldOperations "regular", "fast" (reflectasm) or "handles" (MethodHandles)
+     */
+    public BenchmarkDatabase(String fieldOperations) {
+        this.driver = SqlDriver.create(PROPERTIES);
+        switch (fieldOperations) {
+            case "regular":
+                break;
+            case "fast":
+                this.driver.useFastReflections();
+                break;
+            case "handles":
+                this.driver.useMethodHandles();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown field operations " + fieldOperations);
+        }
+
+        this.driver.register(BenchmarkEntities.Player.class);
+        this.driver.register(BenchmarkEntities.Clan.class);
+
+        try (SqlConnection connection = this.driver.borrow()) {
+            connection.createTable(BenchmarkEntities.Player.class);
+            connection.createTable(BenchmarkEntities.Clan.class);
+        }
+        clear();
+    }
+
+    public SqlDriver getDriver() {
+        return this.driver;
+    }
+
+    /**
+     * Deletes all the rows, e.g. between the iterations of inserting benchmarks
+     */
+    public void clear() {
+        try (SqlConnection connection = this.driver.borrow()) {
+            connection.delete(BenchmarkEntities.Player.class, SqlPredicate.isNotNull("uniqueid"));
+            connection.delete(BenchmarkEntities.Clan.class, SqlPredicate.isNotNull("tag"));
+        }
+    }
+
+    public void close() {
+        try (SqlConnection connection = this.driver.borrow()) {
+            connection.drop(BenchmarkEntities.Player.class);
+            connection.drop(BenchmarkEntities.Clan.class);
+        }
+        this.driver.close();
+    }
+}
@@ -0,0 +1,75 @@
+package pl.socketbyte.sqldriver.benchmark;
+
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+import pl.socketbyte.sqldriver.orm.annotation.SqlReference;
+import pl.socketbyte.sqldriver.orm.annotation.SqlTransient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * SqlObject classes used by the benchmarks, the fields are public so every FieldOperations can be used
+ */
+public class BenchmarkEntities {
+
+    @SqlObject(tableName = "bench_players")
+    public static class Player {
+        @SqlPrimary
+        public UUID uniqueId;
+        public String name;
+        public String clanTag;
+        public int coins;
+        public long lastSeen;
+        public double balance;
+        public boolean online;
+        public ArrayList<String> tags;
+    }
+
+    @SqlObject(tableName = "bench_clans")
+    public static class Clan {
+        @SqlPrimary
+        public String tag;
+        public String name;
+
+        @SqlTransient
+        @SqlReference(reference = Player.class, rule = "clanTag=tag")
+        public List<Player> members;
+    }
+
+    /**
+     * @param index Index of the player, determines all its values
+     * @param clans Amount of clans the players are spread over
+     */
+    public static Player createPlayer(int index, int clans) {
+        Player player = new Player();
+        player.uniqueId = new UUID(0, index);
+        player.name = "player-" + index;
+        player.clanTag = "C" + (index % clans);
+        player.coins = index;
+        player.lastSeen = 1_500_000_000_000L + index;
+        player.balance = index / 3.0;
+        player.online = index % 2 == 0;
+        player.tags = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            player.tags.add("tag-" + ((index + i) % 20));
+        }
+        return player;
+    }
+
+    public static Clan createClan(int index) {
+        Clan clan = new Clan();
+        clan.tag = "C" + index;
+        clan.name = "clan-" + index;
+        return clan;
+    }
+
+    public static List<Player> createPlayers(int amount, int clans) {
+        List<Player> players = new ArrayList<>(amount);
+        for (int i = 0; i < amount; i++) {
+            players.add(createPlayer(i, clans));
+        }
+        return players;
+    }
+}
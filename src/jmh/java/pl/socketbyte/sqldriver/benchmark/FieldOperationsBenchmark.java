@@ -0,0 +1,69 @@
+package pl.socketbyte.sqldriver.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.socketbyte.sqldriver.reflect.FieldOperations;
+import pl.socketbyte.sqldriver.reflect.ReflectTools;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Field access of the FieldOperations implementations, by name, by index and unboxed
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FieldOperationsBenchmark {
+
+    @Param({"regular", "fast", "handles"})
+    public String fieldOperations;
+
+    private FieldOperations operations;
+    private BenchmarkEntities.Player player;
+    private int nameIndex;
+    private int coinsIndex;
+    private int value;
+
+    @Setup
+    public void setup() {
+        switch (this.fieldOperations) {
+            case "regular":
+                this.operations = ReflectTools.REGULAR_FIELD_OPERATIONS;
+                break;
+            case "fast":
+                this.operations = ReflectTools.IMPROVED_FIELD_OPERATIONS;
+                break;
+            default:
+                this.operations = ReflectTools.HANDLE_FIELD_OPERATIONS;
+        }
+        this.operations.register(BenchmarkEntities.Player.class);
+
+        this.player = BenchmarkEntities.createPlayer(1, 1);
+        this.nameIndex = this.operations.getFieldIndex(BenchmarkEntities.Player.class, "name");
+        this.coinsIndex = this.operations.getFieldIndex(BenchmarkEntities.Player.class, "coins");
+    }
+
+    @Benchmark
+    public Object getByName() {
+        return this.operations.getField(BenchmarkEntities.Player.class, this.player, "name");
+    }
+
+    @Benchmark
+    public Object getByIndex() {
+        return this.operations.getField(BenchmarkEntities.Player.class, this.player, this.nameIndex);
+    }
+
+    @Benchmark
+    public void setByIndex() {
+        this.operations.setField(BenchmarkEntities.Player.class, this.player, this.coinsIndex, this.value++);
+    }
+
+    @Benchmark
+    public int getIntUnboxed() {
+        return this.operations.getInt(BenchmarkEntities.Player.class, this.player, this.coinsIndex);
+    }
+
+    @Benchmark
+    public void setIntUnboxed() {
+        this.operations.setInt(BenchmarkEntities.Player.class, this.player, this.coinsIndex, this.value++);
+    }
+}
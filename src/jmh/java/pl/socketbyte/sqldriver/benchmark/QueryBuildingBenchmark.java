@@ -0,0 +1,84 @@
+package pl.socketbyte.sqldriver.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.socketbyte.sqldriver.orm.ORMClassData;
+import pl.socketbyte.sqldriver.orm.ORMQueries;
+import pl.socketbyte.sqldriver.orm.serializer.SerializerRegistry;
+import pl.socketbyte.sqldriver.query.SqlDataType;
+import pl.socketbyte.sqldriver.query.SqlDialect;
+import pl.socketbyte.sqldriver.query.SqlPredicate;
+import pl.socketbyte.sqldriver.query.SqlQuery;
+import pl.socketbyte.sqldriver.reflect.ReflectTools;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the SQL text, from scratch and through the caches of ORMQueries
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QueryBuildingBenchmark {
+    private static final String[] KEY_RECORDS = {"clantag"};
+
+    private ORMQueries queries;
+
+    @Setup
+    public void setup() {
+        this.queries = ORMClassData.read(BenchmarkEntities.Player.class, ReflectTools.HANDLE_FIELD_OPERATIONS,
+                SqlDataType.BASE64, SerializerRegistry.createDefault(), SqlDialect.MYSQL).getQueries();
+    }
+
+    private static SqlPredicate createPredicate() {
+        return SqlPredicate.and(
+                SqlPredicate.equal("clantag", "C1"),
+                SqlPredicate.or(SqlPredicate.greater("coins", 100), SqlPredicate.isNull("name")),
+                SqlPredicate.in("name", "a", "b", "c"));
+    }
+
+    @Benchmark
+    public String buildQuery() {
+        return new SqlQuery()
+                .select()
+                .table("bench_players")
+                .where("clantag", "online")
+                .orderBy("uniqueid")
+                .limit()
+                .done();
+    }
+
+    /**
+     * A new predicate of the same shape, as every call of a real application creates one
+     */
+    @Benchmark
+    public String buildPredicate() {
+        return createPredicate().toSql();
+    }
+
+    /**
+     * Query of a new predicate, found in the cache by its shape
+     */
+    @Benchmark
+    public String cachedPredicateQuery() {
+        return this.queries.select(createPredicate());
+    }
+
+    @Benchmark
+    public String cachedSelectIn() {
+        return this.queries.selectIn(new String[0], KEY_RECORDS, 64);
+    }
+
+    @Benchmark
+    public String cachedUpsert() {
+        return this.queries.upsert(100);
+    }
+
+    /**
+     * Annotation scanning and query precompilation of a class, done once per driver
+     */
+    @Benchmark
+    public Object readClassData() {
+        return ORMClassData.read(BenchmarkEntities.Player.class, ReflectTools.HANDLE_FIELD_OPERATIONS,
+                SqlDataType.BASE64, SerializerRegistry.createDefault(), SqlDialect.MYSQL);
+    }
+}
@@ -0,0 +1,75 @@
+package pl.socketbyte.sqldriver.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.socketbyte.sqldriver.SqlConnection;
+import pl.socketbyte.sqldriver.query.SqlPredicate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row mapping of the selecting operations, every select maps the same amount of rows
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadBenchmark {
+
+    @Param({"regular", "fast", "handles"})
+    public String fieldOperations;
+
+    @Param({"1000"})
+    public int rows;
+
+    private BenchmarkDatabase database;
+    private SqlConnection connection;
+    private SqlPredicate all;
+    private UUID primary;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.database = new BenchmarkDatabase(this.fieldOperations);
+        try (SqlConnection connection = this.database.getDriver().borrow()) {
+            connection.insertAll(BenchmarkEntities.createPlayers(this.rows, 10));
+        }
+
+        this.connection = this.database.getDriver().borrow();
+        this.all = SqlPredicate.isNotNull("uniqueid");
+        this.primary = new UUID(0, this.rows / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        this.connection.close();
+        this.database.close();
+    }
+
+    @Benchmark
+    public List<BenchmarkEntities.Player> select() {
+        return this.connection.select(BenchmarkEntities.Player.class, this.all);
+    }
+
+    @Benchmark
+    public BenchmarkEntities.Player selectByPrimary() {
+        return this.connection.selectByPrimary(BenchmarkEntities.Player.class, this.primary);
+    }
+
+    /**
+     * Maps only two columns, the serialized tags aren't decoded
+     */
+    @Benchmark
+    public List<BenchmarkEntities.Player> selectFields() {
+        return this.connection.selectFields(BenchmarkEntities.Player.class, this.all, "uniqueId", "coins");
+    }
+
+    /**
+     * Streams the rows into a single reused object
+     */
+    @Benchmark
+    public void forEachReused(Blackhole blackhole) {
+        this.connection.makeORMStatement(BenchmarkEntities.Player.class)
+                .forEach(new BenchmarkEntities.Player(), blackhole::consume);
+    }
+}
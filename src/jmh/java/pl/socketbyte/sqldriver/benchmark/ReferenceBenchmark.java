@@ -0,0 +1,64 @@
+package pl.socketbyte.sqldriver.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.socketbyte.sqldriver.SqlConnection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SqlReference resolution as the amount of the owners grows,
+ * every clan has the same amount of members
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReferenceBenchmark {
+    private static final int MEMBERS = 10;
+
+    @Param({"10", "100", "1000"})
+    public int clans;
+
+    private BenchmarkDatabase database;
+    private SqlConnection connection;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.database = new BenchmarkDatabase("handles");
+        try (SqlConnection connection = this.database.getDriver().borrow()) {
+            List<BenchmarkEntities.Clan> clans = new ArrayList<>(this.clans);
+            for (int i = 0; i < this.clans; i++) {
+                clans.add(BenchmarkEntities.createClan(i));
+            }
+            connection.insertAll(clans);
+            connection.insertAll(BenchmarkEntities.createPlayers(this.clans * MEMBERS, this.clans));
+        }
+
+        this.connection = this.database.getDriver().borrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        this.connection.close();
+        this.database.close();
+    }
+
+    /**
+     * Selects both tables as a whole and joins them in memory
+     */
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Map<?, ?> selectAll() {
+        return this.connection.selectAll(BenchmarkEntities.Clan.class, BenchmarkEntities.Player.class);
+    }
+
+    /**
+     * Selects the clans and fetches their members with batched IN lookups
+     */
+    @Benchmark
+    public List<BenchmarkEntities.Clan> selectWithReferences() {
+        return this.connection.selectWithReferences(BenchmarkEntities.Clan.class);
+    }
+}
@@ -0,0 +1,80 @@
+package pl.socketbyte.sqldriver.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.socketbyte.sqldriver.orm.serializer.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializers of the serialized fields, run with the gc profiler to compare the allocations
+ * The contended benchmarks share the serializer between 4 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializerBenchmark {
+
+    @Param({"fst", "schema", "java", "fst-deflate"})
+    public String serializer;
+
+    /**
+     * Amount of the elements of the serialized collections
+     */
+    @Param({"10", "1000"})
+    public int size;
+
+    private Serializer instance;
+    private HashMap<String, ArrayList<String>> value;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() {
+        switch (this.serializer) {
+            case "fst":
+                this.instance = new FstSerializer();
+                break;
+            case "schema":
+                this.instance = new SchemaSerializer();
+                break;
+            case "java":
+                this.instance = new JavaSerializer();
+                break;
+            case "fst-deflate":
+                this.instance = new CompressingSerializer(new FstSerializer(), 256);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown serializer " + this.serializer);
+        }
+
+        this.value = new HashMap<>();
+        for (int i = 0; i < this.size; i++) {
+            ArrayList<String> list = this.value.computeIfAbsent("key-" + (i % 10), key -> new ArrayList<>());
+            list.add("value-" + (i % 50));
+        }
+        this.serialized = this.instance.serialize(this.value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return this.instance.serialize(this.value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return this.instance.deserialize(this.serialized);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] serializeContended() {
+        return this.instance.serialize(this.value);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object deserializeContended() {
+        return this.instance.deserialize(this.serialized);
+    }
+}
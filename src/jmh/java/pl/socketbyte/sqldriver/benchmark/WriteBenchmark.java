@@ -0,0 +1,106 @@
+package pl.socketbyte.sqldriver.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.socketbyte.sqldriver.SqlConnection;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parameter binding and statement execution of the writing operations,
+ * the table is cleared after every iteration so it doesn't grow without bounds
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WriteBenchmark {
+    private static final int BATCH = 100;
+
+    @Param({"regular", "handles"})
+    public String fieldOperations;
+
+    /**
+     * Tracks the changes of the players, so unchanged updates are skipped
+     */
+    @Param({"false", "true"})
+    public boolean changeTracking;
+
+    private BenchmarkDatabase database;
+    private SqlConnection connection;
+
+    private BenchmarkEntities.Player updated;
+    private List<BenchmarkEntities.Player> batch;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.database = new BenchmarkDatabase(this.fieldOperations);
+        if (this.changeTracking)
+            this.database.getDriver().enableChangeTracking(BenchmarkEntities.Player.class);
+
+        this.batch = BenchmarkEntities.createPlayers(BATCH, 10);
+    }
+
+    @Setup(Level.Iteration)
+    public void borrow() {
+        this.connection = this.database.getDriver().borrow();
+        this.nextId = 1_000_000;
+
+        this.updated = BenchmarkEntities.createPlayer(-1, 10);
+        this.connection.insert(this.updated);
+    }
+
+    @TearDown(Level.Iteration)
+    public void release() {
+        this.connection.close();
+        this.database.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        this.database.close();
+    }
+
+    @Benchmark
+    public void insert() {
+        BenchmarkEntities.Player player = BenchmarkEntities.createPlayer(0, 10);
+        player.uniqueId = new UUID(1, this.nextId++);
+        this.connection.insert(player);
+    }
+
+    @Benchmark
+    public void upsert() {
+        this.updated.coins++;
+        this.connection.upsert(this.updated);
+    }
+
+    @Benchmark
+    public void updateChanged() {
+        this.updated.coins++;
+        this.connection.update(this.updated);
+    }
+
+    @Benchmark
+    public void updateUnchanged() {
+        this.connection.update(this.updated);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Object insertAll() {
+        for (BenchmarkEntities.Player player : this.batch) {
+            player.uniqueId = new UUID(2, this.nextId++);
+        }
+        return this.connection.insertAll(this.batch);
+    }
+
+    /**
+     * Upserts the same objects over and over, so the table stays small
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Object upsertAll() {
+        return this.connection.upsertAll(this.batch);
+    }
+}
@@ -0,0 +1,100 @@
+package pl.socketbyte.sqldriver;
+
+import pl.socketbyte.sqldriver.orm.ORMStatement;
+import pl.socketbyte.sqldriver.query.SqlPredicate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of the SqlConnection
+ * Every operation borrows its own connection from the pool on the driver's executor,
+ * so there is nothing to close. Use AsyncSqlDriver.execute() to run multiple
+ * operations on the same connection.
+ */
+@SuppressWarnings("unchecked")
+public class AsyncSqlConnection {
+
+    private final AsyncSqlDriver driver;
+
+    protected AsyncSqlConnection(AsyncSqlDriver driver) {
+        this.driver = driver;
+    }
+
+    public <T> CompletableFuture<Void> insert(T instance) {
+        return this.driver.execute(connection -> {
+            connection.insert(instance);
+            return null;
+        });
+    }
+
+    public <T> CompletableFuture<Void> upsert(T instance) {
+        return this.driver.execute(connection -> {
+            connection.upsert(instance);
+            return null;
+        });
+    }
+
+    public <T> CompletableFuture<Void> update(T instance, ORMStatement.Where... whereConditions) {
+        return this.driver.execute(connection -> {
+            connection.update(instance, whereConditions);
+            return null;
+        });
+    }
+
+    public <T> CompletableFuture<Void> delete(T instance, ORMStatement.Where... whereConditions) {
+        return this.driver.execute(connection -> {
+            connection.delete(instance, whereConditions);
+            return null;
+        });
+    }
+
+    public <T> CompletableFuture<List<T>> select(Class<? extends T> clazz, ORMStatement.Where... whereConditions) {
+        return this.driver.execute(connection -> {
+            ORMStatement<T> statement = connection.makeORMStatement(clazz);
+            return statement.select(whereConditions);
+        });
+    }
+
+    public <T> CompletableFuture<List<T>> select(Class<? extends T> clazz, SqlPredicate predicate) {
+        return this.driver.execute(connection -> connection.select(clazz, predicate));
+    }
+
+    public <T> CompletableFuture<Integer> delete(Class<? extends T> clazz, SqlPredicate predicate) {
+        return this.driver.execute(connection -> connection.delete(clazz, predicate));
+    }
+
+    public <T> CompletableFuture<List<T>> selectWithReferences(Class<? extends T> clazz,
+                                                               ORMStatement.Where... whereConditions) {
+        return this.driver.execute(connection -> connection.selectWithReferences(clazz, whereConditions));
+    }
+
+    public <T> CompletableFuture<Map<Class<? extends T>, SelectionResult>> selectAll(Class<? extends T>... classes) {
+        return this.driver.execute(connection -> connection.selectAll(classes));
+    }
+
+    public <T> CompletableFuture<BatchResult> insertAll(Collection<? extends T> instances) {
+        return this.driver.execute(connection -> connection.insertAll(instances));
+    }
+
+    public <T> CompletableFuture<BatchResult> upsertAll(Collection<? extends T> instances) {
+        return this.driver.execute(connection -> connection.upsertAll(instances));
+    }
+
+    public <T> CompletableFuture<BatchResult> updateAll(Collection<? extends T> instances) {
+        return this.driver.execute(connection -> connection.updateAll(instances));
+    }
+
+    public <T> CompletableFuture<BatchResult> deleteAll(Collection<? extends T> instances) {
+        return this.driver.execute(connection -> connection.deleteAll(instances));
+    }
+
+    public <T> CompletableFuture<Void> createTable(Class<? extends T> clazz) {
+        return this.driver.execute(connection -> {
+            connection.createTable(clazz);
+            return null;
+        });
+    }
+}
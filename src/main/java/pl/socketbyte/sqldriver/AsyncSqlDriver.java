@@ -0,0 +1,175 @@
+package pl.socketbyte.sqldriver;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Asynchronous facade of the SqlDriver
+ * All the operations are executed on a dedicated executor and return CompletableFutures,
+ * so the calling thread (e.g. the Bukkit main thread) never waits for the database.
+ *
+ * Results can be handed back to a specific thread by providing a callback executor,
+ * in Bukkit it's usually a scheduler task running on the main thread.
+ */
+public class AsyncSqlDriver implements AutoCloseable {
+
+    private static final int DEFAULT_QUEUE_SIZE = 10000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final SqlDriver driver;
+    private final ExecutorService executor;
+
+    /**
+     * Executor used to complete the futures, null to complete them on the worker threads
+     */
+    private final Executor callbackExecutor;
+
+    private final AsyncSqlConnection connection;
+
+    private AsyncSqlDriver(SqlDriver driver, ExecutorService executor, Executor callbackExecutor) {
+        this.driver = driver;
+        this.executor = executor;
+        this.callbackExecutor = callbackExecutor;
+        this.connection = new AsyncSqlConnection(this);
+    }
+
+    /**
+     * Runs the task on a connection borrowed for the time of the task
+     * @param task Task to execute
+     * @return Future completed with the task result (on the callback executor if there is one)
+     */
+    public <R> CompletableFuture<R> execute(Function<SqlConnection, R> task) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            this.executor.execute(() -> {
+                try (SqlConnection connection = this.driver.borrow()) {
+                    complete(future, task.apply(connection), null);
+                } catch (Throwable throwable) {
+                    complete(future, null, throwable);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private <R> void complete(CompletableFuture<R> future, R result, Throwable throwable) {
+        if (this.callbackExecutor == null) {
+            completeNow(future, result, throwable);
+            return;
+        }
+
+        try {
+            this.callbackExecutor.execute(() -> completeNow(future, result, throwable));
+        } catch (RejectedExecutionException e) {
+            completeNow(future, result, throwable);
+        }
+    }
+
+    private <R> void completeNow(CompletableFuture<R> future, R result, Throwable throwable) {
+        if (throwable != null)
+            future.completeExceptionally(throwable);
+        else future.complete(result);
+    }
+
+    /**
+     * @return Asynchronous ORM operations, each of them borrows its own connection
+     */
+    public AsyncSqlConnection connection() {
+        return this.connection;
+    }
+
+    public SqlDriver getDriver() {
+        return this.driver;
+    }
+
+    public ExecutorService getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Stops accepting new operations and waits for the pending ones to finish
+     * Doesn't close the underlying SqlDriver
+     */
+    @Override
+    public void close() {
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                this.executor.shutdownNow();
+        } catch (InterruptedException e) {
+            this.executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Creates the asynchronous driver with a bounded executor sized to the connection pool,
+     * futures are completed on the worker threads
+     * @param driver SqlDriver
+     * @return AsyncSqlDriver
+     */
+    public static AsyncSqlDriver create(SqlDriver driver) {
+        return create(driver, null);
+    }
+
+    /**
+     * Creates the asynchronous driver with a bounded executor sized to the connection pool
+     * @param driver SqlDriver
+     * @param callbackExecutor Executor used to complete the futures, can be null
+     * @return AsyncSqlDriver
+     */
+    public static AsyncSqlDriver create(SqlDriver driver, Executor callbackExecutor) {
+        return create(driver, createBoundedExecutor(driver.getSource().getMaximumPoolSize(), DEFAULT_QUEUE_SIZE),
+                callbackExecutor);
+    }
+
+    /**
+     * Creates the asynchronous driver with a custom executor
+     * @param driver SqlDriver
+     * @param executor Executor running the database operations, it's shut down by close()
+     * @param callbackExecutor Executor used to complete the futures, can be null
+     * @return AsyncSqlDriver
+     */
+    public static AsyncSqlDriver create(SqlDriver driver, ExecutorService executor, Executor callbackExecutor) {
+        return new AsyncSqlDriver(driver, executor, callbackExecutor);
+    }
+
+    /**
+     * Creates the asynchronous driver running every operation on a virtual thread (Java 21+),
+     * the connection pool itself limits the amount of concurrent operations
+     * @param driver SqlDriver
+     * @param callbackExecutor Executor used to complete the futures, can be null
+     * @return AsyncSqlDriver
+     */
+    public static AsyncSqlDriver createWithVirtualThreads(SqlDriver driver, Executor callbackExecutor) {
+        ExecutorService executor;
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            executor = (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this JVM", e);
+        }
+        return create(driver, executor, callbackExecutor);
+    }
+
+    /**
+     * Fixed size executor with a bounded queue, operations submitted
+     * to a full queue fail with RejectedExecutionException
+     * @param threads Amount of worker threads, usually the size of the connection pool
+     * @param queueSize Maximum amount of pending operations
+     * @return ExecutorService
+     */
+    public static ExecutorService createBoundedExecutor(int threads, int queueSize) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "SqlDriver-Async-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
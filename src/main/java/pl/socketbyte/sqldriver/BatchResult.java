@@ -0,0 +1,85 @@
+package pl.socketbyte.sqldriver;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a batched ORM operation
+ * Holds the update counts reported by the JDBC driver for every executed batch
+ */
+public class BatchResult {
+    private final List<int[]> batches = new ArrayList<>();
+    private int objectCount;
+
+    /**
+     * Records the result of a single executed batch
+     * @param objects Amount of objects sent in the batch
+     * @param updateCounts Update counts returned by executeBatch() or executeUpdate()
+     */
+    public void addBatch(int objects, int... updateCounts) {
+        this.batches.add(updateCounts);
+        this.objectCount += objects;
+    }
+
+    /**
+     * Merges the batches of another result into this one
+     */
+    public void addAll(BatchResult result) {
+        this.batches.addAll(result.batches);
+        this.objectCount += result.objectCount;
+    }
+
+    public int getBatchCount() {
+        return this.batches.size();
+    }
+
+    /**
+     * @param batch Index of the batch
+     * @return Update counts of given batch, see Statement.executeBatch()
+     */
+    public int[] getUpdateCounts(int batch) {
+        return this.batches.get(batch).clone();
+    }
+
+    public List<int[]> getBatches() {
+        return Collections.unmodifiableList(this.batches);
+    }
+
+    /**
+     * @return Amount of objects sent to the database
+     */
+    public int getObjectCount() {
+        return this.objectCount;
+    }
+
+    /**
+     * Sum of all known update counts, statements reported as
+     * Statement.SUCCESS_NO_INFO are not included
+     * @return Amount of affected rows
+     */
+    public int getAffectedRows() {
+        int affected = 0;
+        for (int[] batch : this.batches) {
+            for (int count : batch) {
+                if (count > 0)
+                    affected += count;
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * @return True if any statement of any batch was reported as failed
+     */
+    public boolean hasFailures() {
+        for (int[] batch : this.batches) {
+            for (int count : batch) {
+                if (count == Statement.EXECUTE_FAILED)
+                    return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,33 @@
+package pl.socketbyte.sqldriver;
+
+import java.sql.PreparedStatement;
+
+/**
+ * PreparedStatement borrowed from the statement cache of a SqlConnection
+ * Closing it returns the statement to the cache instead of closing it,
+ * so it must not be used afterwards. ResultSets opened on it must be closed first.
+ */
+public class CachedStatement implements AutoCloseable {
+    private final StatementCache cache;
+    private final String query;
+    private final PreparedStatement statement;
+
+    CachedStatement(StatementCache cache, String query, PreparedStatement statement) {
+        this.cache = cache;
+        this.query = query;
+        this.statement = statement;
+    }
+
+    public PreparedStatement getStatement() {
+        return this.statement;
+    }
+
+    public String getQuery() {
+        return this.query;
+    }
+
+    @Override
+    public void close() {
+        this.cache.release(this.query, this.statement);
+    }
+}
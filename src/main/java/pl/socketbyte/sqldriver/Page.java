@@ -0,0 +1,31 @@
+package pl.socketbyte.sqldriver;
+
+import java.util.List;
+
+/**
+ * Single page of a keyset paginated selection
+ */
+public class Page<T> {
+    private final List<T> objects;
+    private final PageToken nextToken;
+
+    public Page(List<T> objects, PageToken nextToken) {
+        this.objects = objects;
+        this.nextToken = nextToken;
+    }
+
+    public List<T> getObjects() {
+        return this.objects;
+    }
+
+    /**
+     * @return Token of the next page, null if this is the last page
+     */
+    public PageToken getNextToken() {
+        return this.nextToken;
+    }
+
+    public boolean hasNext() {
+        return this.nextToken != null;
+    }
+}
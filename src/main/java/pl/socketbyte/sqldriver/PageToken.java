@@ -0,0 +1,188 @@
+package pl.socketbyte.sqldriver;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of a keyset page, the SqlPrimary values of the last object of the previous page
+ * Tokens can be passed around as strings with encode() and decode(), e.g. in URLs or admin UIs.
+ *
+ * The string form is a small typed format (a type tag and a value per primary value),
+ * only primitive wrappers, Strings and UUIDs can be encoded. Nothing else is ever
+ * instantiated when a token is decoded, so decoding untrusted tokens is safe.
+ */
+public class PageToken {
+    private static final int VERSION = 1;
+    private static final int MAXIMUM_VALUES = 64;
+
+    private static final byte NULL = 'N';
+    private static final byte INT = 'I';
+    private static final byte LONG = 'J';
+    private static final byte SHORT = 'S';
+    private static final byte BYTE = 'B';
+    private static final byte DOUBLE = 'D';
+    private static final byte FLOAT = 'F';
+    private static final byte BOOLEAN = 'Z';
+    private static final byte CHAR = 'C';
+    private static final byte STRING = 'T';
+    private static final byte UNIQUE_ID = 'U';
+
+    private final Object[] primaryValues;
+
+    public PageToken(Object... primaryValues) {
+        this.primaryValues = primaryValues.clone();
+    }
+
+    /**
+     * @return SqlPrimary values in declaration order
+     */
+    public Object[] getPrimaryValues() {
+        return this.primaryValues.clone();
+    }
+
+    /**
+     * @return URL-safe Base64 form of the token
+     * @throws IllegalArgumentException If a primary value is not a primitive wrapper, String or UUID
+     */
+    public String encode() {
+        if (this.primaryValues.length > MAXIMUM_VALUES)
+            throw new IllegalArgumentException("Too many values in the page token");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(VERSION);
+            output.writeByte(this.primaryValues.length);
+            for (Object value : this.primaryValues) {
+                write(output, value);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to encode the page token", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    private static void write(DataOutputStream output, Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(NULL);
+        } else if (value instanceof Integer) {
+            output.writeByte(INT);
+            output.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(LONG);
+            output.writeLong((Long) value);
+        } else if (value instanceof Short) {
+            output.writeByte(SHORT);
+            output.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            output.writeByte(BYTE);
+            output.writeByte((Byte) value);
+        } else if (value instanceof Double) {
+            output.writeByte(DOUBLE);
+            output.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            output.writeByte(FLOAT);
+            output.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            output.writeByte(BOOLEAN);
+            output.writeBoolean((Boolean) value);
+        } else if (value instanceof Character) {
+            output.writeByte(CHAR);
+            output.writeChar((Character) value);
+        } else if (value instanceof String) {
+            byte[] string = ((String) value).getBytes(StandardCharsets.UTF_8);
+            output.writeByte(STRING);
+            output.writeInt(string.length);
+            output.write(string);
+        } else if (value instanceof UUID) {
+            output.writeByte(UNIQUE_ID);
+            output.writeLong(((UUID) value).getMostSignificantBits());
+            output.writeLong(((UUID) value).getLeastSignificantBits());
+        } else {
+            throw new IllegalArgumentException("Primary values of type " + value.getClass().getName()
+                    + " can't be encoded in a page token");
+        }
+    }
+
+    /**
+     * @param token Token created by encode()
+     * @return Decoded token
+     * @throws IllegalArgumentException If the token is malformed
+     */
+    public static PageToken decode(String token) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(token);
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (input.readUnsignedByte() != VERSION)
+                throw new IllegalArgumentException("Unsupported page token version");
+
+            int length = input.readUnsignedByte();
+            if (length > MAXIMUM_VALUES)
+                throw new IllegalArgumentException("Too many values in the page token");
+
+            Object[] primaryValues = new Object[length];
+            for (int i = 0; i < length; i++) {
+                primaryValues[i] = read(input);
+            }
+            if (input.available() > 0)
+                throw new IllegalArgumentException("Unexpected data after the page token values");
+
+            return new PageToken(primaryValues);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed page token", e);
+        }
+    }
+
+    private static Object read(DataInputStream input) throws IOException {
+        byte type = input.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case INT:
+                return input.readInt();
+            case LONG:
+                return input.readLong();
+            case SHORT:
+                return input.readShort();
+            case BYTE:
+                return input.readByte();
+            case DOUBLE:
+                return input.readDouble();
+            case FLOAT:
+                return input.readFloat();
+            case BOOLEAN:
+                return input.readBoolean();
+            case CHAR:
+                return input.readChar();
+            case STRING:
+                int length = input.readInt();
+                if (length < 0 || length > input.available())
+                    throw new IllegalArgumentException("Malformed string in the page token");
+
+                byte[] string = new byte[length];
+                input.readFully(string);
+                return new String(string, StandardCharsets.UTF_8);
+            case UNIQUE_ID:
+                return new UUID(input.readLong(), input.readLong());
+            default:
+                throw new IllegalArgumentException("Unknown value type in the page token");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof PageToken && Arrays.equals(this.primaryValues, ((PageToken) o).primaryValues);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.primaryValues);
+    }
+
+    @Override
+    public String toString() {
+        return "PageToken" + Arrays.toString(this.primaryValues);
+    }
+}
@@ -1,15 +1,19 @@
 package pl.socketbyte.sqldriver;
 
+import pl.socketbyte.sqldriver.orm.ORMBinaryMigration;
+import pl.socketbyte.sqldriver.orm.ORMReferenceLoader;
+import pl.socketbyte.sqldriver.orm.ORMReferenceResolver;
 import pl.socketbyte.sqldriver.orm.ORMStatement;
 import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
-import pl.socketbyte.sqldriver.orm.annotation.SqlReference;
+import pl.socketbyte.sqldriver.query.SqlPredicate;
 import pl.socketbyte.sqldriver.query.SqlQuery;
 
-import java.lang.reflect.Field;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Simple wrapper around Java's Connection
@@ -27,19 +31,21 @@ public class SqlConnection implements AutoCloseable {
     private final Connection connection;
     private final SqlDriver driver;
 
+    /**
+     * Lightweight bindings of the driver's ORM metadata to this connection, created on demand
+     */
     private final Map<Class<?>, ORMStatement> cachedStatements = new HashMap<>();
 
+    /**
+     * Prepared statements reused by the ORM operations, closed when the connection is returned
+     */
+    private final StatementCache statementCache;
+
     protected SqlConnection(SqlDriver driver, Connection connection) {
         this.driver = driver;
         this.connection = connection;
-
-        this.cacheStatements(driver.getRegisteredClasses());
-    }
-
-    private void cacheStatements(List<Class<?>> classes) {
-        for (Class<?> clazz : classes) {
-            makeORMStatement(clazz);
-        }
+        this.statementCache = new StatementCache(connection, driver.getStatementCacheSize(),
+                driver.getStatementCacheStatistics());
     }
 
     /**
@@ -47,10 +53,11 @@ public class SqlConnection implements AutoCloseable {
      * This is very important when using SqlReference annotations
      * It is recommended to use this method over all other selection methods
      *
-     * TODO this code is a mess, fix it
+     * SqlReference fields are resolved with hash joins, see ORMReferenceResolver
      */
     public <T> Map<Class<? extends T>, SelectionResult> selectAll(Class<? extends T>... classes) {
         Map<Class<? extends T>, SelectionResult> results = new LinkedHashMap<>();
+        Map<Class<?>, List<?>> objects = new LinkedHashMap<>();
         for (Class clazz : classes) {
             if (!clazz.isAnnotationPresent(SqlObject.class))
                 continue;
@@ -61,99 +68,132 @@ public class SqlConnection implements AutoCloseable {
             List list = statement.select();
 
             results.put(clazz, new SelectionResult(object.tableName(), list));
+            objects.put(clazz, list);
         }
 
-        for (Map.Entry<Class<? extends T>, SelectionResult> entry : results.entrySet()) {
-            Class<?> resultClass = entry.getClass();
-            SelectionResult result = entry.getValue();
-            List objects = result.getObjects();
-
-            for (Object object : objects) {
-                Field[] fields = this.driver.getOperations().getFields(object.getClass());
-
-                for (Field field : fields) {
-                    if (!field.isAnnotationPresent(SqlReference.class))
-                        continue;
-
-                    SqlReference reference = field.getAnnotation(SqlReference.class);
-                    String[] rules = reference.rule();
-
-                    Class<?> fieldType = reference.reference();
-                    String fieldName = field.getName();
-
-                    SelectionResult referencedResult = results.get(fieldType);
-
-                    if (referencedResult == null)
-                        throw new RuntimeException("The referenced classes were not loaded successfully");
-
-                    List<Object> matchingObjects = new ArrayList<>();
-                    for (String rule : rules) {
-                        String[] split = rule.split("=");
-
-                        String compareWhat = split[1];
-                        String compareTo = split[0];
-
-                        boolean compareByValues = false;
-                        Object valueCompareWhat = null;
-                        try {
-                            valueCompareWhat = object.getClass().getField(compareWhat).get(object);
-                        } catch (IllegalAccessException | NoSuchFieldException e) {
-                            valueCompareWhat = compareWhat;
-                            compareByValues = true;
-                        }
-                        for (Object referencedObject : referencedResult.getObjects()) {
-                            //
-
-                            Object valueCompareTo = null;
-                            try {
-                                valueCompareTo = referencedObject.getClass().getField(compareTo).get(referencedObject);
-                            } catch (IllegalAccessException | NoSuchFieldException e) {
-                                continue;
-                            }
-
-                            if (compareByValues) {
-                                if (valueCompareWhat.toString().equals(valueCompareTo.toString())) {
-                                    matchingObjects.add(referencedObject);
-                                }
-                                else {
-                                    matchingObjects.remove(referencedObject);
-                                    break;
-                                }
-                            }
-                            else {
-                                if (valueCompareWhat.equals(valueCompareTo)) {
-                                    matchingObjects.add(referencedObject);
-                                }
-                                else {
-                                    matchingObjects.remove(referencedObject);
-                                    break;
-                                }
-                            }
-                        }
-                    }
-
-                    if (field.getType().isAssignableFrom(List.class)) {
-                        try {
-                            field.set(object, matchingObjects);
-                        } catch (IllegalAccessException e) {
-                            throw new RuntimeException("Could not set the matching objects to the SqlReference field", e);
-                        }
-                    }
-                    else {
-                        try {
-                            if (matchingObjects.size() <= 0)
-                                continue;
-                            field.set(object, matchingObjects.get(0));
-                        } catch (IllegalAccessException e) {
-                            throw new RuntimeException("Could not set the matching object to the SqlReference field", e);
-                        }
-                    }
-                }
-            }
-        }
+        new ORMReferenceResolver(this.driver).resolve(objects);
         return results;
     }
 
+    /**
+     * Selects the objects matching the predicate, e.g.
+     * select(User.class, and(equal("clanTag", tag), greater("coins", 100)))
+     */
+    public <T> List<T> select(Class<? extends T> clazz, SqlPredicate predicate) {
+        ORMStatement<T> statement = makeORMStatement(clazz);
+
+        return statement.select(predicate);
+    }
+
+    /**
+     * Selects the objects as DTOs, only the records of the DTO fields are selected
+     * @param clazz SqlObject class
+     * @param type DTO class, its fields must have the same names and types as the SqlObject fields
+     * @param predicate Condition, null to select all the objects
+     */
+    public <T, D> List<D> select(Class<? extends T> clazz, Class<D> type, SqlPredicate predicate) {
+        ORMStatement<T> statement = makeORMStatement(clazz);
+
+        return statement.select(type, predicate);
+    }
+
+    /**
+     * Selects only the given fields, the other fields of the objects keep their default values
+     * @param clazz SqlObject class
+     * @param predicate Condition, null to select all the objects
+     * @param fieldNames Java names of the selected fields
+     */
+    public <T> List<T> selectFields(Class<? extends T> clazz, SqlPredicate predicate, String... fieldNames) {
+        ORMStatement<T> statement = makeORMStatement(clazz);
+
+        return statement.selectFields(predicate, fieldNames);
+    }
+
+    /**
+     * Deletes all the objects matching the predicate
+     * @return Amount of deleted rows
+     */
+    public <T> int delete(Class<? extends T> clazz, SqlPredicate predicate) {
+        ORMStatement<T> statement = makeORMStatement(clazz);
+
+        return statement.delete(predicate);
+    }
+
+    /**
+     * Selects a page of objects using keyset pagination over the SqlPrimary fields
+     * @param clazz SqlObject class
+     * @param pageSize Maximum amount of objects on the page
+     * @param token Token of the page (Page.getNextToken()), null for the first page
+     * @return Page with the token of the next page
+     */
+    public <T> Page<T> selectPage(Class<? extends T> clazz, int pageSize, PageToken token,
+                                  ORMStatement.Where... whereConditions) {
+        ORMStatement<T> statement = makeORMStatement(clazz);
+
+        return statement.selectPage(pageSize, token, whereConditions);
+    }
+
+    /**
+     * Streams the selected objects with a forward-only cursor, see SqlDriver.setFetchSize()
+     * The stream must be closed before this connection
+     */
+    public <T> Stream<T> stream(Class<? extends T> clazz, ORMStatement.Where... whereConditions) {
+        ORMStatement<T> statement = makeORMStatement(clazz);
+
+        return statement.stream(whereConditions);
+    }
+
+    /**
+     * Passes the selected objects to the consumer one by one without loading them all into memory
+     */
+    public <T> void forEach(Class<? extends T> clazz, Consumer<? super T> consumer,
+                            ORMStatement.Where... whereConditions) {
+        ORMStatement<T> statement = makeORMStatement(clazz);
+
+        statement.forEach(consumer, whereConditions);
+    }
+
+    /**
+     * Selects the objects and loads their SqlReference fields from the database
+     * Unlike selectAll(), only the rows related to the selected objects are fetched
+     * (with batched IN lookups), so it works for referenced tables of any size
+     * @param clazz SqlObject class
+     * @param whereConditions Conditions of the selected objects
+     * @return Selected objects with their references set
+     */
+    public <T> List<T> selectWithReferences(Class<? extends T> clazz, ORMStatement.Where... whereConditions) {
+        return selectWithReferences(clazz, 1, whereConditions);
+    }
+
+    /**
+     * Selects the objects and loads their SqlReference fields from the database
+     * @param clazz SqlObject class
+     * @param depth How many levels of references are loaded, 1 loads only the references of the selected objects
+     * @param whereConditions Conditions of the selected objects
+     * @return Selected objects with their references set
+     */
+    public <T> List<T> selectWithReferences(Class<? extends T> clazz, int depth,
+                                            ORMStatement.Where... whereConditions) {
+        ORMStatement<T> statement = makeORMStatement(clazz);
+        List<T> selected = statement.select(whereConditions);
+
+        new ORMReferenceLoader(this.driver, this).load(clazz, selected, depth);
+        return selected;
+    }
+
+    /**
+     * Selects the object by the values of its SqlPrimary fields,
+     * reading it through the second-level cache if the class has one
+     * @param clazz SqlObject class
+     * @param primaryValues Values of the SqlPrimary fields, in declaration order
+     * @return Selected object or null if there is none
+     */
+    public <T> T selectByPrimary(Class<? extends T> clazz, Object... primaryValues) {
+        ORMStatement<T> statement = makeORMStatement(clazz);
+
+        return statement.selectByPrimary(primaryValues);
+    }
+
     public <T> void update(T instance, ORMStatement.Where... whereConditions) {
         ORMStatement<T> statement = (ORMStatement<T>) makeORMStatement(instance.getClass());
 
@@ -178,6 +218,86 @@ public class SqlConnection implements AutoCloseable {
         statement.insert(instance);
     }
 
+    /**
+     * Inserts all the objects using JDBC batches, see SqlDriver.setBatchSize()
+     * @return Update counts of every executed batch
+     */
+    public <T> BatchResult insertAll(Collection<? extends T> instances) {
+        BatchResult result = new BatchResult();
+        for (Map.Entry<Class<?>, List<Object>> entry : groupByClass(instances).entrySet()) {
+            ORMStatement<Object> statement = makeORMStatement(entry.getKey());
+            result.addAll(statement.insertAll(entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Inserts the object or overwrites the row with the same SqlPrimary values, in a single round trip
+     */
+    public <T> void upsert(T instance) {
+        ORMStatement<T> statement = (ORMStatement<T>) makeORMStatement(instance.getClass());
+
+        statement.upsert(instance);
+    }
+
+    /**
+     * Upserts all the objects using JDBC batches, see SqlDriver.setBatchSize()
+     * @return Update counts of every executed batch
+     */
+    public <T> BatchResult upsertAll(Collection<? extends T> instances) {
+        BatchResult result = new BatchResult();
+        for (Map.Entry<Class<?>, List<Object>> entry : groupByClass(instances).entrySet()) {
+            ORMStatement<Object> statement = makeORMStatement(entry.getKey());
+            result.addAll(statement.upsertAll(entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Updates all the objects matched by their SqlPrimary fields using JDBC batches
+     * @return Update counts of every executed batch
+     */
+    public <T> BatchResult updateAll(Collection<? extends T> instances) {
+        BatchResult result = new BatchResult();
+        for (Map.Entry<Class<?>, List<Object>> entry : groupByClass(instances).entrySet()) {
+            ORMStatement<Object> statement = makeORMStatement(entry.getKey());
+            result.addAll(statement.updateAll(entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Deletes all the objects matched by their SqlPrimary fields using JDBC batches
+     * @return Update counts of every executed batch
+     */
+    public <T> BatchResult deleteAll(Collection<? extends T> instances) {
+        BatchResult result = new BatchResult();
+        for (Map.Entry<Class<?>, List<Object>> entry : groupByClass(instances).entrySet()) {
+            ORMStatement<Object> statement = makeORMStatement(entry.getKey());
+            result.addAll(statement.deleteAll(entry.getValue()));
+        }
+        return result;
+    }
+
+    private Map<Class<?>, List<Object>> groupByClass(Collection<?> instances) {
+        Map<Class<?>, List<Object>> groups = new LinkedHashMap<>();
+        for (Object instance : instances) {
+            groups.computeIfAbsent(instance.getClass(), key -> new ArrayList<>()).add(instance);
+        }
+        return groups;
+    }
+
+    /**
+     * Converts the Base64 columns of the serialized fields to binary columns, see ORMBinaryMigration
+     * The fields must already be declared as SqlDataType.SERIALIZED (or SqlDriver.useBinarySerialization() is used)
+     * @param clazz SqlObject class
+     * @param fieldNames Java names of the migrated fields
+     * @return Amount of converted values
+     */
+    public long migrateToBinary(Class<?> clazz, String... fieldNames) {
+        return new ORMBinaryMigration(this.driver, this).migrate(clazz, fieldNames);
+    }
+
     public <T> void createTable(Class<? extends T> clazz) {
         ORMStatement<T> statement = makeORMStatement(clazz);
 
@@ -202,13 +322,23 @@ public class SqlConnection implements AutoCloseable {
         return null;
     }
 
+    /**
+     * Borrows the prepared statement of the query from the statement cache of this connection,
+     * closing the CachedStatement returns it to the cache
+     * @param query SQL query
+     * @return CachedStatement
+     */
+    public CachedStatement prepareCached(String query) throws SQLException {
+        return this.statementCache.borrow(query);
+    }
+
     public <T> ORMStatement<T> makeORMStatement(Class<? extends T> clazz) {
         ORMStatement<T> statement = cachedStatements.get(clazz);
         if (statement != null) {
             return statement;
         }
         else {
-            statement = new ORMStatement<>(this.driver, this, clazz);
+            statement = new ORMStatement<>(this.driver, this, this.driver.getClassData(clazz));
             cachedStatements.put(clazz, statement);
         }
 
@@ -221,6 +351,7 @@ public class SqlConnection implements AutoCloseable {
      */
     @Override
     public void close() {
+        this.statementCache.clear();
         try {
             this.connection.close();
         } catch (SQLException e) {
@@ -1,14 +1,26 @@
 package pl.socketbyte.sqldriver;
 
-import pl.socketbyte.sqldriver.orm.ORMSerializer;
+import pl.socketbyte.sqldriver.cache.CacheStatistics;
+import pl.socketbyte.sqldriver.cache.LruSqlCache;
+import pl.socketbyte.sqldriver.cache.SqlCache;
+import pl.socketbyte.sqldriver.cache.VersionedSqlCache;
+import pl.socketbyte.sqldriver.orm.ORMChangeTracker;
+import pl.socketbyte.sqldriver.orm.ORMClassData;
+import pl.socketbyte.sqldriver.orm.codec.ORMCodec;
+import pl.socketbyte.sqldriver.orm.codec.ORMCodecRegistry;
+import pl.socketbyte.sqldriver.orm.serializer.Serializer;
+import pl.socketbyte.sqldriver.orm.serializer.SerializerRegistry;
+import pl.socketbyte.sqldriver.query.SqlDataType;
+import pl.socketbyte.sqldriver.query.SqlDialect;
 import pl.socketbyte.sqldriver.reflect.FieldOperations;
 import pl.socketbyte.sqldriver.reflect.ReflectTools;
 
-import java.io.Serializable;
 import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The main heart of SqlDriver API, it combines all functionality
@@ -27,9 +39,37 @@ public class SqlDriver {
 
     private final List<Class<?>> registeredClasses = new ArrayList<>();
 
+    /**
+     * ORM metadata shared by all borrowed connections
+     */
+    private final Map<Class<?>, ORMClassData<?>> classData = new ConcurrentHashMap<>();
+
+    private final ORMCodecRegistry codecs = new ORMCodecRegistry();
+
+    /**
+     * Second-level caches of the ORM classes, keyed by their SqlPrimary values
+     */
+    private final Map<Class<?>, VersionedSqlCache<Object, Object>> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Change trackers of the ORM classes, see enableChangeTracking()
+     */
+    private final Map<Class<?>, ORMChangeTracker<?>> changeTrackers = new ConcurrentHashMap<>();
+
+    private int batchSize = 1000;
+    private boolean multiRowInserts;
+    private SqlDataType serializedType = SqlDataType.BASE64;
+    private SqlDialect dialect;
+    private final SerializerRegistry serializers = SerializerRegistry.createDefault();
+    private int fetchSize = 1000;
+
+    private int statementCacheSize = 64;
+    private final CacheStatistics statementCacheStatistics = new CacheStatistics();
+
     private SqlDriver(String propertiesPath) {
         this.source = new SqlSource(propertiesPath);
         this.operations = ReflectTools.REGULAR_FIELD_OPERATIONS;
+        this.dialect = this.source.getDialect();
     }
 
     /**
@@ -40,12 +80,38 @@ public class SqlDriver {
     public void register(Class<?> clazz) {
         this.registeredClasses.add(clazz);
         this.operations.register(clazz);
+        ORMClassData<?> data = ORMClassData.read(clazz, this.operations, this.serializedType, this.serializers,
+                this.dialect);
+        this.classData.put(clazz, data);
+    }
 
-        if (clazz.isAssignableFrom(Serializable.class)) {
-            ORMSerializer.registerClass(clazz);
+    /**
+     * Registers the classes of the serialized values in all the serializers of this driver,
+     * FST then writes them as small ids instead of their names. Nothing is registered automatically.
+     *
+     * IMPORTANT: The ids follow the registration order, so the registered classes and their order
+     * are part of the storage format. Register the same classes in the same order on every start,
+     * before anything is read, and only ever append new ones.
+     * @param classes Classes to register
+     */
+    public void registerSerializedClasses(Class<?>... classes) {
+        for (Class<?> clazz : classes) {
+            this.serializers.registerClass(clazz);
         }
     }
 
+    /**
+     * Gets the ORM metadata of the class, reads it on first use if the class was not registered
+     * @param clazz SqlObject class
+     * @return ORMClassData
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ORMClassData<T> getClassData(Class<? extends T> clazz) {
+        return (ORMClassData<T>) this.classData.computeIfAbsent(clazz,
+                key -> ORMClassData.read(key, this.operations, this.serializedType, this.serializers,
+                        this.dialect));
+    }
+
     public List<Class<?>> getRegisteredClasses() {
         return registeredClasses;
     }
@@ -59,7 +125,230 @@ public class SqlDriver {
      * IMPORTANT: Your ORM pojo class fields MUST be public when using this option.
      */
     public void useFastReflections() {
-        this.operations = ReflectTools.IMPROVED_FIELD_OPERATIONS;
+        useOperations(ReflectTools.IMPROVED_FIELD_OPERATIONS);
+    }
+
+    /**
+     * Uses MethodHandles precomputed for every field of the ORM pojo's.
+     * It's the fastest option and unlike fast reflections it supports private fields,
+     * every non-static and non-final field is then treated as an ORM field.
+     */
+    public void useMethodHandles() {
+        useOperations(ReflectTools.HANDLE_FIELD_OPERATIONS);
+    }
+
+    /**
+     * Switches the field operations and rebuilds the ORM metadata,
+     * as the field discovery depends on the implementation
+     */
+    private void useOperations(FieldOperations operations) {
+        this.operations = operations;
+        rebuildClassData();
+    }
+
+    /**
+     * Stores the serialized fields without an explicit SqlField type as raw bytes
+     * in MEDIUMBLOB columns (SqlDataType.SERIALIZED) instead of Base64 strings.
+     * Existing Base64 columns have to be migrated first, see SqlConnection.migrateToBinary()
+     */
+    public void useBinarySerialization() {
+        this.serializedType = SqlDataType.SERIALIZED;
+        rebuildClassData();
+    }
+
+    /**
+     * Sets the serializer of the serialized fields without a SqlSerializer annotation,
+     * e.g. new CompressingSerializer(new FstSerializer(), 1024) for FST with compression
+     * Existing values must be readable by the new serializer.
+     * @param serializer Default serializer
+     */
+    public void setSerializer(Serializer serializer) {
+        this.serializers.setDefault(serializer);
+        rebuildClassData();
+    }
+
+    /**
+     * Registers the instance used by the fields selecting its class with the SqlSerializer annotation
+     */
+    public void registerSerializer(Serializer serializer) {
+        this.serializers.register(serializer);
+        rebuildClassData();
+    }
+
+    /**
+     * Overrides the dialect detected from the data source properties
+     * @param dialect SQL dialect of the database, e.g. SqlDialect.H2
+     */
+    public void setDialect(SqlDialect dialect) {
+        this.dialect = dialect;
+        rebuildClassData();
+    }
+
+    public SqlDialect getDialect() {
+        return this.dialect;
+    }
+
+    public SerializerRegistry getSerializers() {
+        return this.serializers;
+    }
+
+    private void rebuildClassData() {
+        this.classData.clear();
+
+        for (Class<?> clazz : this.registeredClasses) {
+            this.operations.register(clazz);
+            this.classData.put(clazz, ORMClassData.read(clazz, this.operations, this.serializedType,
+                    this.serializers, this.dialect));
+        }
+
+        // the snapshots depend on the field operations and serializers
+        for (Class<?> clazz : this.changeTrackers.keySet()) {
+            enableChangeTracking(clazz);
+        }
+    }
+
+    /**
+     * Registers a custom codec used to read and write the fields of given SqlDataType
+     * @param type SqlDataType
+     * @param codec Codec to use
+     */
+    public void registerCodec(SqlDataType type, ORMCodec codec) {
+        this.codecs.register(type, codec);
+    }
+
+    public ORMCodecRegistry getCodecs() {
+        return this.codecs;
+    }
+
+    /**
+     * Enables the second-level cache of the ORM class with custom eviction
+     * The objects are read through the cache by SqlConnection.selectByPrimary()
+     * and invalidated upon updates and deletes done through the driver.
+     * The cache is wrapped in a VersionedSqlCache, so reads racing with the writes never cache stale objects.
+     *
+     * Keep in mind that cached objects are shared, the same instance is returned to every caller.
+     * @param clazz SqlObject class with SqlPrimary fields
+     * @param cache Cache implementation
+     */
+    @SuppressWarnings("unchecked")
+    public void enableCache(Class<?> clazz, SqlCache<?, ?> cache) {
+        this.caches.put(clazz, new VersionedSqlCache<>((SqlCache<Object, Object>) cache));
+    }
+
+    /**
+     * Enables the LRU second-level cache of the ORM class
+     * @param clazz SqlObject class with SqlPrimary fields
+     * @param maximumSize Maximum amount of cached objects
+     * @param timeToLive Time to live of the cached objects, 0 to never expire
+     * @param unit Unit of the time to live
+     */
+    public void enableCache(Class<?> clazz, int maximumSize, long timeToLive, TimeUnit unit) {
+        enableCache(clazz, new LruSqlCache<>(maximumSize, timeToLive, unit));
+    }
+
+    public void disableCache(Class<?> clazz) {
+        this.caches.remove(clazz);
+    }
+
+    /**
+     * @param clazz SqlObject class
+     * @return Cache of the class or null if the class is not cached
+     */
+    public VersionedSqlCache<Object, Object> getCache(Class<?> clazz) {
+        return this.caches.get(clazz);
+    }
+
+    /**
+     * Enables the change tracking of the ORM class
+     * The field values of the selected, inserted and updated objects are remembered,
+     * so update() and updateAll() set only the changed records and skip unchanged objects.
+     * Objects without a snapshot (e.g. created by hand) are updated as a whole.
+     *
+     * Serialized fields are compared by their serialized bytes, so their snapshots
+     * cost a serialization on every select and use as much memory as the serialized value.
+     * @param clazz SqlObject class with SqlPrimary fields
+     */
+    public <T> void enableChangeTracking(Class<T> clazz) {
+        this.changeTrackers.put(clazz, new ORMChangeTracker<>(getClassData(clazz), this.operations));
+    }
+
+    public void disableChangeTracking(Class<?> clazz) {
+        this.changeTrackers.remove(clazz);
+    }
+
+    /**
+     * @param clazz SqlObject class
+     * @return Change tracker of the class or null if its changes are not tracked
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ORMChangeTracker<T> getChangeTracker(Class<? extends T> clazz) {
+        return (ORMChangeTracker<T>) this.changeTrackers.get(clazz);
+    }
+
+    /**
+     * Sets the amount of objects sent to the database in a single batch
+     * by insertAll(), updateAll() and deleteAll()
+     * @param batchSize Batch size, 1000 by default
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("Batch size must be positive");
+
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    /**
+     * Fetch size of the streamed selects (ORMStatement.cursor(), stream() and forEach())
+     * MySQL Connector/J streams the rows one by one only with Integer.MIN_VALUE
+     * (or with any positive value when useCursorFetch=true is set in the data source properties)
+     * @param fetchSize Amount of rows fetched at once, 0 lets the JDBC driver decide
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public int getFetchSize() {
+        return this.fetchSize;
+    }
+
+    /**
+     * Maximum amount of prepared statements cached by every borrowed connection,
+     * affects only connections borrowed afterwards
+     * @param statementCacheSize Amount of cached statements, 0 disables the cache
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        if (statementCacheSize < 0)
+            throw new IllegalArgumentException("Statement cache size can't be negative");
+
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public int getStatementCacheSize() {
+        return this.statementCacheSize;
+    }
+
+    /**
+     * @return Hits, misses and evictions of the statement caches of all the connections
+     */
+    public CacheStatistics getStatementCacheStatistics() {
+        return this.statementCacheStatistics;
+    }
+
+    /**
+     * Makes insertAll() send every batch as a single multi-row INSERT statement
+     * instead of a JDBC batch of single-row statements. It's useful for drivers
+     * which don't rewrite the batches on their own (rewriteBatchedStatements)
+     */
+    public void useMultiRowInserts() {
+        this.multiRowInserts = true;
+    }
+
+    public boolean isUsingMultiRowInserts() {
+        return this.multiRowInserts;
     }
 
     public FieldOperations getOperations() {
@@ -75,6 +364,10 @@ public class SqlDriver {
         return new SqlConnection(this, this.source.borrow());
     }
 
+    public SqlSource getSource() {
+        return this.source;
+    }
+
     /**
      * Closes the connection pool, use it only if you want to disconnect
      * from the MySQL server completely
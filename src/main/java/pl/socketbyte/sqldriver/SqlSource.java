@@ -2,10 +2,13 @@ package pl.socketbyte.sqldriver;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import pl.socketbyte.sqldriver.query.SqlDialect;
 
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Properties;
 
 /**
  * Class for abstracing HikariCP API from the rest
@@ -18,6 +21,11 @@ public class SqlSource {
      */
     private final HikariDataSource source;
 
+    /**
+     * Dialect detected from the JDBC URL and the data source or driver class
+     */
+    private final SqlDialect dialect;
+
     /**
      * SqlSource uses properties file to initialize SQL credentials
      * @param propertiesPath properties file with SQL credentials, can be classpath or filesystem path
@@ -25,10 +33,37 @@ public class SqlSource {
     public SqlSource(String propertiesPath) {
         HikariConfig config = new HikariConfig(propertiesPath);
         config.setPoolName("SqlDriverPool");
+        applyStatementCacheDefaults(config);
+        this.dialect = SqlDialect.detect(describe(config));
 
         this.source = new HikariDataSource(config);
     }
 
+    /**
+     * Enables the client-side prepared statement cache of MySQL and MariaDB drivers,
+     * the values set in the properties file are never overridden
+     */
+    private static void applyStatementCacheDefaults(HikariConfig config) {
+        String driver = describe(config).toLowerCase(Locale.ROOT);
+        if (!driver.contains("mysql") && !driver.contains("mariadb"))
+            return;
+
+        Properties properties = config.getDataSourceProperties();
+        properties.putIfAbsent("cachePrepStmts", "true");
+        properties.putIfAbsent("prepStmtCacheSize", "250");
+        properties.putIfAbsent("prepStmtCacheSqlLimit", "2048");
+        properties.putIfAbsent("useServerPrepStmts", "true");
+    }
+
+    private static String describe(HikariConfig config) {
+        return String.valueOf(config.getJdbcUrl()) + ' ' + config.getDataSourceClassName()
+                + ' ' + config.getDriverClassName();
+    }
+
+    public SqlDialect getDialect() {
+        return this.dialect;
+    }
+
     /**
      * Borrows the connection from the connection pool, must be closed after use
      * @return Connection
@@ -41,6 +76,13 @@ public class SqlSource {
         }
     }
 
+    /**
+     * @return Maximum amount of connections in the pool
+     */
+    public int getMaximumPoolSize() {
+        return this.source.getMaximumPoolSize();
+    }
+
     /**
      * Closes the HikariDataSource
      */
@@ -0,0 +1,89 @@
+package pl.socketbyte.sqldriver;
+
+import pl.socketbyte.sqldriver.cache.CacheStatistics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of the prepared statements of a single borrowed connection, keyed by the SQL text
+ * Statements in use are taken out of the cache, so the same query can be prepared twice
+ * at once (e.g. by nested operations) and only one of the statements is kept.
+ * The cache is not thread-safe, just like the SqlConnection owning it.
+ */
+class StatementCache {
+    private final Connection connection;
+    private final int maximumSize;
+    private final CacheStatistics statistics;
+
+    private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection connection, int maximumSize, CacheStatistics statistics) {
+        this.connection = connection;
+        this.maximumSize = maximumSize;
+        this.statistics = statistics;
+    }
+
+    CachedStatement borrow(String query) throws SQLException {
+        PreparedStatement statement = this.statements.remove(query);
+        if (statement != null) {
+            this.statistics.recordHit();
+        }
+        else {
+            this.statistics.recordMiss();
+            statement = this.connection.prepareStatement(query);
+        }
+        return new CachedStatement(this, query, statement);
+    }
+
+    void release(String query, PreparedStatement statement) {
+        try {
+            if (this.maximumSize <= 0 || this.statements.containsKey(query) || statement.isClosed()) {
+                statement.close();
+                return;
+            }
+
+            statement.clearParameters();
+            statement.clearBatch();
+            this.statements.put(query, statement);
+        } catch (SQLException e) {
+            closeQuietly(statement);
+            return;
+        }
+
+        if (this.statements.size() > this.maximumSize) {
+            Iterator<PreparedStatement> iterator = this.statements.values().iterator();
+            PreparedStatement eldest = iterator.next();
+            iterator.remove();
+
+            closeQuietly(eldest);
+            this.statistics.recordEviction();
+        }
+    }
+
+    /**
+     * Closes all the cached statements, must be called before the connection is returned to the pool
+     */
+    void clear() {
+        for (PreparedStatement statement : this.statements.values()) {
+            closeQuietly(statement);
+        }
+        this.statements.clear();
+    }
+
+    int size() {
+        return this.statements.size();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // the statement is dropped anyway
+        }
+    }
+}
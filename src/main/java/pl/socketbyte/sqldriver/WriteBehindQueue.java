@@ -0,0 +1,454 @@
+package pl.socketbyte.sqldriver;
+
+import pl.socketbyte.sqldriver.cache.SqlCache;
+import pl.socketbyte.sqldriver.orm.ORMChangeTracker;
+import pl.socketbyte.sqldriver.orm.ORMClassData;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind persistence queue
+ * Buffers the dirty objects keyed by their SqlPrimary fields and writes them
+ * in batches on a schedule or when the flush threshold is reached.
+ * Repeated writes of the same object are coalesced, only the latest state is written.
+ * Every flush is written in a single transaction, so a failed flush leaves nothing behind.
+ *
+ * The objects must not change their SqlPrimary values while they are queued.
+ * Remember to close() the queue on shutdown, it flushes all the pending writes.
+ */
+@SuppressWarnings("unchecked")
+public class WriteBehindQueue implements AutoCloseable {
+
+    /**
+     * What happens when a new object is queued while the queue is full
+     */
+    public enum OverflowPolicy {
+        /**
+         * The caller waits until the pending writes are flushed
+         */
+        BLOCK,
+        /**
+         * The caller flushes the pending writes on its own thread
+         */
+        FLUSH_ON_CALLER,
+        /**
+         * The object is rejected with RejectedExecutionException
+         */
+        REJECT
+    }
+
+    private enum Operation {
+        INSERT, UPDATE, DELETE,
+        /**
+         * Delete of the old row followed by an insert of the new state
+         */
+        REPLACE;
+
+        /**
+         * @return Operation equivalent to this operation followed by the next one, null if nothing has to be written
+         */
+        private Operation then(Operation next) {
+            switch (this) {
+                case INSERT:
+                    if (next == DELETE)
+                        return null;
+                    return INSERT;
+                case DELETE:
+                    if (next == INSERT)
+                        return REPLACE;
+                    return next == UPDATE ? DELETE : next;
+                case REPLACE:
+                    return next == DELETE ? DELETE : REPLACE;
+                default:
+                    return next;
+            }
+        }
+    }
+
+    private static final int DEFAULT_CAPACITY = 100000;
+    private static final int DEFAULT_FLUSH_THRESHOLD = 1000;
+    private static final long DEFAULT_FLUSH_INTERVAL = 5000;
+
+    private final SqlDriver driver;
+    private final int capacity;
+    private final int flushThreshold;
+    private final long flushInterval;
+    private final OverflowPolicy policy;
+
+    /**
+     * Receives the failures of the background flushes
+     */
+    private volatile Consumer<? super Exception> errorHandler = WriteBehindQueue::reportError;
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Guards the pending writes
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = this.lock.newCondition();
+    private Map<Key, Entry> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    private boolean closed;
+
+    /**
+     * Serializes the flushes, so the writes reach the database in order
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * @param driver SqlDriver used to write the objects
+     * @param capacity Maximum amount of distinct pending objects
+     * @param flushThreshold Amount of pending objects that triggers a flush
+     * @param flushInterval Interval of the scheduled flushes in milliseconds
+     * @param policy What happens when the queue is full
+     */
+    public WriteBehindQueue(SqlDriver driver, int capacity, int flushThreshold,
+                            long flushInterval, OverflowPolicy policy) {
+        if (capacity <= 0 || flushThreshold <= 0 || flushInterval <= 0)
+            throw new IllegalArgumentException("Capacity, flush threshold and flush interval must be positive");
+
+        this.driver = driver;
+        this.capacity = capacity;
+        this.flushThreshold = Math.min(flushThreshold, capacity);
+        this.flushInterval = flushInterval;
+        this.policy = policy;
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SqlDriver-WriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sets the handler of the failures of the background flushes, the failed objects stay queued
+     * By default the failures are passed to the uncaught exception handler of the flushing thread.
+     * @param errorHandler Error handler
+     */
+    public void setErrorHandler(Consumer<? super Exception> errorHandler) {
+        this.errorHandler = Objects.requireNonNull(errorHandler);
+    }
+
+    /**
+     * Queues the object to be inserted
+     */
+    public void insert(Object instance) {
+        enqueue(instance, Operation.INSERT);
+    }
+
+    /**
+     * Queues the object to be updated (matched by its SqlPrimary fields)
+     */
+    public void update(Object instance) {
+        enqueue(instance, Operation.UPDATE);
+    }
+
+    /**
+     * Queues the object to be deleted (matched by its SqlPrimary fields)
+     */
+    public void delete(Object instance) {
+        enqueue(instance, Operation.DELETE);
+    }
+
+    /**
+     * @return Amount of distinct objects waiting to be written
+     */
+    public int size() {
+        this.lock.lock();
+        try {
+            return this.pending.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void enqueue(Object instance, Operation operation) {
+        ORMClassData<Object> classData = this.driver.getClassData(instance.getClass());
+        Key key = new Key(instance.getClass(), classData.getPrimaryKey(this.driver.getOperations(), instance));
+
+        boolean flushOnCaller = false;
+        this.lock.lock();
+        try {
+            if (this.closed)
+                throw new IllegalStateException("The write-behind queue is closed");
+
+            Entry entry = this.pending.get(key);
+            if (entry != null) {
+                merge(key, entry, new Entry(instance, operation));
+                return;
+            }
+
+            while (this.pending.size() >= this.capacity) {
+                if (this.policy == OverflowPolicy.REJECT)
+                    throw new RejectedExecutionException("The write-behind queue is full");
+
+                if (this.policy == OverflowPolicy.FLUSH_ON_CALLER) {
+                    flushOnCaller = true;
+                    break;
+                }
+
+                scheduleFlush();
+                this.notFull.awaitUninterruptibly();
+                if (this.closed)
+                    throw new IllegalStateException("The write-behind queue is closed");
+            }
+
+            if (!flushOnCaller) {
+                this.pending.put(key, new Entry(instance, operation));
+                if (this.pending.size() >= this.flushThreshold)
+                    scheduleFlush();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+
+        if (flushOnCaller) {
+            flush();
+            enqueue(instance, operation);
+        }
+    }
+
+    /**
+     * Applies the newer write onto the pending one, must be called with the lock held
+     */
+    private void merge(Key key, Entry previous, Entry next) {
+        Operation operation = previous.operation.then(next.operation);
+        if (operation == null) {
+            this.pending.remove(key);
+            this.notFull.signalAll();
+            return;
+        }
+        previous.instance = next.instance;
+        previous.operation = operation;
+    }
+
+    private void scheduleFlush() {
+        if (this.flushScheduled)
+            return;
+
+        try {
+            this.scheduler.execute(this::flushQuietly);
+            this.flushScheduled = true;
+        } catch (RejectedExecutionException ignored) {
+            // the scheduler is already shut down, close() flushes everything
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            this.errorHandler.accept(e);
+        }
+    }
+
+    private static void reportError(Exception exception) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+    }
+
+    /**
+     * Synchronously writes all the pending objects in a single transaction
+     * If the write fails, the transaction is rolled back, the objects are queued again
+     * (unless newer writes replaced them) and the exception is rethrown
+     */
+    public void flush() {
+        this.flushLock.lock();
+        try {
+            Map<Key, Entry> drained;
+            this.lock.lock();
+            try {
+                this.flushScheduled = false;
+                if (this.pending.isEmpty())
+                    return;
+
+                drained = this.pending;
+                this.pending = new LinkedHashMap<>();
+                this.notFull.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+
+            try {
+                write(drained.values());
+            } catch (RuntimeException e) {
+                requeue(drained);
+                throw e;
+            }
+        } finally {
+            this.flushLock.unlock();
+        }
+    }
+
+    private void write(Collection<Entry> entries) {
+        Map<Class<?>, List<Object>> deletes = new LinkedHashMap<>();
+        Map<Class<?>, List<Object>> inserts = new LinkedHashMap<>();
+        Map<Class<?>, List<Object>> updates = new LinkedHashMap<>();
+
+        for (Entry entry : entries) {
+            Class<?> clazz = entry.instance.getClass();
+            switch (entry.operation) {
+                case REPLACE:
+                    deletes.computeIfAbsent(clazz, key -> new ArrayList<>()).add(entry.instance);
+                    inserts.computeIfAbsent(clazz, key -> new ArrayList<>()).add(entry.instance);
+                    break;
+                case DELETE:
+                    deletes.computeIfAbsent(clazz, key -> new ArrayList<>()).add(entry.instance);
+                    break;
+                case INSERT:
+                    inserts.computeIfAbsent(clazz, key -> new ArrayList<>()).add(entry.instance);
+                    break;
+                case UPDATE:
+                    updates.computeIfAbsent(clazz, key -> new ArrayList<>()).add(entry.instance);
+                    break;
+            }
+        }
+
+        try (SqlConnection connection = this.driver.borrow()) {
+            Connection rawConnection = connection.getRawConnection();
+            boolean autoCommit = rawConnection.getAutoCommit();
+            rawConnection.setAutoCommit(false);
+            try {
+                for (List<Object> objects : deletes.values())
+                    connection.deleteAll(objects);
+                for (List<Object> objects : inserts.values())
+                    connection.insertAll(objects);
+                for (List<Object> objects : updates.values())
+                    connection.updateAll(objects);
+
+                rawConnection.commit();
+                invalidateCaches(entries);
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    rawConnection.rollback();
+                } catch (SQLException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            } finally {
+                rawConnection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to write the pending objects", e);
+        }
+    }
+
+    /**
+     * Invalidates the written objects once more after the commit, the invalidations done by the writes
+     * happen before the commit, so a concurrent read could still cache the old rows in between
+     */
+    private void invalidateCaches(Collection<Entry> entries) {
+        for (Entry entry : entries) {
+            SqlCache<Object, Object> cache = this.driver.getCache(entry.instance.getClass());
+            if (cache == null)
+                continue;
+
+            ORMClassData<Object> classData = this.driver.getClassData(entry.instance.getClass());
+            cache.invalidate(classData.getPrimaryKey(this.driver.getOperations(), entry.instance));
+        }
+    }
+
+    private void requeue(Map<Key, Entry> failed) {
+        // the snapshots were taken by the rolled back writes, the objects are written as a whole again
+        for (Entry entry : failed.values()) {
+            ORMChangeTracker<Object> tracker = this.driver.getChangeTracker(entry.instance.getClass());
+            if (tracker != null)
+                tracker.forget(entry.instance);
+        }
+
+        this.lock.lock();
+        try {
+            Map<Key, Entry> newer = this.pending;
+            this.pending = failed;
+
+            for (Map.Entry<Key, Entry> entry : newer.entrySet()) {
+                Entry previous = this.pending.get(entry.getKey());
+                if (previous == null)
+                    this.pending.put(entry.getKey(), entry.getValue());
+                else merge(entry.getKey(), previous, entry.getValue());
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the scheduled flushes and writes all the pending objects
+     */
+    @Override
+    public void close() {
+        this.lock.lock();
+        try {
+            this.closed = true;
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+
+        this.scheduler.shutdown();
+        try {
+            this.scheduler.awaitTermination(this.flushInterval, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Creates the queue with default settings (capacity of 100000 objects,
+     * flushing every 5 seconds or every 1000 objects, blocking when full)
+     * @param driver SqlDriver used to write the objects
+     * @return WriteBehindQueue
+     */
+    public static WriteBehindQueue create(SqlDriver driver) {
+        return new WriteBehindQueue(driver, DEFAULT_CAPACITY, DEFAULT_FLUSH_THRESHOLD,
+                DEFAULT_FLUSH_INTERVAL, OverflowPolicy.BLOCK);
+    }
+
+    private static class Key {
+        private final Class<?> clazz;
+        private final Object primaryKey;
+
+        private Key(Class<?> clazz, Object primaryKey) {
+            this.clazz = clazz;
+            this.primaryKey = primaryKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+
+            Key key = (Key) o;
+            return this.clazz == key.clazz && Objects.equals(this.primaryKey, key.primaryKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.clazz.hashCode() + Objects.hashCode(this.primaryKey);
+        }
+    }
+
+    private static class Entry {
+        private Object instance;
+        private Operation operation;
+
+        private Entry(Object instance, Operation operation) {
+            this.instance = instance;
+            this.operation = operation;
+        }
+    }
+}
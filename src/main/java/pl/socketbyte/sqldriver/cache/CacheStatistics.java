@@ -0,0 +1,52 @@
+package pl.socketbyte.sqldriver.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit, miss and eviction counters of a SqlCache
+ */
+public class CacheStatistics {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public void recordHit() {
+        this.hits.increment();
+    }
+
+    public void recordMiss() {
+        this.misses.increment();
+    }
+
+    public void recordEviction() {
+        this.evictions.increment();
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @return Ratio of hits to all the requests, 0 if there were none
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long requests = hits + getMisses();
+
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{hits=" + getHits() + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + "}";
+    }
+}
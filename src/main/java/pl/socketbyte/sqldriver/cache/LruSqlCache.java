@@ -0,0 +1,120 @@
+package pl.socketbyte.sqldriver.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SqlCache evicting the least recently used objects above the maximum size
+ * and (optionally) the objects older than the time to live
+ */
+public class LruSqlCache<K, V> implements SqlCache<K, V> {
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+
+    private final CacheStatistics statistics = new CacheStatistics();
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    /**
+     * @param maximumSize Maximum amount of cached objects
+     * @param timeToLive Time to live of the objects since they were cached, 0 to never expire
+     * @param unit Unit of the time to live
+     */
+    public LruSqlCache(int maximumSize, long timeToLive, TimeUnit unit) {
+        if (maximumSize <= 0)
+            throw new IllegalArgumentException("Maximum size must be positive");
+
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+        this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                if (size() <= LruSqlCache.this.maximumSize)
+                    return false;
+
+                LruSqlCache.this.statistics.recordEviction();
+                return true;
+            }
+        };
+    }
+
+    public LruSqlCache(int maximumSize) {
+        this(maximumSize, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized V get(K key) {
+        CacheEntry<V> entry = this.entries.get(key);
+        if (entry == null) {
+            this.statistics.recordMiss();
+            return null;
+        }
+
+        if (isExpired(entry, System.nanoTime())) {
+            this.entries.remove(key);
+            this.statistics.recordEviction();
+            this.statistics.recordMiss();
+            return null;
+        }
+
+        this.statistics.recordHit();
+        return entry.value;
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        this.entries.put(key, new CacheEntry<>(value, System.nanoTime()));
+    }
+
+    @Override
+    public synchronized void invalidate(K key) {
+        this.entries.remove(key);
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        this.entries.clear();
+    }
+
+    /**
+     * Removes all the expired objects, they are otherwise removed lazily on access
+     */
+    public synchronized void cleanUp() {
+        if (this.timeToLiveNanos <= 0)
+            return;
+
+        long now = System.nanoTime();
+        Iterator<CacheEntry<V>> iterator = this.entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (isExpired(iterator.next(), now)) {
+                iterator.remove();
+                this.statistics.recordEviction();
+            }
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    @Override
+    public CacheStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    private boolean isExpired(CacheEntry<V> entry, long now) {
+        return this.timeToLiveNanos > 0 && now - entry.created > this.timeToLiveNanos;
+    }
+
+    private static class CacheEntry<V> {
+        private final V value;
+        private final long created;
+
+        private CacheEntry(V value, long created) {
+            this.value = value;
+            this.created = created;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package pl.socketbyte.sqldriver.cache;
+
+/**
+ * Second-level cache of ORM objects keyed by their SqlPrimary values
+ * Implementations decide about the eviction and must be thread-safe.
+ *
+ * Keys are the values of the only SqlPrimary field,
+ * or a List of the values if the class has more of them.
+ */
+public interface SqlCache<K, V> {
+
+    /**
+     * @return Cached object or null if there is none (counted as a miss)
+     */
+    V get(K key);
+
+    void put(K key, V value);
+
+    void invalidate(K key);
+
+    void invalidateAll();
+
+    int size();
+
+    CacheStatistics getStatistics();
+}
@@ -0,0 +1,83 @@
+package pl.socketbyte.sqldriver.cache;
+
+/**
+ * SqlCache wrapper guarding the cache-aside reads against concurrent invalidations
+ * Every invalidation bumps the version of the key's stripe, a read populates the cache
+ * only if the version didn't change since before its query, so a row read before an update
+ * or a delete is never cached after the invalidation.
+ */
+public class VersionedSqlCache<K, V> implements SqlCache<K, V> {
+    private static final int STRIPES = 64;
+
+    private final SqlCache<K, V> cache;
+    private final long[] versions = new long[STRIPES];
+
+    public VersionedSqlCache(SqlCache<K, V> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * @return Version to pass to putIfUnchanged() after the object was read from the database
+     */
+    public synchronized long getVersion(K key) {
+        return this.versions[stripe(key)];
+    }
+
+    /**
+     * Caches the object unless its key was invalidated since the version was taken
+     * @return True if the object was cached
+     */
+    public synchronized boolean putIfUnchanged(K key, V value, long version) {
+        if (this.versions[stripe(key)] != version)
+            return false;
+
+        this.cache.put(key, value);
+        return true;
+    }
+
+    @Override
+    public V get(K key) {
+        return this.cache.get(key);
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        this.cache.put(key, value);
+    }
+
+    @Override
+    public synchronized void invalidate(K key) {
+        this.versions[stripe(key)]++;
+        this.cache.invalidate(key);
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            this.versions[i]++;
+        }
+        this.cache.invalidateAll();
+    }
+
+    @Override
+    public int size() {
+        return this.cache.size();
+    }
+
+    @Override
+    public CacheStatistics getStatistics() {
+        return this.cache.getStatistics();
+    }
+
+    /**
+     * @return Wrapped cache implementation
+     */
+    public SqlCache<K, V> getCache() {
+        return this.cache;
+    }
+
+    private static int stripe(Object key) {
+        int hash = key == null ? 0 : key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
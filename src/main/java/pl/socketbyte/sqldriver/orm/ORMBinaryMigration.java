@@ -0,0 +1,186 @@
+package pl.socketbyte.sqldriver.orm;
+
+import pl.socketbyte.sqldriver.SqlConnection;
+import pl.socketbyte.sqldriver.SqlDriver;
+import pl.socketbyte.sqldriver.cache.SqlCache;
+import pl.socketbyte.sqldriver.orm.codec.ORMCodec;
+import pl.socketbyte.sqldriver.query.SqlDataType;
+import pl.socketbyte.sqldriver.query.SqlPredicate;
+import pl.socketbyte.sqldriver.query.SqlQuery;
+
+import java.sql.*;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Migrates Base64 (MEDIUMTEXT) columns of serialized fields to binary (MEDIUMBLOB) columns
+ *
+ * The decoded bytes are copied into a temporary "record_binary" column in batches ordered
+ * by the SqlPrimary fields, then the old column is dropped and the temporary one takes its name.
+ * Nothing is deserialized, the Base64 strings are only decoded. The migration can be
+ * restarted after a failure, the rows that were already copied are skipped.
+ */
+public class ORMBinaryMigration {
+    private static final String TEMPORARY_SUFFIX = "_binary";
+
+    private final SqlDriver driver;
+    private final SqlConnection connection;
+
+    public ORMBinaryMigration(SqlDriver driver, SqlConnection connection) {
+        this.driver = driver;
+        this.connection = connection;
+    }
+
+    /**
+     * Migrates the columns of the fields, the fields must already be of SqlDataType.SERIALIZED
+     * @param clazz SqlObject class
+     * @param fieldNames Java names of the migrated fields
+     * @return Amount of converted values
+     */
+    public long migrate(Class<?> clazz, String... fieldNames) {
+        ORMClassData<?> classData = this.driver.getClassData(clazz);
+        if (classData.getPrimaryFields().isEmpty())
+            throw new RuntimeException("Only classes with SqlPrimary fields can be migrated");
+
+        long migrated = 0;
+        try {
+            for (String fieldName : fieldNames) {
+                ORMFieldData data = classData.getFieldData().get(fieldName);
+                if (data == null)
+                    throw new IllegalArgumentException(clazz.getSimpleName() + " has no SqlField named " + fieldName);
+                if (data.getDataType() != SqlDataType.SERIALIZED)
+                    throw new IllegalArgumentException(clazz.getSimpleName() + "." + fieldName
+                            + " must be declared as SqlDataType.SERIALIZED before the migration");
+
+                migrated += migrate(classData, data);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to migrate the serialized columns", e);
+        }
+
+        SqlCache<Object, Object> cache = this.driver.getCache(clazz);
+        if (cache != null)
+            cache.invalidateAll();
+        return migrated;
+    }
+
+    private long migrate(ORMClassData<?> classData, ORMFieldData data) throws SQLException {
+        String table = classData.getTableName();
+        String record = data.getName();
+        String temporary = record + TEMPORARY_SUFFIX;
+
+        Integer recordType = getColumnType(table, record);
+        boolean hasTemporary = getColumnType(table, temporary) != null;
+
+        if (recordType != null && !hasTemporary && isBinary(recordType))
+            return 0;
+
+        long migrated = 0;
+        if (recordType != null) {
+            if (!hasTemporary)
+                execute(query().alterTable(table).addColumn(temporary, SqlDataType.SERIALIZED, true).done());
+
+            migrated = copy(classData, record, temporary);
+            execute(query().alterTable(table).dropColumn(record).done());
+        }
+        execute(query().alterTable(table)
+                .changeColumn(temporary, record, SqlDataType.SERIALIZED, data.isNullable()).done());
+
+        return migrated;
+    }
+
+    /**
+     * Decodes the Base64 values into the temporary column, batch by batch
+     */
+    private long copy(ORMClassData<?> classData, String record, String temporary) throws SQLException {
+        List<ORMFieldData> primaryFields = classData.getPrimaryFields();
+        ORMFieldData data = classData.getRecordData(record);
+
+        String[] primaryRecords = new String[primaryFields.size()];
+        String[] selectedRecords = new String[primaryFields.size() + 1];
+        for (int i = 0; i < primaryRecords.length; i++) {
+            primaryRecords[i] = primaryFields.get(i).getName();
+            selectedRecords[i] = primaryRecords[i];
+        }
+        selectedRecords[primaryRecords.length] = record;
+
+        String select = query()
+                .select(selectedRecords)
+                .table(classData.getTableName())
+                .where(SqlPredicate.and(SqlPredicate.isNotNull(record), SqlPredicate.isNull(temporary)))
+                .orderBy(primaryRecords)
+                .limit()
+                .done();
+        String update = query()
+                .update()
+                .table(classData.getTableName())
+                .set(temporary)
+                .where(primaryRecords)
+                .done();
+
+        int batchSize = this.driver.getBatchSize();
+        long migrated = 0;
+        int selected;
+        do {
+            selected = 0;
+            try (PreparedStatement selectStatement = this.connection.createStatement(select);
+                 PreparedStatement updateStatement = this.connection.createStatement(update)) {
+                selectStatement.setInt(1, batchSize);
+
+                try (ResultSet rs = selectStatement.executeQuery()) {
+                    while (rs.next()) {
+                        String base64 = rs.getString(primaryRecords.length + 1);
+                        updateStatement.setBytes(1,
+                                ORMSerializer.decodeBase64(base64, data.isUsingBukkitSerialization()));
+
+                        for (int i = 0; i < primaryRecords.length; i++) {
+                            ORMFieldData primary = primaryFields.get(i);
+                            ORMCodec codec = this.driver.getCodecs().get(primary.getDataType());
+                            codec.write(updateStatement, i + 2, codec.read(rs, i + 1, primary), primary);
+                        }
+                        updateStatement.addBatch();
+                        selected++;
+                    }
+                }
+                if (selected > 0)
+                    updateStatement.executeBatch();
+            }
+            migrated += selected;
+        } while (selected == batchSize);
+
+        return migrated;
+    }
+
+    private SqlQuery query() {
+        return new SqlQuery(this.driver.getDialect());
+    }
+
+    private Integer getColumnType(String table, String column) throws SQLException {
+        DatabaseMetaData metaData = this.connection.getRawConnection().getMetaData();
+        String pattern = table;
+        if (metaData.storesUpperCaseIdentifiers())
+            pattern = table.toUpperCase(Locale.ROOT);
+        else if (metaData.storesLowerCaseIdentifiers())
+            pattern = table.toLowerCase(Locale.ROOT);
+
+        try (ResultSet rs = metaData.getColumns(this.connection.getRawConnection().getCatalog(), null, pattern, null)) {
+            while (rs.next()) {
+                if (table.equalsIgnoreCase(rs.getString("TABLE_NAME"))
+                        && column.equalsIgnoreCase(rs.getString("COLUMN_NAME")))
+                    return rs.getInt("DATA_TYPE");
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBinary(int type) {
+        return type == Types.BLOB || type == Types.LONGVARBINARY
+                || type == Types.VARBINARY || type == Types.BINARY;
+    }
+
+    private void execute(String query) throws SQLException {
+        try (PreparedStatement statement = this.connection.createStatement(query)) {
+            statement.executeUpdate();
+        }
+    }
+}
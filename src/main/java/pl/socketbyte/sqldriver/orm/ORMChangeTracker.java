@@ -0,0 +1,207 @@
+package pl.socketbyte.sqldriver.orm;
+
+import pl.socketbyte.sqldriver.query.SqlDataType;
+import pl.socketbyte.sqldriver.reflect.FieldOperations;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Remembers the field values of the objects as they were last read from or written to the database,
+ * so updates can set only the changed records (see SqlDriver.enableChangeTracking())
+ *
+ * The snapshots are held by weak identity keys, they don't keep the objects alive.
+ * Immutable values are compared with equals(), java.util.Date and byte[] values by their copies
+ * and serialized fields by their serialized bytes. Values of other mutable types
+ * are always treated as changed.
+ *
+ * The serialized fields of the objects read from the database are remembered by the bytes
+ * read with the row (see SerializedCodec), they are serialized only when the object is compared.
+ * Values stored in a different form than their current serialization (e.g. written before
+ * a class was registered) are treated as changed and rewritten by the next update.
+ */
+public class ORMChangeTracker<T> {
+    private static final Object UNTRACKED = new Object();
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class,
+            Long.class, Float.class, Double.class, BigDecimal.class, BigInteger.class, UUID.class));
+
+    private final ORMClassData<T> classData;
+    private final FieldOperations operations;
+    private final ORMFieldData[] fields;
+
+    private final Map<IdentityReference, Object[]> snapshots = new HashMap<>();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+    public ORMChangeTracker(ORMClassData<T> classData, FieldOperations operations) {
+        this.classData = classData;
+        this.operations = operations;
+        this.fields = classData.getFieldData().values().toArray(new ORMFieldData[0]);
+    }
+
+    /**
+     * Remembers the current values of the object, call it after the object was written or read
+     */
+    public void snapshot(T instance) {
+        snapshot(instance, null);
+    }
+
+    /**
+     * Remembers the current values of the object read from the database
+     * @param stored Stored bytes of the serialized fields indexed by getSlot(), null entries are captured
+     *               from the object, the array can be null
+     */
+    void snapshot(T instance, byte[][] stored) {
+        Object[] snapshot = new Object[this.fields.length];
+        for (int i = 0; i < this.fields.length; i++) {
+            snapshot[i] = stored != null && stored[i] != null
+                    ? stored[i]
+                    : capture(this.fields[i], read(instance, this.fields[i]));
+        }
+
+        synchronized (this) {
+            expunge();
+            this.snapshots.put(new IdentityReference(instance, this.collected), snapshot);
+        }
+    }
+
+    /**
+     * Forgets the object, e.g. after it was deleted
+     */
+    public synchronized void forget(T instance) {
+        expunge();
+        this.snapshots.remove(new IdentityReference(instance, null));
+    }
+
+    /**
+     * @return Fields changed since the last snapshot in declaration order,
+     * an empty list if nothing changed or null if the object has no snapshot
+     */
+    public List<ORMFieldData> getChangedFields(T instance) {
+        Object[] snapshot;
+        synchronized (this) {
+            snapshot = this.snapshots.get(new IdentityReference(instance, null));
+        }
+        if (snapshot == null)
+            return null;
+
+        List<ORMFieldData> changed = new ArrayList<>();
+        for (int i = 0; i < this.fields.length; i++) {
+            ORMFieldData data = this.fields[i];
+            if (!isUnchanged(data, snapshot[i], read(instance, data)))
+                changed.add(data);
+        }
+        return changed;
+    }
+
+    /**
+     * @return Index of the field in the stored bytes passed to snapshot(), -1 if the field isn't tracked
+     */
+    int getSlot(ORMFieldData data) {
+        for (int i = 0; i < this.fields.length; i++) {
+            if (this.fields[i].getName().equals(data.getName()))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return Amount of the tracked fields, the length of the stored bytes passed to snapshot()
+     */
+    int getFieldCount() {
+        return this.fields.length;
+    }
+
+    /**
+     * @return Amount of the objects with a snapshot
+     */
+    public synchronized int size() {
+        expunge();
+        return this.snapshots.size();
+    }
+
+    private Object read(T instance, ORMFieldData data) {
+        return this.operations.getField(this.classData.getType(), instance, data.getFieldIndex());
+    }
+
+    private static Object capture(ORMFieldData data, Object value) {
+        if (value == null || isImmutable(value.getClass()))
+            return value;
+
+        if (value instanceof Date)
+            return ((Date) value).clone();
+        if (value instanceof byte[])
+            return ((byte[]) value).clone();
+
+        if (isSerialized(data)) {
+            try {
+                return data.getSerializer().serialize(value);
+            } catch (RuntimeException e) {
+                return UNTRACKED;
+            }
+        }
+        return UNTRACKED;
+    }
+
+    private static boolean isUnchanged(ORMFieldData data, Object snapshot, Object value) {
+        if (snapshot == UNTRACKED)
+            return false;
+        if (snapshot == null || value == null)
+            return snapshot == value;
+
+        if (snapshot instanceof byte[] && isSerialized(data) && !(value instanceof byte[]))
+            return Arrays.equals((byte[]) snapshot, data.getSerializer().serialize(value));
+
+        if (snapshot instanceof byte[] && value instanceof byte[])
+            return Arrays.equals((byte[]) snapshot, (byte[]) value);
+
+        return snapshot.equals(value);
+    }
+
+    private static boolean isImmutable(Class<?> type) {
+        return IMMUTABLE_TYPES.contains(type) || type.isEnum();
+    }
+
+    private static boolean isSerialized(ORMFieldData data) {
+        return data.getDataType() == SqlDataType.BASE64 || data.getDataType() == SqlDataType.SERIALIZED;
+    }
+
+    private void expunge() {
+        Object reference;
+        while ((reference = this.collected.poll()) != null) {
+            this.snapshots.remove(reference);
+        }
+    }
+
+    /**
+     * Weak key compared by the identity of the referenced object
+     */
+    private static class IdentityReference extends WeakReference<Object> {
+        private final int hash;
+
+        private IdentityReference(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other)
+                return true;
+            if (!(other instanceof IdentityReference))
+                return false;
+
+            Object referent = get();
+            return referent != null && referent == ((IdentityReference) other).get();
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package pl.socketbyte.sqldriver.orm;
+
+import pl.socketbyte.sqldriver.orm.annotation.*;
+import pl.socketbyte.sqldriver.orm.serializer.BukkitSerializer;
+import pl.socketbyte.sqldriver.orm.serializer.CompressingSerializer;
+import pl.socketbyte.sqldriver.orm.serializer.Serializer;
+import pl.socketbyte.sqldriver.orm.serializer.SerializerRegistry;
+import pl.socketbyte.sqldriver.query.SqlDataType;
+import pl.socketbyte.sqldriver.query.SqlDialect;
+import pl.socketbyte.sqldriver.reflect.FieldOperations;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable ORM metadata of a single SqlObject class
+ * It is computed once per driver (upon registration or first use)
+ * and shared between all connections, so it must stay thread-safe
+ */
+public class ORMClassData<T> {
+    private final Class<T> clazz;
+    private final String tableName;
+
+    /**
+     * Java field name -> field data, in declaration order
+     */
+    private final Map<String, ORMFieldData> fieldData;
+
+    /**
+     * SQL record name -> field data, case insensitive just like SQL column names
+     */
+    private final Map<String, ORMFieldData> recordData;
+
+    private final List<ORMFieldData> primaryFields;
+
+    private final List<ORMReference> references;
+
+    private final ORMQueries queries;
+
+    /**
+     * Projections keyed by their DTO class or by the list of projected field names
+     */
+    private final Map<Object, ORMProjection<?>> projections = new ConcurrentHashMap<>();
+
+    private ORMClassData(Class<T> clazz, String tableName, Map<String, ORMFieldData> fieldData,
+                         List<ORMReference> references, SqlDialect dialect) {
+        this.clazz = clazz;
+        this.tableName = tableName;
+        this.references = Collections.unmodifiableList(references);
+        this.fieldData = Collections.unmodifiableMap(fieldData);
+
+        Map<String, ORMFieldData> recordData = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        List<ORMFieldData> primaryFields = new ArrayList<>();
+        for (ORMFieldData data : fieldData.values()) {
+            recordData.put(data.getName(), data);
+
+            if (data.isPrimary())
+                primaryFields.add(data);
+        }
+        this.recordData = Collections.unmodifiableMap(recordData);
+        this.primaryFields = Collections.unmodifiableList(primaryFields);
+
+        this.queries = new ORMQueries(this, dialect);
+    }
+
+    public Class<T> getType() {
+        return clazz;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public Map<String, ORMFieldData> getFieldData() {
+        return fieldData;
+    }
+
+    /**
+     * @param recordName Name of the SQL record
+     * @return Field data mapped onto given record or null if there is none
+     */
+    public ORMFieldData getRecordData(String recordName) {
+        return recordData.get(recordName);
+    }
+
+    public List<ORMFieldData> getPrimaryFields() {
+        return primaryFields;
+    }
+
+    /**
+     * Reads the values of the SqlPrimary fields, the result is suitable as a map key
+     * @param operations Field operations of the driver
+     * @param instance Object to read the key of
+     * @return Value of the only primary field or a List of the primary values
+     */
+    public Object getPrimaryKey(FieldOperations operations, T instance) {
+        if (this.primaryFields.isEmpty())
+            throw new RuntimeException("ORM class object has no SqlPrimary fields");
+
+        if (this.primaryFields.size() == 1)
+            return operations.getField(this.clazz, instance, this.primaryFields.get(0).getFieldIndex());
+
+        Object[] values = new Object[this.primaryFields.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = operations.getField(this.clazz, instance, this.primaryFields.get(i).getFieldIndex());
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Builds the key of the given SqlPrimary values in the same form as getPrimaryKey(),
+     * the values are converted to the types of the fields, e.g. an Integer to a Long
+     * @param primaryValues Values of the SqlPrimary fields, in declaration order
+     * @return Value of the only primary field or a List of the primary values
+     */
+    public Object toPrimaryKey(Object... primaryValues) {
+        if (primaryValues.length != this.primaryFields.size())
+            throw new IllegalArgumentException("Expected " + this.primaryFields.size() + " primary values");
+
+        if (primaryValues.length == 1)
+            return convert(primaryValues[0], this.primaryFields.get(0).getType());
+
+        Object[] values = new Object[primaryValues.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = convert(primaryValues[i], this.primaryFields.get(i).getType());
+        }
+        return Arrays.asList(values);
+    }
+
+    private static Object convert(Object value, Class<?> type) {
+        if (!(value instanceof Number) && !(value instanceof String))
+            return value;
+
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (type == long.class || type == Long.class)
+                return number.longValue();
+            if (type == int.class || type == Integer.class)
+                return number.intValue();
+            if (type == short.class || type == Short.class)
+                return number.shortValue();
+            if (type == byte.class || type == Byte.class)
+                return number.byteValue();
+            if (type == double.class || type == Double.class)
+                return number.doubleValue();
+            if (type == float.class || type == Float.class)
+                return number.floatValue();
+            return value;
+        }
+
+        if (type == UUID.class)
+            return UUID.fromString((String) value);
+        return value;
+    }
+
+    /**
+     * @return Parsed SqlReference fields of the class
+     */
+    public List<ORMReference> getReferences() {
+        return references;
+    }
+
+    public ORMQueries getQueries() {
+        return queries;
+    }
+
+    /**
+     * @param fieldNames Java names of the projected fields
+     * @return Projection of this class onto the fields
+     */
+    @SuppressWarnings("unchecked")
+    public ORMProjection<T> getProjection(String... fieldNames) {
+        return (ORMProjection<T>) this.projections.computeIfAbsent(Arrays.asList(fieldNames),
+                key -> ORMProjection.of(this, fieldNames));
+    }
+
+    /**
+     * @param type DTO class, its fields are matched with the fields of this class by name
+     * @param operations Field operations of the driver
+     * @return Projection of this class onto the DTO class
+     */
+    @SuppressWarnings("unchecked")
+    public <D> ORMProjection<D> getProjection(Class<D> type, FieldOperations operations) {
+        return (ORMProjection<D>) this.projections.computeIfAbsent(type,
+                key -> ORMProjection.of(this, type, operations));
+    }
+
+    private static Serializer readSerializer(Field field, boolean useBukkitSerialization,
+                                             SerializerRegistry serializers) {
+        Serializer serializer = useBukkitSerialization
+                ? serializers.get(BukkitSerializer.class)
+                : serializers.getDefault();
+
+        SqlSerializer annotation = field.getAnnotation(SqlSerializer.class);
+        if (annotation == null)
+            return serializer;
+
+        if (annotation.value() != Serializer.class)
+            serializer = serializers.get(annotation.value());
+        if (annotation.compressionThreshold() >= 0)
+            serializer = new CompressingSerializer(serializer, annotation.compressionThreshold());
+        return serializer;
+    }
+
+    /**
+     * Scans the class annotations and builds its ORM metadata
+     * @param clazz SqlObject class
+     * @param operations Field operations used to discover the fields
+     * @return ORMClassData
+     */
+    public static <T> ORMClassData<T> read(Class<T> clazz, FieldOperations operations) {
+        return read(clazz, operations, SqlDataType.BASE64, SerializerRegistry.createDefault());
+    }
+
+    /**
+     * Scans the class annotations and builds its ORM metadata
+     * @param clazz SqlObject class
+     * @param operations Field operations used to discover the fields
+     * @param serializedType Type of the auto detected fields that have to be serialized
+     * @param serializers Serializers of the driver
+     * @return ORMClassData
+     */
+    public static <T> ORMClassData<T> read(Class<T> clazz, FieldOperations operations, SqlDataType serializedType,
+                                           SerializerRegistry serializers) {
+        return read(clazz, operations, serializedType, serializers, SqlDialect.MYSQL);
+    }
+
+    /**
+     * Scans the class annotations and builds its ORM metadata
+     * @param clazz SqlObject class
+     * @param operations Field operations used to discover the fields
+     * @param serializedType Type of the auto detected fields that have to be serialized
+     * @param serializers Serializers of the driver
+     * @param dialect Dialect of the precompiled queries
+     * @return ORMClassData
+     */
+    @SuppressWarnings("deprecation")
+    public static <T> ORMClassData<T> read(Class<T> clazz, FieldOperations operations, SqlDataType serializedType,
+                                           SerializerRegistry serializers, SqlDialect dialect) {
+        if (!clazz.isAnnotationPresent(SqlObject.class)) {
+            throw new RuntimeException("ORM class object has no SqlObject annotation");
+        }
+
+        SqlObject object = clazz.getAnnotation(SqlObject.class);
+        Map<String, ORMFieldData> fieldData = new LinkedHashMap<>();
+
+        for (Field field : operations.getFields(clazz)) {
+            if (field.isAnnotationPresent(SqlTransient.class))
+                continue;
+
+            String fieldName = null;
+            SqlDataType fieldType = null;
+            boolean nullable = false;
+            boolean useBukkitSerialization = false;
+
+            if (field.isAnnotationPresent(SqlUseBukkitSerialization.class)) {
+                useBukkitSerialization = true;
+            }
+
+            if (field.isAnnotationPresent(SqlField.class)) {
+                SqlField property = field.getAnnotation(SqlField.class);
+
+                if (!property.name().equals("")) {
+                    fieldName = property.name();
+                }
+
+                if (property.type() != SqlDataType.AUTO_DETECT) {
+                    fieldType = property.type();
+                }
+            }
+
+            if (field.isAnnotationPresent(SqlNullable.class)) {
+                nullable = true;
+            }
+
+            if (fieldName == null)
+                fieldName = field.getName().toLowerCase();
+
+            if (fieldType == null)
+                fieldType = ORMTypeReader.readFieldType(field, serializedType);
+
+            boolean serialized = fieldType == SqlDataType.BASE64 || fieldType == SqlDataType.SERIALIZED;
+            if (serialized && field.isAnnotationPresent(SqlPrimary.class))
+                throw new RuntimeException(clazz.getSimpleName() + "." + field.getName() + " is serialized "
+                        + "and can't be a SqlPrimary field, equal objects don't always serialize to the same bytes");
+
+            fieldData.put(field.getName(), new ORMFieldData(field.getName(),
+                    operations.getFieldIndex(clazz, field.getName()), field.getType(), fieldName, fieldType,
+                    nullable, field.isAnnotationPresent(SqlPrimary.class), useBukkitSerialization,
+                    readSerializer(field, useBukkitSerialization, serializers)));
+        }
+
+        return new ORMClassData<>(clazz, object.tableName(), fieldData, ORMReference.read(clazz, operations),
+                dialect);
+    }
+}
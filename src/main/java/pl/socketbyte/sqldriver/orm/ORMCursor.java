@@ -0,0 +1,103 @@
+package pl.socketbyte.sqldriver.orm;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Forward-only cursor over the selected objects
+ * The rows are mapped one by one while iterating, nothing is accumulated in memory.
+ * The cursor holds an open ResultSet, so it must be closed (it's also closed
+ * automatically once exhausted). The connection it was opened on must stay borrowed
+ * until the cursor is closed.
+ *
+ * If the cursor reuses an object, next() always returns that object filled
+ * with the current row, so it must not be stored between the iterations.
+ */
+public class ORMCursor<T> implements Iterator<T>, AutoCloseable {
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private final ORMResultMapper<T> mapper;
+    private final T reused;
+
+    private boolean fetched;
+    private boolean hasNext;
+    private boolean closed;
+
+    ORMCursor(PreparedStatement statement, ResultSet resultSet, ORMResultMapper<T> mapper, T reused) {
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.mapper = mapper;
+        this.reused = reused;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.closed)
+            return false;
+
+        if (!this.fetched) {
+            try {
+                this.hasNext = this.resultSet.next();
+            } catch (SQLException e) {
+                close();
+                throw new RuntimeException("Unable to read the next row", e);
+            }
+            this.fetched = true;
+
+            if (!this.hasNext)
+                close();
+        }
+        return this.hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        this.fetched = false;
+        try {
+            if (this.reused != null)
+                return this.mapper.map(this.resultSet, this.reused);
+
+            return this.mapper.map(this.resultSet);
+        } catch (SQLException e) {
+            close();
+            throw new RuntimeException("Unable to read the row", e);
+        }
+    }
+
+    /**
+     * @return Sequential stream of the remaining objects, closing the stream closes the cursor
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * Closes the ResultSet and the statement, but not the connection
+     * The statement is closed even if closing the ResultSet fails
+     */
+    @Override
+    public void close() {
+        if (this.closed)
+            return;
+
+        this.closed = true;
+        // closed in reverse order, a later failure is added to the first one as suppressed
+        try (PreparedStatement statement = this.statement; ResultSet resultSet = this.resultSet) {
+            // only closes
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to close the cursor", e);
+        }
+    }
+}
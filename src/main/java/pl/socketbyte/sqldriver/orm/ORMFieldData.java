@@ -0,0 +1,93 @@
+package pl.socketbyte.sqldriver.orm;
+
+import pl.socketbyte.sqldriver.orm.serializer.Serializer;
+import pl.socketbyte.sqldriver.query.SqlDataType;
+
+/**
+ * Immutable description of a single ORM field,
+ * i.e. how a Java field maps onto its SQL record
+ */
+public class ORMFieldData {
+    private final String fieldName;
+    private final int fieldIndex;
+    private final Class<?> type;
+    private final String name;
+    private final SqlDataType dataType;
+    private final boolean nullable;
+    private final boolean primary;
+    private final boolean useBukkitSerialization;
+    private final Serializer serializer;
+    private final ORMPrimitive primitive;
+
+    public ORMFieldData(String fieldName, int fieldIndex, Class<?> type, String name, SqlDataType dataType,
+                        boolean nullable, boolean primary, boolean useBukkitSerialization, Serializer serializer) {
+        this.fieldName = fieldName;
+        this.fieldIndex = fieldIndex;
+        this.type = type;
+        this.name = name;
+        this.dataType = dataType;
+        this.nullable = nullable;
+        this.primary = primary;
+        this.useBukkitSerialization = useBukkitSerialization;
+        this.serializer = serializer;
+        this.primitive = ORMPrimitive.of(type);
+    }
+
+    /**
+     * @return Name of the Java field
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * @return Index of the Java field resolved by the driver's FieldOperations
+     */
+    public int getFieldIndex() {
+        return fieldIndex;
+    }
+
+    /**
+     * @return Type of the Java field
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return Unboxed access path of the field or null if the field is not a supported primitive
+     */
+    public ORMPrimitive getPrimitive() {
+        return primitive;
+    }
+
+    /**
+     * @return Name of the SQL record
+     */
+    public String getName() {
+        return name;
+    }
+
+    public SqlDataType getDataType() {
+        return dataType;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    public boolean isPrimary() {
+        return primary;
+    }
+
+    /**
+     * @return Serializer of the field value, used by the BASE64 and SERIALIZED codecs
+     */
+    public Serializer getSerializer() {
+        return serializer;
+    }
+
+    public boolean isUsingBukkitSerialization() {
+        return useBukkitSerialization;
+    }
+}
@@ -0,0 +1,136 @@
+package pl.socketbyte.sqldriver.orm;
+
+import pl.socketbyte.sqldriver.SqlConnection;
+import pl.socketbyte.sqldriver.SqlDriver;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * List of a lazy SqlReference field, see SqlReference.lazy()
+ * The referenced objects are fetched on the first access, on a connection borrowed from the pool.
+ * All the lists installed by the same selection form a group, the first accessed list
+ * loads every not yet loaded list of the group with batched IN lookups, so iterating
+ * over the owners doesn't run a query per owner.
+ *
+ * The join key of the owner is read when the list is loaded.
+ * After loading the list behaves like an ArrayList.
+ */
+public class ORMLazyList<E> extends AbstractList<E> {
+    private final Group group;
+    private final Object owner;
+
+    private volatile List<E> delegate;
+
+    private ORMLazyList(Group group, Object owner) {
+        this.group = group;
+        this.owner = owner;
+    }
+
+    /**
+     * @return True if the referenced objects were already fetched
+     */
+    public boolean isLoaded() {
+        return this.delegate != null;
+    }
+
+    private List<E> delegate() {
+        List<E> delegate = this.delegate;
+        if (delegate == null) {
+            this.group.load();
+            delegate = this.delegate;
+        }
+        return delegate;
+    }
+
+    @Override
+    public E get(int index) {
+        return delegate().get(index);
+    }
+
+    @Override
+    public int size() {
+        return delegate().size();
+    }
+
+    @Override
+    public E set(int index, E element) {
+        return delegate().set(index, element);
+    }
+
+    @Override
+    public void add(int index, E element) {
+        delegate().add(index, element);
+        this.modCount++;
+    }
+
+    @Override
+    public E remove(int index) {
+        E removed = delegate().remove(index);
+        this.modCount++;
+        return removed;
+    }
+
+    /**
+     * Fills the lazy reference field of the owners with lists of a new group
+     * @param driver SqlDriver used to fetch the referenced objects
+     * @param reference Lazy reference
+     * @param owners Objects owning the reference field
+     */
+    public static void install(SqlDriver driver, ORMReference reference, List<?> owners) {
+        if (owners.isEmpty())
+            return;
+
+        Group group = new Group(driver, reference);
+        for (Object owner : owners) {
+            ORMLazyList<Object> list = new ORMLazyList<>(group, owner);
+            group.members.add(list);
+
+            driver.getOperations().setField(reference.getOwnerClass(), owner, reference.getFieldIndex(), list);
+        }
+    }
+
+    private static class Group {
+        private final SqlDriver driver;
+        private final ORMReference reference;
+
+        /**
+         * Lists waiting to be loaded, cleared once the group is loaded
+         */
+        private List<ORMLazyList<Object>> members = new ArrayList<>();
+
+        private Group(SqlDriver driver, ORMReference reference) {
+            this.driver = driver;
+            this.reference = reference;
+        }
+
+        private synchronized void load() {
+            if (this.members == null)
+                return;
+
+            List<Object> owners = new ArrayList<>(this.members.size());
+            for (ORMLazyList<Object> member : this.members) {
+                owners.add(member.owner);
+            }
+
+            List<Object> referenced;
+            try (SqlConnection connection = this.driver.borrow()) {
+                ORMReferenceLoader loader = new ORMReferenceLoader(this.driver, connection);
+                referenced = loader.fetch(this.reference, owners);
+                loader.load(this.reference.getReferencedClass(), referenced, 1);
+            }
+
+            Map<Object, List<Object>> index = new ORMReferenceResolver(this.driver)
+                    .buildIndex(this.reference, referenced);
+            for (ORMLazyList<Object> member : this.members) {
+                Object key = this.reference.getOwnerKey(this.driver.getOperations(), member.owner);
+                List<Object> matching = key == null ? null : index.get(key);
+
+                member.delegate = matching == null ? new ArrayList<>() : new ArrayList<>(matching);
+            }
+            this.members = null;
+        }
+    }
+}
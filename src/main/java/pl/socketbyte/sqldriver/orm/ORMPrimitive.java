@@ -0,0 +1,111 @@
+package pl.socketbyte.sqldriver.orm;
+
+import pl.socketbyte.sqldriver.reflect.FieldOperations;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Unboxed read and write paths of the primitive ORM fields
+ * Values go straight between the typed JDBC methods and the typed
+ * FieldOperations accessors, so no garbage is produced per column
+ */
+public enum ORMPrimitive {
+    INT {
+        @Override
+        public void write(FieldOperations operations, Class<?> clazz, Object instance, int fieldIndex,
+                          PreparedStatement statement, int index) throws SQLException {
+            statement.setInt(index, operations.getInt(clazz, instance, fieldIndex));
+        }
+
+        @Override
+        public void read(FieldOperations operations, Class<?> clazz, Object instance, int fieldIndex,
+                         ResultSet rs, int index) throws SQLException {
+            operations.setInt(clazz, instance, fieldIndex, rs.getInt(index));
+        }
+    },
+    LONG {
+        @Override
+        public void write(FieldOperations operations, Class<?> clazz, Object instance, int fieldIndex,
+                          PreparedStatement statement, int index) throws SQLException {
+            statement.setLong(index, operations.getLong(clazz, instance, fieldIndex));
+        }
+
+        @Override
+        public void read(FieldOperations operations, Class<?> clazz, Object instance, int fieldIndex,
+                         ResultSet rs, int index) throws SQLException {
+            operations.setLong(clazz, instance, fieldIndex, rs.getLong(index));
+        }
+    },
+    DOUBLE {
+        @Override
+        public void write(FieldOperations operations, Class<?> clazz, Object instance, int fieldIndex,
+                          PreparedStatement statement, int index) throws SQLException {
+            statement.setDouble(index, operations.getDouble(clazz, instance, fieldIndex));
+        }
+
+        @Override
+        public void read(FieldOperations operations, Class<?> clazz, Object instance, int fieldIndex,
+                         ResultSet rs, int index) throws SQLException {
+            operations.setDouble(clazz, instance, fieldIndex, rs.getDouble(index));
+        }
+    },
+    FLOAT {
+        @Override
+        public void write(FieldOperations operations, Class<?> clazz, Object instance, int fieldIndex,
+                          PreparedStatement statement, int index) throws SQLException {
+            statement.setFloat(index, operations.getFloat(clazz, instance, fieldIndex));
+        }
+
+        @Override
+        public void read(FieldOperations operations, Class<?> clazz, Object instance, int fieldIndex,
+                         ResultSet rs, int index) throws SQLException {
+            operations.setFloat(clazz, instance, fieldIndex, rs.getFloat(index));
+        }
+    },
+    BOOLEAN {
+        @Override
+        public void write(FieldOperations operations, Class<?> clazz, Object instance, int fieldIndex,
+                          PreparedStatement statement, int index) throws SQLException {
+            statement.setBoolean(index, operations.getBoolean(clazz, instance, fieldIndex));
+        }
+
+        @Override
+        public void read(FieldOperations operations, Class<?> clazz, Object instance, int fieldIndex,
+                         ResultSet rs, int index) throws SQLException {
+            operations.setBoolean(clazz, instance, fieldIndex, rs.getBoolean(index));
+        }
+    };
+
+    /**
+     * Binds the field value to the statement without boxing it
+     */
+    public abstract void write(FieldOperations operations, Class<?> clazz, Object instance, int fieldIndex,
+                               PreparedStatement statement, int index) throws SQLException;
+
+    /**
+     * Reads the column value into the field without boxing it
+     */
+    public abstract void read(FieldOperations operations, Class<?> clazz, Object instance, int fieldIndex,
+                              ResultSet rs, int index) throws SQLException;
+
+    /**
+     * @param type Java type of the field
+     * @return Primitive path for given type or null if the type has none
+     */
+    public static ORMPrimitive of(Class<?> type) {
+        if (type == int.class) {
+            return INT;
+        } else if (type == long.class) {
+            return LONG;
+        } else if (type == double.class) {
+            return DOUBLE;
+        } else if (type == float.class) {
+            return FLOAT;
+        } else if (type == boolean.class) {
+            return BOOLEAN;
+        }
+        return null;
+    }
+}
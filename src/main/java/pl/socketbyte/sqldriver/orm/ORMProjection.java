@@ -0,0 +1,104 @@
+package pl.socketbyte.sqldriver.orm;
+
+import pl.socketbyte.sqldriver.orm.annotation.SqlTransient;
+import pl.socketbyte.sqldriver.reflect.FieldOperations;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Narrow selection of a SqlObject class, only the projected records are selected and decoded
+ *
+ * The target is either the SqlObject class itself (other fields keep their default values)
+ * or a DTO class whose fields have the same names and types as the projected SqlObject fields.
+ * Projections are immutable and cached by ORMClassData.
+ */
+public class ORMProjection<T> {
+    private final Class<T> type;
+    private final String[] records;
+
+    /**
+     * Field data of every selected record, with the field indexes of the target class
+     */
+    private final ORMFieldData[] columns;
+
+    private ORMProjection(Class<T> type, List<ORMFieldData> columns) {
+        this.type = type;
+        this.columns = columns.toArray(new ORMFieldData[0]);
+        this.records = new String[this.columns.length];
+        for (int i = 0; i < this.columns.length; i++) {
+            this.records[i] = this.columns[i].getName();
+        }
+    }
+
+    public Class<T> getType() {
+        return this.type;
+    }
+
+    /**
+     * @return Selected record names
+     */
+    public String[] getRecords() {
+        return this.records.clone();
+    }
+
+    /**
+     * @return Field data of the selected records in select order, see ORMResultMapper
+     */
+    public ORMFieldData[] getColumns() {
+        return this.columns.clone();
+    }
+
+    /**
+     * Projection of the SqlObject class onto its own fields
+     * @param classData SqlObject class data
+     * @param fieldNames Java field names of the projected fields
+     */
+    static <T> ORMProjection<T> of(ORMClassData<T> classData, String... fieldNames) {
+        if (fieldNames.length == 0)
+            throw new IllegalArgumentException("At least one field must be projected");
+
+        List<ORMFieldData> columns = new ArrayList<>(fieldNames.length);
+        for (String fieldName : fieldNames) {
+            columns.add(getFieldData(classData, fieldName));
+        }
+        return new ORMProjection<>(classData.getType(), columns);
+    }
+
+    /**
+     * Projection of the SqlObject class onto a DTO class,
+     * every non-static, non-transient DTO field is matched by its name
+     * @param classData SqlObject class data
+     * @param type DTO class with a no-args constructor
+     * @param operations Field operations of the driver
+     */
+    static <D> ORMProjection<D> of(ORMClassData<?> classData, Class<D> type, FieldOperations operations) {
+        List<ORMFieldData> columns = new ArrayList<>();
+        for (Field field : operations.getFields(type)) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isAnnotationPresent(SqlTransient.class))
+                continue;
+
+            ORMFieldData data = getFieldData(classData, field.getName());
+            if (data.getType() != field.getType())
+                throw new RuntimeException("Projected field " + type.getSimpleName() + "." + field.getName()
+                        + " must be of type " + data.getType().getName());
+
+            columns.add(new ORMFieldData(field.getName(), operations.getFieldIndex(type, field.getName()),
+                    field.getType(), data.getName(), data.getDataType(), data.isNullable(), data.isPrimary(),
+                    data.isUsingBukkitSerialization(), data.getSerializer()));
+        }
+
+        if (columns.isEmpty())
+            throw new RuntimeException("Projection class " + type.getSimpleName() + " has no fields");
+        return new ORMProjection<>(type, columns);
+    }
+
+    private static ORMFieldData getFieldData(ORMClassData<?> classData, String fieldName) {
+        ORMFieldData data = classData.getFieldData().get(fieldName);
+        if (data == null)
+            throw new RuntimeException(classData.getType().getSimpleName() + " has no SqlField named " + fieldName);
+        return data;
+    }
+}
@@ -0,0 +1,331 @@
+package pl.socketbyte.sqldriver.orm;
+
+import pl.socketbyte.sqldriver.query.SqlDialect;
+import pl.socketbyte.sqldriver.query.SqlPredicate;
+import pl.socketbyte.sqldriver.query.SqlQuery;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precompiled SQL queries of a single SqlObject class
+ * The queries are built once and reused for every ORM operation,
+ * queries with custom WHERE conditions are cached by their record names
+ */
+public class ORMQueries {
+    private final ORMClassData<?> classData;
+    private final SqlDialect dialect;
+
+    private final String createTable;
+    private final String insert;
+    private final String select;
+    private final String selectByPrimary;
+    private final String update;
+    private final String delete;
+    private final String drop;
+
+    private final Map<Integer, String> insertQueries = new ConcurrentHashMap<>();
+    private final Map<Integer, String> upsertQueries = new ConcurrentHashMap<>();
+    private final Map<List<String>, String> selectQueries = new ConcurrentHashMap<>();
+    private final Map<String, String> selectPredicateQueries = new ConcurrentHashMap<>();
+    private final Map<List<Object>, String> projectionQueries = new ConcurrentHashMap<>();
+    private final Map<String, String> deletePredicateQueries = new ConcurrentHashMap<>();
+    private final Map<List<Object>, String> selectInQueries = new ConcurrentHashMap<>();
+    private final Map<List<Object>, String> pageQueries = new ConcurrentHashMap<>();
+    private final Map<List<String>, String> updateQueries = new ConcurrentHashMap<>();
+    private final Map<List<String>, String> partialUpdateQueries = new ConcurrentHashMap<>();
+    private final Map<List<String>, String> deleteQueries = new ConcurrentHashMap<>();
+
+    ORMQueries(ORMClassData<?> classData, SqlDialect dialect) {
+        this.classData = classData;
+        this.dialect = dialect;
+
+        SqlQuery createTable = new SqlQuery(this.dialect)
+                .createTable(classData.getTableName());
+        for (ORMFieldData data : classData.getFieldData().values()) {
+            String type = data.isPrimary()
+                    ? dialect.getKeyType(data.getDataType())
+                    : dialect.getType(data.getDataType());
+            createTable.record(data.getName(), type, data.isNullable());
+        }
+        String[] primaryRecords = getPrimaryRecords();
+        if (primaryRecords.length > 0)
+            createTable.primaryKey(primaryRecords);
+        this.createTable = createTable.done();
+
+        this.insert = new SqlQuery(this.dialect)
+                .insertInto()
+                .table(classData.getTableName())
+                .columns(getRecords())
+                .values(classData.getFieldData().size())
+                .done();
+
+        this.select = new SqlQuery(this.dialect)
+                .select()
+                .table(classData.getTableName())
+                .done();
+
+        this.drop = new SqlQuery(this.dialect)
+                .drop()
+                .table(classData.getTableName())
+                .done();
+
+        this.selectByPrimary = new SqlQuery(this.dialect)
+                .select()
+                .table(classData.getTableName())
+                .where(primaryRecords)
+                .done();
+        this.update = buildUpdate(getRecords(), primaryRecords);
+        this.delete = buildDelete(primaryRecords);
+    }
+
+    public String createTable() {
+        return this.createTable;
+    }
+
+    public String insert() {
+        return this.insert;
+    }
+
+    /**
+     * @param rows Amount of rows
+     * @return Multi-row INSERT query
+     */
+    public String insert(int rows) {
+        if (rows == 1)
+            return this.insert;
+
+        return this.insertQueries.computeIfAbsent(rows, key -> new SqlQuery(this.dialect)
+                .insertInto()
+                .table(this.classData.getTableName())
+                .columns(getRecords())
+                .values(this.classData.getFieldData().size(), rows)
+                .done());
+    }
+
+    /**
+     * @param rows Amount of rows
+     * @return INSERT query overwriting the non-primary records of the existing rows with the same primary key
+     */
+    public String upsert(int rows) {
+        return this.upsertQueries.computeIfAbsent(rows, key ->
+                this.dialect.upsert(this.classData.getTableName(), getRecords(), getPrimaryRecords(), rows));
+    }
+
+    public String select() {
+        return this.select;
+    }
+
+    /**
+     * @return SELECT query filtered by the primary records
+     */
+    public String selectByPrimary() {
+        return this.selectByPrimary;
+    }
+
+    /**
+     * @param whereRecords Records compared in the WHERE clause
+     * @return SELECT query filtered by given records
+     */
+    public String select(String... whereRecords) {
+        if (whereRecords.length == 0)
+            return this.select;
+
+        return this.selectQueries.computeIfAbsent(Arrays.asList(whereRecords), key -> new SqlQuery(this.dialect)
+                .select()
+                .table(this.classData.getTableName())
+                .where(whereRecords)
+                .done());
+    }
+
+    /**
+     * @param predicate WHERE condition, queries are cached by its structure
+     * @return SELECT query filtered by the predicate
+     */
+    public String select(SqlPredicate predicate) {
+        return this.selectPredicateQueries.computeIfAbsent(predicate.toSql(), key -> new SqlQuery(this.dialect)
+                .select()
+                .table(this.classData.getTableName())
+                .where(predicate)
+                .done());
+    }
+
+    /**
+     * @param records Selected records
+     * @param predicate WHERE condition, null to select all the rows
+     * @return SELECT query of the records only
+     */
+    public String select(String[] records, SqlPredicate predicate) {
+        List<Object> shape = Arrays.asList(Arrays.asList(records), predicate == null ? null : predicate.toSql());
+
+        return this.projectionQueries.computeIfAbsent(shape, key -> {
+            SqlQuery query = new SqlQuery(this.dialect)
+                    .select(records)
+                    .table(this.classData.getTableName());
+            if (predicate != null)
+                query.where(predicate);
+            return query.done();
+        });
+    }
+
+    /**
+     * @param predicate WHERE condition, queries are cached by its structure
+     * @return DELETE query filtered by the predicate
+     */
+    public String delete(SqlPredicate predicate) {
+        return this.deletePredicateQueries.computeIfAbsent(predicate.toSql(), key -> new SqlQuery(this.dialect)
+                .deleteFrom()
+                .table(this.classData.getTableName())
+                .where(predicate)
+                .done());
+    }
+
+    /**
+     * @param constantRecords Records compared with a single value each
+     * @param keyRecords Records compared with the list of keys, can be empty
+     * @param keys Amount of compared keys
+     * @return SELECT query filtered by "constantRecord=? AND ... AND (keyRecords) IN (...)"
+     */
+    public String selectIn(String[] constantRecords, String[] keyRecords, int keys) {
+        List<Object> shape = Arrays.asList(Arrays.asList(constantRecords), Arrays.asList(keyRecords), keys);
+
+        return this.selectInQueries.computeIfAbsent(shape, key -> {
+            SqlQuery query = new SqlQuery(this.dialect)
+                    .select()
+                    .table(this.classData.getTableName());
+            if (constantRecords.length == 0 && keyRecords.length == 0)
+                return query.done();
+
+            query.where();
+            for (int i = 0; i < constantRecords.length; i++) {
+                if (i > 0)
+                    query.and();
+                query.equal(constantRecords[i]);
+            }
+            if (keyRecords.length > 0) {
+                if (constantRecords.length > 0)
+                    query.and();
+                query.in(keyRecords, keys);
+            }
+            return query.done();
+        });
+    }
+
+    /**
+     * Keyset page query ordered by the primary records, i.e.
+     * "WHERE whereRecord=? AND (primaryRecords) &gt; (?) ORDER BY primaryRecords LIMIT ?"
+     * @param whereRecords Records compared in the WHERE clause
+     * @param seek True if the page starts after given primary values, false for the first page
+     * @param descending True to walk the primary records in descending order
+     * @return SELECT query
+     */
+    public String selectPage(String[] whereRecords, boolean seek, boolean descending) {
+        List<Object> shape = Arrays.asList(Arrays.asList(whereRecords), seek, descending);
+
+        return this.pageQueries.computeIfAbsent(shape, key -> {
+            String[] primaryRecords = getPrimaryRecords();
+
+            SqlQuery query = new SqlQuery(this.dialect)
+                    .select()
+                    .table(this.classData.getTableName());
+            if (whereRecords.length > 0 || seek)
+                query.where();
+            for (int i = 0; i < whereRecords.length; i++) {
+                if (i > 0)
+                    query.and();
+                query.equal(whereRecords[i]);
+            }
+            if (seek) {
+                if (whereRecords.length > 0)
+                    query.and();
+                query.compare(descending ? "<" : ">", primaryRecords);
+            }
+
+            if (descending)
+                query.orderByDescending(primaryRecords);
+            else query.orderBy(primaryRecords);
+
+            return query.limit().done();
+        });
+    }
+
+    private String[] getPrimaryRecords() {
+        String[] primaryRecords = new String[this.classData.getPrimaryFields().size()];
+        for (int i = 0; i < primaryRecords.length; i++) {
+            primaryRecords[i] = this.classData.getPrimaryFields().get(i).getName();
+        }
+        return primaryRecords;
+    }
+
+    /**
+     * @return UPDATE query of all the records, filtered by the primary records
+     */
+    public String update() {
+        return this.update;
+    }
+
+    /**
+     * @param whereRecords Records compared in the WHERE clause
+     * @return UPDATE query of all the records, filtered by given records
+     */
+    public String update(String... whereRecords) {
+        return this.updateQueries.computeIfAbsent(Arrays.asList(whereRecords),
+                key -> buildUpdate(getRecords(), whereRecords));
+    }
+
+    /**
+     * @param setRecords Records set by the query, e.g. the changed ones
+     * @return UPDATE query of given records, filtered by the primary records
+     */
+    public String updateRecords(String... setRecords) {
+        return this.partialUpdateQueries.computeIfAbsent(Arrays.asList(setRecords),
+                key -> buildUpdate(setRecords, getPrimaryRecords()));
+    }
+
+    /**
+     * @return DELETE query filtered by the primary records
+     */
+    public String delete() {
+        return this.delete;
+    }
+
+    /**
+     * @param whereRecords Records compared in the WHERE clause
+     * @return DELETE query filtered by given records
+     */
+    public String delete(String... whereRecords) {
+        return this.deleteQueries.computeIfAbsent(Arrays.asList(whereRecords), key -> buildDelete(whereRecords));
+    }
+
+    public String drop() {
+        return this.drop;
+    }
+
+    private String[] getRecords() {
+        String[] records = new String[this.classData.getFieldData().size()];
+        int index = 0;
+        for (ORMFieldData data : this.classData.getFieldData().values()) {
+            records[index++] = data.getName();
+        }
+        return records;
+    }
+
+    private String buildUpdate(String[] setRecords, String[] whereRecords) {
+        return new SqlQuery(this.dialect)
+                .update()
+                .table(this.classData.getTableName())
+                .set(setRecords)
+                .where(whereRecords)
+                .done();
+    }
+
+    private String buildDelete(String... whereRecords) {
+        return new SqlQuery(this.dialect)
+                .deleteFrom()
+                .table(this.classData.getTableName())
+                .where(whereRecords)
+                .done();
+    }
+}
@@ -0,0 +1,222 @@
+package pl.socketbyte.sqldriver.orm;
+
+import pl.socketbyte.sqldriver.orm.annotation.SqlReference;
+import pl.socketbyte.sqldriver.reflect.FieldOperations;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parsed rules of a single SqlReference field
+ * Rules are written as "referencedField=ownerField" or "referencedField=constant",
+ * the right side is treated as a constant if the owner class has no such field.
+ */
+public class ORMReference {
+    private final Class<?> ownerClass;
+    private final Class<?> referencedClass;
+    private final String fieldName;
+    private final int fieldIndex;
+    private final boolean list;
+    private final boolean lazy;
+
+    /**
+     * Field indexes of the "referencedField=ownerField" rules
+     */
+    private final int[] ownerIndexes;
+    private final int[] referencedIndexes;
+    private final String[] ownerFields;
+    private final String[] referencedFields;
+
+    /**
+     * "referencedField=constant" rules, compared by their string values
+     */
+    private final int[] constantIndexes;
+    private final String[] constantFields;
+    private final String[] constants;
+
+    private ORMReference(Class<?> ownerClass, Field field, FieldOperations operations) {
+        SqlReference reference = field.getAnnotation(SqlReference.class);
+
+        this.ownerClass = ownerClass;
+        this.referencedClass = reference.reference();
+        this.fieldName = field.getName();
+        this.fieldIndex = operations.getFieldIndex(ownerClass, field.getName());
+        this.list = field.getType().isAssignableFrom(List.class);
+        this.lazy = reference.lazy();
+        if (this.lazy && !this.list)
+            throw new RuntimeException("Lazy SqlReference " + this.fieldName + " must be a List field");
+
+        List<String> ownerFields = new ArrayList<>();
+        List<String> referencedFields = new ArrayList<>();
+        List<String> constantFields = new ArrayList<>();
+        List<String> constants = new ArrayList<>();
+        for (String rule : reference.rule()) {
+            String[] split = rule.split("=");
+            if (split.length != 2)
+                throw new RuntimeException("Invalid SqlReference rule '" + rule + "' of " + this.fieldName);
+
+            String referencedField = split[0].trim();
+            String compareWhat = split[1].trim();
+
+            if (hasField(operations, ownerClass, compareWhat)) {
+                ownerFields.add(compareWhat);
+                referencedFields.add(referencedField);
+            }
+            else {
+                constantFields.add(referencedField);
+                constants.add(compareWhat);
+            }
+        }
+
+        this.ownerFields = ownerFields.toArray(new String[0]);
+        this.referencedFields = referencedFields.toArray(new String[0]);
+        this.constantFields = constantFields.toArray(new String[0]);
+        this.constants = constants.toArray(new String[0]);
+
+        this.ownerIndexes = resolveIndexes(operations, ownerClass, this.ownerFields);
+        this.referencedIndexes = resolveIndexes(operations, this.referencedClass, this.referencedFields);
+        this.constantIndexes = resolveIndexes(operations, this.referencedClass, this.constantFields);
+    }
+
+    private static boolean hasField(FieldOperations operations, Class<?> clazz, String fieldName) {
+        try {
+            operations.getFieldIndex(clazz, fieldName);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static int[] resolveIndexes(FieldOperations operations, Class<?> clazz, String[] fieldNames) {
+        int[] indexes = new int[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            try {
+                indexes[i] = operations.getFieldIndex(clazz, fieldNames[i]);
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("SqlReference rule refers to an unknown field "
+                        + clazz.getSimpleName() + "." + fieldNames[i], e);
+            }
+        }
+        return indexes;
+    }
+
+    public Class<?> getOwnerClass() {
+        return ownerClass;
+    }
+
+    public Class<?> getReferencedClass() {
+        return referencedClass;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public int getFieldIndex() {
+        return fieldIndex;
+    }
+
+    /**
+     * @return True if the field holds a List of all the matching objects, false if it holds the first one
+     */
+    public boolean isList() {
+        return list;
+    }
+
+    /**
+     * @return True if the field is filled with an ORMLazyList instead of the loaded objects
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * @return Owner fields compared with the referenced fields of the same index
+     */
+    public String[] getOwnerFields() {
+        return ownerFields.clone();
+    }
+
+    public String[] getReferencedFields() {
+        return referencedFields.clone();
+    }
+
+    /**
+     * @return Referenced fields compared with the constants of the same index
+     */
+    public String[] getConstantFields() {
+        return constantFields.clone();
+    }
+
+    public String[] getConstants() {
+        return constants.clone();
+    }
+
+    /**
+     * @return Key identifying the hash index of the referenced objects,
+     * references with equal keys can share the same index
+     */
+    public Object getIndexKey() {
+        return Arrays.asList(this.referencedClass, Arrays.asList(this.referencedFields),
+                Arrays.asList(this.constantFields), Arrays.asList(this.constants));
+    }
+
+    /**
+     * Checks the constant rules against the referenced object
+     */
+    public boolean matchesConstants(FieldOperations operations, Object referenced) {
+        for (int i = 0; i < this.constantIndexes.length; i++) {
+            Object value = operations.getField(this.referencedClass, referenced, this.constantIndexes[i]);
+            if (value == null || !this.constants[i].equals(value.toString()))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return Join key of the owner object, null if any of its values is null
+     */
+    public Object getOwnerKey(FieldOperations operations, Object owner) {
+        return readKey(operations, this.ownerClass, owner, this.ownerIndexes);
+    }
+
+    /**
+     * @return Join key of the referenced object, null if any of its values is null
+     */
+    public Object getReferencedKey(FieldOperations operations, Object referenced) {
+        return readKey(operations, this.referencedClass, referenced, this.referencedIndexes);
+    }
+
+    private static Object readKey(FieldOperations operations, Class<?> clazz, Object instance, int[] indexes) {
+        if (indexes.length == 0)
+            return Boolean.TRUE;
+
+        if (indexes.length == 1)
+            return operations.getField(clazz, instance, indexes[0]);
+
+        Object[] values = new Object[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            values[i] = operations.getField(clazz, instance, indexes[i]);
+            if (values[i] == null)
+                return null;
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Reads the SqlReference fields of the class
+     * @param clazz Owner class
+     * @param operations Field operations of the driver
+     * @return Parsed references
+     */
+    public static List<ORMReference> read(Class<?> clazz, FieldOperations operations) {
+        List<ORMReference> references = new ArrayList<>();
+        for (Field field : operations.getFields(clazz)) {
+            if (field.isAnnotationPresent(SqlReference.class))
+                references.add(new ORMReference(clazz, field, operations));
+        }
+        return references;
+    }
+}
@@ -0,0 +1,111 @@
+package pl.socketbyte.sqldriver.orm;
+
+import pl.socketbyte.sqldriver.SqlConnection;
+import pl.socketbyte.sqldriver.SqlDriver;
+import pl.socketbyte.sqldriver.reflect.FieldOperations;
+
+import java.util.*;
+
+/**
+ * Loads the SqlReference fields of already selected objects from the database
+ * Only the related rows are fetched, with batched "WHERE (referencedRecords) IN (...)" lookups
+ * built out of the reference rules, so the referenced tables don't have to fit in memory.
+ * The fetched objects are attached to their owners with ORMReferenceResolver.
+ */
+public class ORMReferenceLoader {
+    private final SqlDriver driver;
+    private final SqlConnection connection;
+    private final FieldOperations operations;
+
+    public ORMReferenceLoader(SqlDriver driver, SqlConnection connection) {
+        this.driver = driver;
+        this.connection = connection;
+        this.operations = driver.getOperations();
+    }
+
+    /**
+     * Loads the references of the owners
+     * @param clazz Class of the owners
+     * @param owners Selected objects
+     * @param depth How many levels of references are loaded, 1 loads only the references of the owners
+     */
+    public void load(Class<?> clazz, List<?> owners, int depth) {
+        if (depth <= 0 || owners.isEmpty())
+            return;
+
+        ORMClassData<?> classData = this.driver.getClassData(clazz);
+        for (ORMReference reference : classData.getReferences()) {
+            if (reference.isLazy()) {
+                ORMLazyList.install(this.driver, reference, owners);
+                continue;
+            }
+
+            List<Object> referenced = fetch(reference, owners);
+
+            new ORMReferenceResolver(this.driver).resolve(reference, owners, referenced);
+            load(reference.getReferencedClass(), referenced, depth - 1);
+        }
+    }
+
+    /**
+     * Fetches the objects referenced by any of the owners, without attaching them
+     * @param reference Loaded reference
+     * @param owners Objects owning the reference field
+     * @return Referenced objects
+     */
+    public List<Object> fetch(ORMReference reference, List<?> owners) {
+        ORMClassData<?> referencedData = this.driver.getClassData(reference.getReferencedClass());
+
+        Set<Object> keys = new LinkedHashSet<>();
+        for (Object owner : owners) {
+            Object key = reference.getOwnerKey(this.operations, owner);
+            if (key != null)
+                keys.add(key);
+        }
+        if (keys.isEmpty())
+            return Collections.emptyList();
+
+        String[] keyRecords = toRecords(referencedData, reference, reference.getReferencedFields());
+
+        // constants of other types (e.g. booleans) are only compared by the resolver,
+        // their string forms don't have to match the database representation
+        List<String> constantRecords = new ArrayList<>();
+        List<String> constants = new ArrayList<>();
+        String[] constantFields = reference.getConstantFields();
+        String[] constantValues = reference.getConstants();
+        for (int i = 0; i < constantFields.length; i++) {
+            ORMFieldData data = toFieldData(referencedData, reference, constantFields[i]);
+            if (data.getType() != String.class && !isNumber(data.getType()))
+                continue;
+
+            constantRecords.add(data.getName());
+            constants.add(constantValues[i]);
+        }
+
+        ORMStatement<Object> statement = this.connection.makeORMStatement(reference.getReferencedClass());
+        return statement.selectIn(constantRecords.toArray(new String[0]), constants.toArray(new String[0]),
+                keyRecords, keyRecords.length == 0 ? Collections.emptyList() : keys);
+    }
+
+    private static boolean isNumber(Class<?> type) {
+        return Number.class.isAssignableFrom(type)
+                || type == int.class || type == long.class || type == double.class
+                || type == float.class || type == short.class || type == byte.class;
+    }
+
+    private static String[] toRecords(ORMClassData<?> classData, ORMReference reference, String[] fieldNames) {
+        String[] records = new String[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            records[i] = toFieldData(classData, reference, fieldNames[i]).getName();
+        }
+        return records;
+    }
+
+    private static ORMFieldData toFieldData(ORMClassData<?> classData, ORMReference reference, String fieldName) {
+        ORMFieldData data = classData.getFieldData().get(fieldName);
+        if (data == null)
+            throw new RuntimeException("SqlReference " + reference.getFieldName() + " can't be loaded from the database, "
+                    + classData.getType().getSimpleName() + "." + fieldName + " is not a SqlField");
+        return data;
+    }
+}
@@ -0,0 +1,98 @@
+package pl.socketbyte.sqldriver.orm;
+
+import pl.socketbyte.sqldriver.SqlDriver;
+import pl.socketbyte.sqldriver.reflect.FieldOperations;
+
+import java.util.*;
+
+/**
+ * Resolves the SqlReference fields of already loaded objects with hash joins
+ * The referenced objects are indexed by their join keys in one pass,
+ * then every owner object probes the index, so the cost is linear in the amount of objects.
+ */
+public class ORMReferenceResolver {
+    private final SqlDriver driver;
+    private final FieldOperations operations;
+
+    /**
+     * Hash indexes of the referenced objects, shared by the references with the same rules
+     */
+    private final Map<Object, Map<Object, List<Object>>> indexes = new HashMap<>();
+
+    public ORMReferenceResolver(SqlDriver driver) {
+        this.driver = driver;
+        this.operations = driver.getOperations();
+    }
+
+    /**
+     * Sets the SqlReference fields of all the loaded objects
+     * @param objects Loaded objects of every class
+     */
+    public void resolve(Map<? extends Class<?>, ? extends List<?>> objects) {
+        for (Map.Entry<? extends Class<?>, ? extends List<?>> entry : objects.entrySet()) {
+            ORMClassData<?> classData = this.driver.getClassData(entry.getKey());
+
+            for (ORMReference reference : classData.getReferences()) {
+                if (reference.isLazy()) {
+                    ORMLazyList.install(this.driver, reference, entry.getValue());
+                    continue;
+                }
+
+                List<?> referenced = objects.get(reference.getReferencedClass());
+                if (referenced == null)
+                    throw new RuntimeException("The referenced classes were not loaded successfully");
+
+                resolve(reference, entry.getValue(), referenced);
+            }
+        }
+    }
+
+    /**
+     * Sets the reference field of the owner objects
+     * @param reference Reference to resolve
+     * @param owners Objects owning the reference field
+     * @param referenced Objects that can be referenced
+     */
+    public void resolve(ORMReference reference, List<?> owners, List<?> referenced) {
+        Map<Object, List<Object>> index = this.indexes.get(reference.getIndexKey());
+        if (index == null) {
+            index = buildIndex(reference, referenced);
+            this.indexes.put(reference.getIndexKey(), index);
+        }
+
+        for (Object owner : owners) {
+            Object key = reference.getOwnerKey(this.operations, owner);
+            List<Object> matching = key == null ? null : index.get(key);
+
+            if (reference.isList()) {
+                this.operations.setField(reference.getOwnerClass(), owner, reference.getFieldIndex(),
+                        matching == null ? new ArrayList<>() : new ArrayList<>(matching));
+            }
+            else if (matching != null) {
+                this.operations.setField(reference.getOwnerClass(), owner, reference.getFieldIndex(),
+                        matching.get(0));
+            }
+        }
+    }
+
+    /**
+     * Groups the referenced objects by their join keys, objects not matching the constant rules are skipped
+     * @param reference Reference to resolve
+     * @param referenced Objects that can be referenced
+     * @return Join key -> matching objects
+     */
+    public Map<Object, List<Object>> buildIndex(ORMReference reference, List<?> referenced) {
+        Map<Object, List<Object>> index = new HashMap<>();
+        for (Object object : referenced) {
+            if (!reference.matchesConstants(this.operations, object))
+                continue;
+
+            Object key = reference.getReferencedKey(this.operations, object);
+            if (key == null)
+                continue;
+
+            index.computeIfAbsent(key, k -> new ArrayList<>(1)).add(object);
+        }
+        return index;
+    }
+}
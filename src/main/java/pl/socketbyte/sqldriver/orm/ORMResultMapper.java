@@ -0,0 +1,164 @@
+package pl.socketbyte.sqldriver.orm;
+
+import pl.socketbyte.sqldriver.orm.codec.ORMCodec;
+import pl.socketbyte.sqldriver.orm.codec.ORMCodecRegistry;
+import pl.socketbyte.sqldriver.orm.codec.SerializedCodec;
+import pl.socketbyte.sqldriver.reflect.FieldOperations;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Maps the rows of a ResultSet onto ORM objects
+ * The ResultSet metadata is resolved once per query into a column index -> field plan,
+ * so mapping a row doesn't involve any metadata or name lookups
+ *
+ * Values are decoded strictly by the codec of the field's SqlDataType
+ */
+public class ORMResultMapper<T> {
+    private final FieldOperations operations;
+    private final Class<? extends T> clazz;
+
+    /**
+     * Field data of every column (index 0 is the column 1), null for columns that are not mapped
+     */
+    private final ORMFieldData[] columns;
+    private final ORMCodec[] codecs;
+
+    /**
+     * Unboxed paths of the primitive columns, used when the type has no custom codec
+     */
+    private final ORMPrimitive[] primitives;
+
+    /**
+     * Change tracker snapshotting the mapped objects, null if the changes are not tracked
+     */
+    private ORMChangeTracker<T> tracker;
+
+    /**
+     * Tracker slots of the serialized columns whose stored bytes are snapshotted, -1 for the other columns,
+     * null if there are no such columns
+     */
+    private int[] storedSlots;
+
+    public ORMResultMapper(FieldOperations operations, ORMCodecRegistry codecs,
+                           ORMClassData<T> classData, ResultSetMetaData metaData) throws SQLException {
+        this(operations, codecs, classData.getType(), resolveColumns(classData, metaData));
+    }
+
+    /**
+     * @param clazz Class of the mapped objects
+     * @param columns Field data of every selected column in select order, the field indexes belong to clazz
+     */
+    public ORMResultMapper(FieldOperations operations, ORMCodecRegistry codecs,
+                           Class<? extends T> clazz, ORMFieldData[] columns) {
+        this.operations = operations;
+        this.clazz = clazz;
+
+        this.columns = columns.clone();
+        this.codecs = new ORMCodec[this.columns.length];
+        this.primitives = new ORMPrimitive[this.columns.length];
+        for (int i = 0; i < this.columns.length; i++) {
+            ORMFieldData fieldData = this.columns[i];
+            if (fieldData == null)
+                continue;
+
+            this.codecs[i] = codecs.get(fieldData.getDataType());
+
+            if (this.codecs[i] == ORMCodecRegistry.PLAIN_CODEC)
+                this.primitives[i] = fieldData.getPrimitive();
+        }
+    }
+
+    /**
+     * Snapshots every mapped object in the tracker, use it only when all the fields are selected
+     * @param tracker Change tracker of the class or null
+     */
+    public void setChangeTracker(ORMChangeTracker<T> tracker) {
+        this.tracker = tracker;
+        this.storedSlots = null;
+        if (tracker == null)
+            return;
+
+        for (int i = 0; i < this.columns.length; i++) {
+            if (this.columns[i] == null || !(this.codecs[i] instanceof SerializedCodec))
+                continue;
+
+            int slot = tracker.getSlot(this.columns[i]);
+            if (slot < 0)
+                continue;
+
+            if (this.storedSlots == null) {
+                this.storedSlots = new int[this.columns.length];
+                Arrays.fill(this.storedSlots, -1);
+            }
+            this.storedSlots[i] = slot;
+        }
+    }
+
+    private static ORMFieldData[] resolveColumns(ORMClassData<?> classData, ResultSetMetaData metaData)
+            throws SQLException {
+        ORMFieldData[] columns = new ORMFieldData[metaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = classData.getRecordData(metaData.getColumnLabel(i + 1));
+        }
+        return columns;
+    }
+
+    /**
+     * Creates a new object out of the current row
+     * @param rs ResultSet positioned on a row
+     * @return Mapped object
+     */
+    public T map(ResultSet rs) throws SQLException {
+        T object;
+        try {
+            object = this.clazz.newInstance();
+        } catch (IllegalAccessException | InstantiationException e) {
+            throw new RuntimeException("Unable to read the ResultSet", e);
+        }
+
+        return map(rs, object);
+    }
+
+    /**
+     * Overwrites the mapped fields of an existing object with the current row
+     * @param rs ResultSet positioned on a row
+     * @param object Object to fill, fields without a column keep their values
+     * @return The same object
+     */
+    public T map(ResultSet rs, T object) throws SQLException {
+        byte[][] stored = this.storedSlots != null
+                ? new byte[this.tracker.getFieldCount()][]
+                : null;
+
+        for (int i = 0; i < this.columns.length; i++) {
+            ORMFieldData fieldData = this.columns[i];
+            if (fieldData == null)
+                continue;
+
+            ORMPrimitive primitive = this.primitives[i];
+            if (primitive != null) {
+                primitive.read(this.operations, this.clazz, object, fieldData.getFieldIndex(), rs, i + 1);
+                continue;
+            }
+
+            Object value;
+            if (stored != null && this.storedSlots[i] >= 0) {
+                SerializedCodec codec = (SerializedCodec) this.codecs[i];
+                byte[] serialized = codec.readBytes(rs, i + 1, fieldData);
+                stored[this.storedSlots[i]] = serialized;
+                value = serialized == null ? null : codec.decode(serialized, fieldData);
+            }
+            else value = this.codecs[i].read(rs, i + 1, fieldData);
+
+            this.operations.setField(this.clazz, object, fieldData.getFieldIndex(), value);
+        }
+
+        if (this.tracker != null)
+            this.tracker.snapshot(object, stored);
+        return object;
+    }
+}
@@ -1,57 +1,77 @@
 package pl.socketbyte.sqldriver.orm;
 
-import org.bukkit.util.io.BukkitObjectInputStream;
-import org.bukkit.util.io.BukkitObjectOutputStream;
-import org.nustaq.serialization.FSTConfiguration;
 import org.yaml.snakeyaml.external.biz.base64Coder.Base64Coder;
-import pl.socketbyte.sqldriver.orm.annotation.SqlUseBukkitSerialization;
+import pl.socketbyte.sqldriver.orm.serializer.BukkitSerializer;
+import pl.socketbyte.sqldriver.orm.serializer.FstSerializer;
+import pl.socketbyte.sqldriver.orm.serializer.Serializer;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.Serializable;
+import java.io.InputStream;
 import java.util.Base64;
 
+/**
+ * Shared serializers of the static methods, the ORM fields use the serializers of their driver (see SerializerRegistry)
+ */
 public class ORMSerializer {
 
-    private static FSTConfiguration fst = FSTConfiguration.createDefaultConfiguration();
+    private static final FstSerializer fst = new FstSerializer();
+    private static final BukkitSerializer bukkit = new BukkitSerializer();
 
+    /**
+     * Registers the class in the shared FST serializer, only the static methods use it
+     * The registration order is part of the storage format, see SerializerRegistry.registerClass()
+     */
     public static void registerClass(Class<?> clazz) {
         fst.registerClass(clazz);
     }
 
-    public static <T> String serialize(T object, boolean useBukkitSerialization) {
-        byte[] serialized;
-        if (useBukkitSerialization) {
-            try {
-                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-                BukkitObjectOutputStream dataOutput = new BukkitObjectOutputStream(outputStream);
+    /**
+     * @return Shared FST serializer of the static methods, see registerClass()
+     */
+    public static Serializer getDefaultSerializer() {
+        return fst;
+    }
 
-                dataOutput.writeObject(object);
-                dataOutput.close();
+    public static Serializer getBukkitSerializer() {
+        return bukkit;
+    }
 
-                serialized = outputStream.toByteArray();
-            } catch (Exception e) {
-                throw new RuntimeException("Bukkit serialization failed", e);
-            }
-        }
-        else serialized = fst.asByteArray(object);
+    public static <T> String serialize(T object, boolean useBukkitSerialization) {
+        return Base64.getEncoder().encodeToString(serializeBytes(object, useBukkitSerialization));
+    }
 
-        return Base64.getEncoder().encodeToString(serialized);
+    /**
+     * @return Serialized object without any encoding, see SqlDataType.SERIALIZED
+     */
+    public static <T> byte[] serializeBytes(T object, boolean useBukkitSerialization) {
+        return getSerializer(useBukkitSerialization).serialize(object);
     }
 
     public static Object deserialize(String base64, boolean useBukkitSerialization) {
-        if (useBukkitSerialization) {
-            try {
-                ByteArrayInputStream inputStream = new ByteArrayInputStream(Base64Coder.decodeLines(base64));
-                BukkitObjectInputStream dataInput = new BukkitObjectInputStream(inputStream);
+        return deserialize(decodeBase64(base64, useBukkitSerialization), useBukkitSerialization);
+    }
 
-                return dataInput.readObject();
-            } catch (Exception e) {
-                throw new RuntimeException("Bukkit deserialization failed", e);
-            }
-        }
+    public static Object deserialize(byte[] serialized, boolean useBukkitSerialization) {
+        return getSerializer(useBukkitSerialization).deserialize(serialized);
+    }
 
-        return fst.asObject(Base64.getDecoder().decode(base64));
+    /**
+     * Reads the serialized object straight from the stream (e.g. ResultSet.getBinaryStream())
+     */
+    public static Object deserialize(InputStream inputStream, boolean useBukkitSerialization) {
+        return getSerializer(useBukkitSerialization).deserialize(inputStream);
     }
 
+    /**
+     * @return Serialized bytes of the Base64 string written by serialize()
+     */
+    public static byte[] decodeBase64(String base64, boolean useBukkitSerialization) {
+        if (useBukkitSerialization)
+            return Base64Coder.decodeLines(base64);
+
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static Serializer getSerializer(boolean useBukkitSerialization) {
+        return useBukkitSerialization ? bukkit : fst;
+    }
 }
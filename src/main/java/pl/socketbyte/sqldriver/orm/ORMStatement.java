@@ -1,70 +1,76 @@
 package pl.socketbyte.sqldriver.orm;
 
+import pl.socketbyte.sqldriver.BatchResult;
+import pl.socketbyte.sqldriver.CachedStatement;
+import pl.socketbyte.sqldriver.Page;
+import pl.socketbyte.sqldriver.PageToken;
 import pl.socketbyte.sqldriver.SqlConnection;
 import pl.socketbyte.sqldriver.SqlDriver;
-import pl.socketbyte.sqldriver.orm.annotation.*;
-import pl.socketbyte.sqldriver.query.SqlQuery;
-import pl.socketbyte.sqldriver.query.SqlDataType;
+import pl.socketbyte.sqldriver.cache.SqlCache;
+import pl.socketbyte.sqldriver.cache.VersionedSqlCache;
+import pl.socketbyte.sqldriver.orm.codec.ORMCodec;
+import pl.socketbyte.sqldriver.orm.codec.ORMCodecRegistry;
+import pl.socketbyte.sqldriver.query.SqlPredicate;
 import pl.socketbyte.sqldriver.reflect.FieldOperations;
 
-import java.lang.reflect.Field;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
 public class ORMStatement<T> {
+
+    /**
+     * Maximum amount of placeholders in a single statement (MySQL limit)
+     */
+    private static final int MAX_PARAMETERS = 65535;
+
+    private final SqlDriver driver;
     private final FieldOperations operations;
+    private final ORMCodecRegistry codecs;
 
     private final SqlConnection connection;
     private final Class<? extends T> clazz;
 
-    private final Map<String, ORMFieldData> fieldData = new LinkedHashMap<>();
+    private final ORMClassData<T> classData;
+    private final Map<String, ORMFieldData> fieldData;
 
-    private String tableName;
+    private final ORMQueries queries;
 
     protected Map<String, ORMFieldData> getFieldData() {
         return this.fieldData;
     }
 
-    private String getOriginalFieldName(String recordName) {
-        for (Map.Entry<String, ORMFieldData> entry : fieldData.entrySet()) {
-            if (entry.getValue().name.equals(recordName)) {
-                return entry.getKey();
-            }
-        }
-        return null;
-    }
-
-    private ORMFieldData getORMDataFromRecord(String recordName) {
-        for (Map.Entry<String, ORMFieldData> entry : fieldData.entrySet()) {
-            if (entry.getValue().name.equals(recordName)) {
-                return entry.getValue();
-            }
-        }
-        return null;
+    public ORMStatement(SqlDriver driver, SqlConnection connection, Class<? extends T> clazz) {
+        this(driver, connection, driver.getClassData(clazz));
     }
 
-    public ORMStatement(SqlDriver driver, SqlConnection connection, Class<? extends T> clazz) {
+    /**
+     * Binds the shared class metadata to the connection,
+     * this is cheap as all the annotation scanning is already done by the driver
+     */
+    public ORMStatement(SqlDriver driver, SqlConnection connection, ORMClassData<T> classData) {
+        this.driver = driver;
         this.connection = connection;
-        this.clazz = clazz;
+        this.classData = classData;
+        this.clazz = classData.getType();
+        this.fieldData = classData.getFieldData();
+        this.queries = classData.getQueries();
 
         this.operations = driver.getOperations();
+        this.codecs = driver.getCodecs();
+    }
 
-        this.fetchClassData();
+    public ORMClassData<T> getClassData() {
+        return this.classData;
     }
 
     public void createTable() {
-        SqlQuery queryBuilder = new SqlQuery()
-                .createTable(this.tableName);
-        for (Map.Entry<String, ORMFieldData> entry : fieldData.entrySet()) {
-            ORMFieldData data = entry.getValue();
-
-            queryBuilder = queryBuilder.record(data.getName(), data.getDataType(), data.isNullable());
-        }
-        String query = queryBuilder.done();
-
-        try (PreparedStatement statement = this.connection.createStatement(query)) {
+        try (PreparedStatement statement = this.connection.createStatement(this.queries.createTable())) {
             statement.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException("Unable to create a table", e);
@@ -72,76 +78,287 @@ public class ORMStatement<T> {
     }
 
     public void insert(T instance) {
-        String query = new SqlQuery()
-                .insertInto()
-                .table(this.tableName)
-                .values(this.fieldData.size())
-                .done();
-        try (PreparedStatement statement = this.connection.createStatement(query)) {
+        try (CachedStatement cached = this.connection.prepareCached(this.queries.insert())) {
+            PreparedStatement statement = cached.getStatement();
             setStatementArguments(statement, instance);
             statement.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException("Unable to insert an object", e);
         }
+
+        snapshot(instance);
     }
 
-    public List<T> select(Where... whereConditions) {
-        List<T> selected = new ArrayList<>();
+    /**
+     * Inserts all the objects using JDBC batches of the driver's batch size
+     * @return Update counts of every executed batch
+     */
+    public BatchResult insertAll(Collection<? extends T> instances) {
+        return insertAll(instances, this.driver.getBatchSize());
+    }
+
+    /**
+     * Inserts all the objects using JDBC batches, or multi-row INSERT statements
+     * if the driver uses multi-row inserts
+     * @param batchSize Amount of objects sent in a single batch
+     * @return Update counts of every executed batch
+     */
+    public BatchResult insertAll(Collection<? extends T> instances, int batchSize) {
+        BatchResult result = this.driver.isUsingMultiRowInserts()
+                ? insertMultiRow(this.queries::insert, instances, batchSize)
+                : executeBatch(this.queries.insert(), instances, batchSize, this::setStatementArguments);
+
+        snapshotAll(instances);
+        return result;
+    }
+
+    /**
+     * Inserts the object or overwrites the row with the same SqlPrimary values in a single statement
+     * The table must have a primary key on the SqlPrimary records, tables created by createTable() have one.
+     */
+    public void upsert(T instance) {
+        checkPrimaryFields();
+
+        try (CachedStatement cached = this.connection.prepareCached(this.queries.upsert(1))) {
+            PreparedStatement statement = cached.getStatement();
+            setStatementArguments(statement, instance);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to upsert an object", e);
+        }
+
+        SqlCache<Object, Object> cache = this.driver.getCache(this.clazz);
+        if (cache != null)
+            cache.invalidate(this.classData.getPrimaryKey(this.operations, instance));
+
+        snapshot(instance);
+    }
+
+    /**
+     * Upserts all the objects using JDBC batches of the driver's batch size
+     * @return Update counts of every executed batch (1 for inserted rows, 2 for updated ones on MySQL)
+     */
+    public BatchResult upsertAll(Collection<? extends T> instances) {
+        return upsertAll(instances, this.driver.getBatchSize());
+    }
+
+    /**
+     * Upserts all the objects using JDBC batches, or multi-row statements
+     * if the driver uses multi-row inserts
+     * @param batchSize Amount of objects sent in a single batch
+     * @return Update counts of every executed batch
+     */
+    public BatchResult upsertAll(Collection<? extends T> instances, int batchSize) {
+        checkPrimaryFields();
+
+        BatchResult result = this.driver.isUsingMultiRowInserts()
+                ? insertMultiRow(this.queries::upsert, instances, batchSize)
+                : executeBatch(this.queries.upsert(1), instances, batchSize, this::setStatementArguments);
+
+        invalidateAll(instances);
+        snapshotAll(instances);
+        return result;
+    }
+
+    /**
+     * Updates all the objects matched by their SqlPrimary fields using JDBC batches
+     * @return Update counts of every executed batch
+     */
+    public BatchResult updateAll(Collection<? extends T> instances) {
+        return updateAll(instances, this.driver.getBatchSize());
+    }
+
+    public BatchResult updateAll(Collection<? extends T> instances, int batchSize) {
+        checkPrimaryFields();
+
+        ORMChangeTracker<T> tracker = getTracker();
+        if (tracker != null)
+            return updateChanged(tracker, instances, batchSize);
+
+        BatchResult result = executeBatch(this.queries.update(), instances, batchSize, (statement, instance) ->
+                setPrimaryArguments(statement, setStatementArguments(statement, instance), instance));
+        invalidateAll(instances);
+        return result;
+    }
+
+    /**
+     * Groups the objects by their changed records, every group is sent as its own batch
+     * and objects without any changes are skipped
+     */
+    private BatchResult updateChanged(ORMChangeTracker<T> tracker, Collection<? extends T> instances, int batchSize) {
+        Map<List<ORMFieldData>, List<T>> groups = new LinkedHashMap<>();
+        for (T instance : instances) {
+            List<ORMFieldData> changed = tracker.getChangedFields(instance);
+            if (changed == null)
+                changed = new ArrayList<>(this.fieldData.values());
+            if (changed.isEmpty())
+                continue;
+
+            groups.computeIfAbsent(changed, key -> new ArrayList<>()).add(instance);
+        }
+
+        BatchResult result = new BatchResult();
+        for (Map.Entry<List<ORMFieldData>, List<T>> group : groups.entrySet()) {
+            List<ORMFieldData> changed = group.getKey();
+            result.addAll(executeBatch(this.queries.updateRecords(getRecordNames(changed)), group.getValue(),
+                    batchSize, (statement, instance) ->
+                            setPrimaryArguments(statement, setStatementArguments(statement, 1, instance, changed),
+                                    instance)));
+
+            invalidateAll(group.getValue());
+            for (T instance : group.getValue()) {
+                tracker.snapshot(instance);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Deletes all the objects matched by their SqlPrimary fields using JDBC batches
+     * @return Update counts of every executed batch
+     */
+    public BatchResult deleteAll(Collection<? extends T> instances) {
+        return deleteAll(instances, this.driver.getBatchSize());
+    }
+
+    public BatchResult deleteAll(Collection<? extends T> instances, int batchSize) {
+        checkPrimaryFields();
 
-        SqlQuery queryBuilder = new SqlQuery()
-                .select()
-                .table(this.tableName);
+        BatchResult result = executeBatch(this.queries.delete(), instances, batchSize, (statement, instance) ->
+                setPrimaryArguments(statement, 1, instance));
+        invalidateAll(instances);
+
+        ORMChangeTracker<T> tracker = getTracker();
+        if (tracker != null) {
+            for (T instance : instances) {
+                tracker.forget(instance);
+            }
+        }
+        return result;
+    }
 
-        if (whereConditions.length > 0) {
-            String[] recordNames = new String[whereConditions.length];
-            for (int i = 0; i < whereConditions.length; i++) {
-                recordNames[i] = whereConditions[i].recordName;
+    private BatchResult executeBatch(String query, Collection<? extends T> instances, int batchSize,
+                                     ArgumentBinder<T> binder) {
+        BatchResult result = new BatchResult();
+        if (instances.isEmpty())
+            return result;
+
+        try (CachedStatement cached = this.connection.prepareCached(query)) {
+            PreparedStatement statement = cached.getStatement();
+            int pending = 0;
+            for (T instance : instances) {
+                binder.bind(statement, instance);
+                statement.addBatch();
+
+                if (++pending == batchSize) {
+                    result.addBatch(pending, statement.executeBatch());
+                    pending = 0;
+                }
             }
 
-            queryBuilder = queryBuilder.where(recordNames);
+            if (pending > 0)
+                result.addBatch(pending, statement.executeBatch());
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to execute the batch", e);
         }
-        String query = queryBuilder.done();
+        return result;
+    }
 
-        try (PreparedStatement statement = this.connection.createStatement(query)) {
-            int index = 1;
-            for (Where where : whereConditions) {
-                statement.setObject(index, where.value);
+    private BatchResult insertMultiRow(IntFunction<String> query, Collection<? extends T> instances, int batchSize) {
+        BatchResult result = new BatchResult();
+        if (instances.isEmpty())
+            return result;
+
+        int columns = Math.max(1, this.fieldData.size());
+        int rows = Math.max(1, Math.min(batchSize, MAX_PARAMETERS / columns));
+
+        Iterator<? extends T> iterator = instances.iterator();
+        int remaining = instances.size();
+        try {
+            if (remaining >= rows) {
+                try (CachedStatement cached = this.connection.prepareCached(query.apply(rows))) {
+                    PreparedStatement statement = cached.getStatement();
+                    while (remaining >= rows) {
+                        bindRows(statement, iterator, rows);
+                        result.addBatch(rows, statement.executeUpdate());
+                        remaining -= rows;
+                    }
+                }
+            }
 
-                index++;
+            if (remaining > 0) {
+                try (CachedStatement cached = this.connection.prepareCached(query.apply(remaining))) {
+                    PreparedStatement statement = cached.getStatement();
+                    bindRows(statement, iterator, remaining);
+                    result.addBatch(remaining, statement.executeUpdate());
+                }
             }
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to insert the objects", e);
+        }
+        return result;
+    }
+
+    private void bindRows(PreparedStatement statement, Iterator<? extends T> iterator, int rows) {
+        int index = 1;
+        for (int i = 0; i < rows; i++) {
+            index = setStatementArguments(statement, index, iterator.next());
+        }
+    }
+
+    public List<T> select(Where... whereConditions) {
+        return select(this.queries.select(getRecordNames(whereConditions)),
+                statement -> setWhereArguments(statement, 1, whereConditions));
+    }
+
+    /**
+     * Selects the objects matching the predicate
+     * @param predicate Condition, see SqlPredicate
+     * @return Selected objects
+     */
+    public List<T> select(SqlPredicate predicate) {
+        return select(this.queries.select(predicate),
+                statement -> setPredicateArguments(statement, 1, predicate));
+    }
+
+    /**
+     * Selects only the given fields, the other fields of the objects keep their default values
+     * @param predicate Condition, null to select all the objects
+     * @param fieldNames Java names of the selected fields
+     * @return Partially filled objects
+     */
+    public List<T> selectFields(SqlPredicate predicate, String... fieldNames) {
+        return select(this.classData.getProjection(fieldNames), predicate);
+    }
+
+    /**
+     * Selects the objects as DTOs, only the records of the DTO fields are selected and decoded
+     * @param type DTO class, its fields must have the same names and types as the fields of this class
+     * @param predicate Condition, null to select all the objects
+     * @return Selected DTOs
+     */
+    public <D> List<D> select(Class<D> type, SqlPredicate predicate) {
+        return select(this.classData.getProjection(type, this.operations), predicate);
+    }
+
+    public <D> List<D> select(Class<D> type) {
+        return select(type, null);
+    }
+
+    private <D> List<D> select(ORMProjection<D> projection, SqlPredicate predicate) {
+        List<D> selected = new ArrayList<>();
+
+        String query = this.queries.select(projection.getRecords(), predicate);
+        try (CachedStatement cached = this.connection.prepareCached(query)) {
+            PreparedStatement statement = cached.getStatement();
+            if (predicate != null)
+                setPredicateArguments(statement, 1, predicate);
             try (ResultSet rs = statement.executeQuery()) {
-                int count = rs.getMetaData().getColumnCount();
+                ORMResultMapper<D> mapper = new ORMResultMapper<>(this.operations, this.codecs,
+                        projection.getType(), projection.getColumns());
                 while (rs.next()) {
-                    T object = this.clazz.newInstance();
-
-                    for (int i = 1; i <= count; i++) {
-                        Object value = rs.getObject(i);
-                        String name = getOriginalFieldName(rs.getMetaData().getColumnName(i));
-                        ORMFieldData fieldData = getORMDataFromRecord(rs.getMetaData().getColumnName(i));
-
-                        Object resultValue = value;
-                        try {
-                            if (value != null)
-                                resultValue = UUID.fromString(value.toString());
-                        } catch (Exception ignored) {
-                        }
-
-                        try {
-                            if (value != null) {
-                                String potentialBase64 = value.toString();
-
-                                resultValue = ORMSerializer.deserialize(potentialBase64, fieldData.isUsingBukkitSerialization());
-                            }
-                        } catch (Exception ignored) {
-                        }
-
-                        this.operations.setField(this.clazz, object, name, resultValue);
-                    }
-
-                    selected.add(object);
+                    selected.add(mapper.map(rs));
                 }
-            } catch (IllegalAccessException | InstantiationException e) {
-                throw new RuntimeException("Unable to read the ResultSet", e);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Unable to select the objects", e);
@@ -150,233 +367,576 @@ public class ORMStatement<T> {
         return selected;
     }
 
-    public void drop() {
-        String query = new SqlQuery()
-                .drop().table(this.tableName).done();
+    private List<T> select(String query, StatementBinder binder) {
+        List<T> selected = new ArrayList<>();
 
-        try (PreparedStatement statement = this.connection.createStatement(query)) {
-            statement.executeUpdate();
+        try (CachedStatement cached = this.connection.prepareCached(query)) {
+            PreparedStatement statement = cached.getStatement();
+            binder.bind(statement);
+            try (ResultSet rs = statement.executeQuery()) {
+                ORMResultMapper<T> mapper = createMapper(rs.getMetaData());
+                while (rs.next()) {
+                    selected.add(mapper.map(rs));
+                }
+            }
         } catch (SQLException e) {
-            throw new RuntimeException("Unable to drop the table", e);
+            throw new RuntimeException("Unable to select the objects", e);
         }
-    }
 
-    public void delete(T instance, Where... whereConditions) {
-        SqlQuery queryBuilder = new SqlQuery()
-                .deleteFrom()
-                .table(this.tableName);
+        return selected;
+    }
 
-        executeWhereBasedStatement(instance, queryBuilder, whereConditions);
+    /**
+     * Selects a page of objects ordered by their SqlPrimary fields using keyset pagination,
+     * the page starts right after the token's primary values, so every page costs the same
+     * regardless of how deep it is (unlike OFFSET)
+     * @param pageSize Maximum amount of objects on the page
+     * @param token Token of the page, null for the first page
+     * @param whereConditions Conditions of the selected objects, the same for every page
+     * @return Page with the token of the next page
+     */
+    public Page<T> selectPage(int pageSize, PageToken token, Where... whereConditions) {
+        return selectPage(pageSize, token, false, whereConditions);
     }
 
-    public void update(T instance, Where... whereConditions) {
-        Collection<ORMFieldData> fieldDatas = getFieldData().values();
-        String[] fieldNames = new String[fieldDatas.size()];
-        int x = 0;
-        for (ORMFieldData data : fieldDatas) {
-            fieldNames[x] = data.getName();
-            x++;
+    /**
+     * Selects a page of objects ordered by their SqlPrimary fields using keyset pagination
+     * @param pageSize Maximum amount of objects on the page
+     * @param token Token of the page, null for the first page
+     * @param descending True to walk the objects in descending order of the SqlPrimary fields
+     * @param whereConditions Conditions of the selected objects, the same for every page
+     * @return Page with the token of the next page
+     */
+    public Page<T> selectPage(int pageSize, PageToken token, boolean descending, Where... whereConditions) {
+        checkPrimaryFields();
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("Page size must be positive");
+
+        List<ORMFieldData> primaryFields = this.classData.getPrimaryFields();
+        Object[] primaryValues = token == null ? null : token.getPrimaryValues();
+        if (primaryValues != null && primaryValues.length != primaryFields.size())
+            throw new IllegalArgumentException("Expected " + primaryFields.size() + " primary values in the token");
+
+        String query = this.queries.selectPage(getRecordNames(whereConditions), token != null, descending);
+
+        // one more object is selected to find out if there is a next page
+        List<T> selected = new ArrayList<>(Math.min(pageSize + 1, 1024));
+        try (CachedStatement cached = this.connection.prepareCached(query)) {
+            PreparedStatement statement = cached.getStatement();
+            int index = whereConditions.length + 1;
+            setWhereArguments(statement, 1, whereConditions);
+            if (primaryValues != null) {
+                for (int i = 0; i < primaryValues.length; i++) {
+                    ORMFieldData data = primaryFields.get(i);
+                    this.codecs.get(data.getDataType()).write(statement, index++, primaryValues[i], data);
+                }
+            }
+            statement.setInt(index, pageSize + 1);
+
+            try (ResultSet rs = statement.executeQuery()) {
+                ORMResultMapper<T> mapper = createMapper(rs.getMetaData());
+                while (rs.next()) {
+                    selected.add(mapper.map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to select the page", e);
         }
-        SqlQuery queryBuilder = new SqlQuery()
-                .update()
-                .table(this.tableName)
-                .set(fieldNames);
 
-        executeWhereBasedStatement(instance, queryBuilder, whereConditions);
+        if (selected.size() <= pageSize)
+            return new Page<>(selected, null);
+
+        selected.remove(pageSize);
+        T last = selected.get(pageSize - 1);
+
+        Object[] nextValues = new Object[primaryFields.size()];
+        for (int i = 0; i < nextValues.length; i++) {
+            nextValues[i] = this.operations.getField(this.clazz, last, primaryFields.get(i).getFieldIndex());
+        }
+        return new Page<>(selected, new PageToken(nextValues));
     }
 
-    private void executeWhereBasedStatement(T instance, SqlQuery queryBuilder, Where... whereConditions) {
-        Tuple<String, List<Where>> tuple = prepareWhereCondition(instance, queryBuilder, whereConditions);
-        String query = tuple.getKey();
-        List<Where> wheres = tuple.getValue();
+    /**
+     * Opens a forward-only cursor over the selected objects, see SqlDriver.setFetchSize()
+     * @param reused Object filled with every row instead of creating new ones, null to create new objects
+     * @param whereConditions Conditions of the selected objects
+     * @return Cursor that must be closed
+     */
+    public ORMCursor<T> cursor(T reused, Where... whereConditions) {
+        return openCursor(this.queries.select(getRecordNames(whereConditions)), reused,
+                statement -> setWhereArguments(statement, 1, whereConditions));
+    }
 
-        try (PreparedStatement statement = this.connection.createStatement(query)) {
-            int index = setStatementArguments(statement, instance);
-            for (Where where : wheres) {
-                statement.setObject(index, where.value);
+    /**
+     * Opens a forward-only cursor over the objects matching the predicate
+     * @return Cursor that must be closed
+     */
+    public ORMCursor<T> cursor(SqlPredicate predicate) {
+        return openCursor(this.queries.select(predicate), null,
+                statement -> setPredicateArguments(statement, 1, predicate));
+    }
 
-                index++;
-            }
-            statement.executeUpdate();
+    /**
+     * The statement is not taken from the statement cache, the cursor owns and closes it
+     */
+    private ORMCursor<T> openCursor(String query, T reused, StatementBinder binder) {
+        PreparedStatement statement = null;
+        try {
+            statement = this.connection.getRawConnection().prepareStatement(query);
+            statement.setFetchSize(this.driver.getFetchSize());
+            binder.bind(statement);
+
+            ResultSet rs = statement.executeQuery();
+            ORMResultMapper<T> mapper = createMapper(rs.getMetaData());
+            return new ORMCursor<>(statement, rs, mapper, reused);
         } catch (SQLException e) {
-            throw new RuntimeException("Unable to execute statement", e);
+            if (statement != null) {
+                try {
+                    statement.close();
+                } catch (SQLException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new RuntimeException("Unable to select the objects", e);
         }
     }
 
-    private Tuple<String, List<Where>> prepareWhereCondition(T instance, SqlQuery queryBuilder, Where... original) {
-        String query = null;
-        List<Where> wheres = new ArrayList<>();
-        if (original.length > 0) {
-            String[] recordNames = new String[original.length];
-            for (int i = 0; i < original.length; i++) {
-                recordNames[i] = original[i].recordName;
-                wheres.add(original[i]);
-            }
+    public ORMCursor<T> cursor(Where... whereConditions) {
+        return cursor(null, whereConditions);
+    }
+
+    /**
+     * Streams the selected objects without loading them all into memory
+     * The stream must be closed (e.g. with try-with-resources)
+     */
+    public Stream<T> stream(Where... whereConditions) {
+        return cursor(whereConditions).stream();
+    }
+
+    public Stream<T> stream(SqlPredicate predicate) {
+        return cursor(predicate).stream();
+    }
+
+    /**
+     * Passes the selected objects to the consumer one by one
+     */
+    public void forEach(Consumer<? super T> consumer, Where... whereConditions) {
+        forEach(null, consumer, whereConditions);
+    }
 
-            query = queryBuilder.where(recordNames).done();
+    /**
+     * Passes the selected objects to the consumer one by one
+     * @param reused Object filled with every row, the consumer must not keep it
+     */
+    public void forEach(T reused, Consumer<? super T> consumer, Where... whereConditions) {
+        try (ORMCursor<T> cursor = cursor(reused, whereConditions)) {
+            while (cursor.hasNext()) {
+                consumer.accept(cursor.next());
+            }
         }
-        else {
-            Field[] fields = this.operations.getFields(instance.getClass());
-            List<String> recordNames = new ArrayList<>();
-            for (Field field : fields) {
-                if (!field.isAnnotationPresent(SqlPrimary.class))
-                    continue;
+    }
 
-                ORMFieldData data = getFieldData().get(field.getName());
-                Object value = this.operations.getField(instance.getClass(), instance, field.getName());
+    /**
+     * Selects the objects matching any of the keys, the keys are sent in batches
+     * of up to SqlDriver.getBatchSize() values per query
+     * @param constantRecords Records compared with the constants
+     * @param constants Constant values, bound as strings
+     * @param keyRecords Records forming the key, the whole table is filtered only by the constants if empty
+     * @param keys Key values, a single value per key for one record or a List of values for more records
+     * @return Selected objects
+     */
+    public List<T> selectIn(String[] constantRecords, String[] constants,
+                            String[] keyRecords, Collection<?> keys) {
+        List<T> selected = new ArrayList<>();
+        if (keyRecords.length == 0) {
+            selectIn(selected, constantRecords, constants, keyRecords, Collections.emptyList(), 0);
+            return selected;
+        }
 
-                recordNames.add(data.getName());
-                wheres.add(new Where(data.getName(), value));
+        int maxKeys = Math.max(1, Math.min(this.driver.getBatchSize(),
+                (MAX_PARAMETERS - constants.length) / keyRecords.length));
 
+        List<Object> batch = new ArrayList<>(Math.min(maxKeys, keys.size()));
+        for (Object key : keys) {
+            batch.add(key);
+            if (batch.size() == maxKeys) {
+                selectIn(selected, constantRecords, constants, keyRecords, batch, maxKeys);
+                batch.clear();
             }
-            query = queryBuilder.where(Arrays.toString(recordNames.toArray())).done();
         }
-        return new Tuple<>(query, wheres);
+        if (!batch.isEmpty()) {
+            // pads the last batch to a power of two, so only a few query shapes are ever built
+            int size = Math.min(maxKeys, Integer.highestOneBit(batch.size() - 1) << 1);
+            selectIn(selected, constantRecords, constants, keyRecords, batch, Math.max(size, batch.size()));
+        }
+        return selected;
     }
 
-    private int setStatementArguments(PreparedStatement statement, T instance) {
-        int index = 1;
-        for (Map.Entry<String, ORMFieldData> entry : fieldData.entrySet()) {
-            String field = entry.getKey();
-            ORMFieldData data = entry.getValue();
-            try {
-                Object object = this.operations.getField(this.clazz, instance, field);
-
-                if (data.getDataType() == SqlDataType.BASE64) {
-                    object = ORMSerializer.serialize(object, data.isUsingBukkitSerialization());
+    private void selectIn(List<T> selected, String[] constantRecords, String[] constants,
+                          String[] keyRecords, List<Object> keys, int size) {
+        String query = this.queries.selectIn(constantRecords, keyRecords, size);
+
+        try (CachedStatement cached = this.connection.prepareCached(query)) {
+            PreparedStatement statement = cached.getStatement();
+            int index = 1;
+            for (String constant : constants) {
+                statement.setString(index++, constant);
+            }
+            for (int i = 0; i < size; i++) {
+                Object key = keys.get(Math.min(i, keys.size() - 1));
+                if (keyRecords.length == 1) {
+                    setKeyArgument(statement, index++, keyRecords[0], key);
+                    continue;
                 }
-                else if (data.getDataType() == SqlDataType.UNIQUE_ID) {
-                    object = object.toString();
+
+                List<?> values = (List<?>) key;
+                for (int j = 0; j < keyRecords.length; j++) {
+                    setKeyArgument(statement, index++, keyRecords[j], values.get(j));
                 }
+            }
 
-                statement.setObject(index, object);
-            } catch (SQLException e) {
-                throw new RuntimeException("Unable to set object data", e);
+            try (ResultSet rs = statement.executeQuery()) {
+                ORMResultMapper<T> mapper = createMapper(rs.getMetaData());
+                while (rs.next()) {
+                    selected.add(mapper.map(rs));
+                }
             }
-            index++;
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to select the objects", e);
         }
-        return index;
     }
 
-    @SuppressWarnings("deprecation")
-    private void fetchClassData() {
-        if (!this.clazz.isAnnotationPresent(SqlObject.class)) {
-            throw new RuntimeException("ORM class object has no SqlObject annotation");
+    private void setKeyArgument(PreparedStatement statement, int index, String recordName, Object value)
+            throws SQLException {
+        ORMFieldData data = this.classData.getRecordData(recordName);
+        this.codecs.get(data.getDataType()).write(statement, index, value, data);
+    }
+
+    /**
+     * Selects the object by the values of its SqlPrimary fields
+     * If the class has a second-level cache enabled, the object is read through the cache
+     * @param primaryValues Values of the SqlPrimary fields, in declaration order
+     * @return Selected object or null if there is none
+     */
+    public T selectByPrimary(Object... primaryValues) {
+        checkPrimaryFields();
+
+        List<ORMFieldData> primaryFields = this.classData.getPrimaryFields();
+        Object key = this.classData.toPrimaryKey(primaryValues);
+        Object[] values = primaryValues.length == 1 ? new Object[] { key } : ((List<?>) key).toArray();
+
+        VersionedSqlCache<Object, Object> cache = this.driver.getCache(this.clazz);
+        long version = 0;
+        if (cache != null) {
+            Object cached = cache.get(key);
+            if (cached != null)
+                return this.clazz.cast(cached);
+
+            // taken before the query, so an invalidation during the query prevents caching the old row
+            version = cache.getVersion(key);
         }
 
-        SqlObject object = this.clazz.getAnnotation(SqlObject.class);
-        this.tableName = object.tableName();
+        T selected = null;
+        try (CachedStatement cached = this.connection.prepareCached(this.queries.selectByPrimary())) {
+            PreparedStatement statement = cached.getStatement();
+            for (int i = 0; i < values.length; i++) {
+                ORMFieldData data = primaryFields.get(i);
+                this.codecs.get(data.getDataType()).write(statement, i + 1, values[i], data);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                if (rs.next()) {
+                    selected = createMapper(rs.getMetaData()).map(rs);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to select the object", e);
+        }
 
-        for (Field field : this.operations.getFields(this.clazz)) {
-            if (field.isAnnotationPresent(SqlTransient.class))
-                continue;
+        if (cache != null && selected != null)
+            cache.putIfUnchanged(key, selected, version);
 
-            String fieldName = null;
-            SqlDataType fieldType = null;
-            boolean nullable = false;
-            boolean useBukkitSerialization = false;
+        return selected;
+    }
 
-            if (field.isAnnotationPresent(SqlUseBukkitSerialization.class)) {
-                useBukkitSerialization = true;
-            }
+    public void drop() {
+        try (PreparedStatement statement = this.connection.createStatement(this.queries.drop())) {
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to drop the table", e);
+        }
 
-            if (field.isAnnotationPresent(SqlField.class)) {
-                SqlField property = field.getAnnotation(SqlField.class);
+        SqlCache<Object, Object> cache = this.driver.getCache(this.clazz);
+        if (cache != null)
+            cache.invalidateAll();
+    }
 
-                if (!property.name().equals("")) {
-                    fieldName = property.name();
-                }
+    /**
+     * Deletes the object, if no conditions are given the object is matched by its SqlPrimary fields
+     */
+    public void delete(T instance, Where... whereConditions) {
+        String query = whereConditions.length > 0
+                ? this.queries.delete(getRecordNames(whereConditions))
+                : this.queries.delete();
 
-                if (property.type() != SqlDataType.AUTO_DETECT) {
-                    fieldType = property.type();
-                }
-            }
+        executeWhereBasedStatement(instance, query, 1, whereConditions);
+
+        ORMChangeTracker<T> tracker = getTracker();
+        if (tracker != null)
+            tracker.forget(instance);
+    }
+
+    /**
+     * Deletes all the objects matching the predicate
+     * @return Amount of deleted rows
+     */
+    public int delete(SqlPredicate predicate) {
+        try (CachedStatement cached = this.connection.prepareCached(this.queries.delete(predicate))) {
+            PreparedStatement statement = cached.getStatement();
+            setPredicateArguments(statement, 1, predicate);
+            int deleted = statement.executeUpdate();
+
+            SqlCache<Object, Object> cache = this.driver.getCache(this.clazz);
+            if (cache != null)
+                cache.invalidateAll();
+            return deleted;
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to delete the objects", e);
+        }
+    }
 
-            if (field.isAnnotationPresent(SqlNullable.class)) {
-                nullable = true;
+    /**
+     * Updates all the records of the object,
+     * if no conditions are given the object is matched by its SqlPrimary fields
+     *
+     * If the changes of the class are tracked and no conditions are given, only the changed
+     * records are updated and nothing is sent if the object didn't change.
+     * An update with conditions drops the snapshot of the object, the next update sends all the records.
+     */
+    public void update(T instance, Where... whereConditions) {
+        ORMChangeTracker<T> tracker = getTracker();
+        if (tracker != null && whereConditions.length == 0) {
+            List<ORMFieldData> changed = tracker.getChangedFields(instance);
+            if (changed != null) {
+                if (!changed.isEmpty())
+                    updateChanged(tracker, instance, changed);
+                return;
             }
+        }
+
+        String query = whereConditions.length > 0
+                ? this.queries.update(getRecordNames(whereConditions))
+                : this.queries.update();
+
+        executeWhereBasedStatement(instance, query, this.fieldData.size() + 1, whereConditions);
+
+        if (tracker == null)
+            return;
 
-            if (fieldName == null)
-                fieldName = field.getName().toLowerCase();
+        // the conditions may match other rows than the primary key, so the object is no longer known
+        if (whereConditions.length == 0)
+            tracker.snapshot(instance);
+        else tracker.forget(instance);
+    }
 
-            if (fieldType == null)
-                fieldType = ORMTypeReader.readFieldType(field);
+    private void updateChanged(ORMChangeTracker<T> tracker, T instance, List<ORMFieldData> changed) {
+        checkPrimaryFields();
 
-            this.fieldData.put(field.getName(), new ORMFieldData(fieldName, fieldType, nullable, useBukkitSerialization));
+        try (CachedStatement cached = this.connection.prepareCached(
+                this.queries.updateRecords(getRecordNames(changed)))) {
+            PreparedStatement statement = cached.getStatement();
+            setPrimaryArguments(statement, setStatementArguments(statement, 1, instance, changed), instance);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to update the object", e);
         }
+
+        SqlCache<Object, Object> cache = this.driver.getCache(this.clazz);
+        if (cache != null)
+            cache.invalidate(this.classData.getPrimaryKey(this.operations, instance));
+
+        tracker.snapshot(instance);
+    }
+
+    private void checkPrimaryFields() {
+        if (this.classData.getPrimaryFields().isEmpty())
+            throw new RuntimeException("ORM class object has no SqlPrimary fields and no conditions were given");
     }
 
-    private class Tuple<K, V> {
-        private K key;
-        private V value;
+    private void executeWhereBasedStatement(T instance, String query, int whereIndex, Where... whereConditions) {
+        if (whereConditions.length == 0)
+            checkPrimaryFields();
 
-        public Tuple(K key, V value) {
-            this.key = key;
-            this.value = value;
+        try (CachedStatement cached = this.connection.prepareCached(query)) {
+            PreparedStatement statement = cached.getStatement();
+            if (whereIndex > 1)
+                setStatementArguments(statement, instance);
+
+            if (whereConditions.length > 0)
+                setWhereArguments(statement, whereIndex, whereConditions);
+            else setPrimaryArguments(statement, whereIndex, instance);
+
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to execute statement", e);
         }
 
-        public K getKey() {
-            return key;
+        SqlCache<Object, Object> cache = this.driver.getCache(this.clazz);
+        if (cache != null) {
+            // custom conditions can match any object
+            if (whereConditions.length > 0)
+                cache.invalidateAll();
+            else cache.invalidate(this.classData.getPrimaryKey(this.operations, instance));
         }
+    }
 
-        public void setKey(K key) {
-            this.key = key;
+    private void invalidateAll(Collection<? extends T> instances) {
+        SqlCache<Object, Object> cache = this.driver.getCache(this.clazz);
+        if (cache == null)
+            return;
+
+        for (T instance : instances) {
+            cache.invalidate(this.classData.getPrimaryKey(this.operations, instance));
         }
+    }
 
-        public V getValue() {
-            return value;
+    /**
+     * @return Change tracker of the class or null if its changes are not tracked, it's looked up
+     * on every use as the tracking can be enabled after the statement was created
+     */
+    private ORMChangeTracker<T> getTracker() {
+        return this.driver.getChangeTracker(this.clazz);
+    }
+
+    private void snapshot(T instance) {
+        ORMChangeTracker<T> tracker = getTracker();
+        if (tracker != null)
+            tracker.snapshot(instance);
+    }
+
+    private void snapshotAll(Collection<? extends T> instances) {
+        ORMChangeTracker<T> tracker = getTracker();
+        if (tracker == null)
+            return;
+
+        for (T instance : instances) {
+            tracker.snapshot(instance);
         }
+    }
 
-        public void setValue(V value) {
-            this.value = value;
+    private ORMResultMapper<T> createMapper(ResultSetMetaData metaData) throws SQLException {
+        ORMResultMapper<T> mapper = new ORMResultMapper<>(this.operations, this.codecs, this.classData, metaData);
+        mapper.setChangeTracker(getTracker());
+        return mapper;
+    }
+
+    private String[] getRecordNames(List<ORMFieldData> fields) {
+        String[] recordNames = new String[fields.size()];
+        for (int i = 0; i < recordNames.length; i++) {
+            recordNames[i] = fields.get(i).getName();
         }
+        return recordNames;
     }
 
-    public class Where<V> {
-        private final String recordName;
-        private final V value;
+    private String[] getRecordNames(Where... whereConditions) {
+        String[] recordNames = new String[whereConditions.length];
+        for (int i = 0; i < whereConditions.length; i++) {
+            recordNames[i] = whereConditions[i].recordName;
+        }
+        return recordNames;
+    }
 
-        public Where(String recordName, V value) {
-            this.recordName = recordName;
-            this.value = value;
+    private void setWhereArguments(PreparedStatement statement, int index, Where... whereConditions)
+            throws SQLException {
+        for (Where where : whereConditions) {
+            ORMFieldData data = this.classData.getRecordData(where.recordName);
+            if (data != null)
+                this.codecs.get(data.getDataType()).write(statement, index, where.value, data);
+            else statement.setObject(index, where.value);
+
+            index++;
         }
+    }
 
-        public String getRecordName() {
-            return this.recordName;
+    private int setPrimaryArguments(PreparedStatement statement, int index, T instance) {
+        for (ORMFieldData data : this.classData.getPrimaryFields()) {
+            setStatementArgument(statement, index, instance, data);
+
+            index++;
         }
+        return index;
+    }
 
-        public V getValue() {
-            return this.value;
+    private int setStatementArguments(PreparedStatement statement, T instance) {
+        return setStatementArguments(statement, 1, instance);
+    }
+
+    private int setStatementArguments(PreparedStatement statement, int index, T instance) {
+        return setStatementArguments(statement, index, instance, this.fieldData.values());
+    }
+
+    private int setStatementArguments(PreparedStatement statement, int index, T instance,
+                                      Collection<ORMFieldData> fields) {
+        for (ORMFieldData data : fields) {
+            setStatementArgument(statement, index, instance, data);
+
+            index++;
         }
+        return index;
     }
 
-    private class ORMFieldData {
-        private final String name;
-        private final SqlDataType dataType;
-        private final boolean nullable;
-        private final boolean useBukkitSerialization;
+    private void setStatementArgument(PreparedStatement statement, int index, T instance, ORMFieldData data) {
+        try {
+            ORMCodec codec = this.codecs.get(data.getDataType());
+
+            ORMPrimitive primitive = data.getPrimitive();
+            if (primitive != null && codec == ORMCodecRegistry.PLAIN_CODEC) {
+                primitive.write(this.operations, this.clazz, instance, data.getFieldIndex(), statement, index);
+                return;
+            }
+
+            Object object = this.operations.getField(this.clazz, instance, data.getFieldIndex());
 
-        public ORMFieldData(String name, SqlDataType dataType, boolean nullable, boolean useBukkitSerialization) {
-            this.name = name;
-            this.dataType = dataType;
-            this.nullable = nullable;
-            this.useBukkitSerialization = useBukkitSerialization;
+            codec.write(statement, index, object, data);
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to set object data", e);
         }
+    }
 
-        public String getName() {
-            return name;
+    private void setPredicateArguments(PreparedStatement statement, int index, SqlPredicate predicate)
+            throws SQLException {
+        for (SqlPredicate.Argument argument : predicate.getArguments()) {
+            ORMFieldData data = argument.isTyped() ? this.classData.getRecordData(argument.getRecord()) : null;
+            if (data != null)
+                this.codecs.get(data.getDataType()).write(statement, index, argument.getValue(), data);
+            else statement.setObject(index, argument.getValue());
+
+            index++;
         }
+    }
+
+    private interface StatementBinder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    private interface ArgumentBinder<T> {
+        void bind(PreparedStatement statement, T instance) throws SQLException;
+    }
+
+    public class Where<V> {
+        private final String recordName;
+        private final V value;
 
-        public SqlDataType getDataType() {
-            return dataType;
+        public Where(String recordName, V value) {
+            this.recordName = recordName;
+            this.value = value;
         }
 
-        public boolean isNullable() {
-            return nullable;
+        public String getRecordName() {
+            return this.recordName;
         }
 
-        public boolean isUsingBukkitSerialization() {
-            return useBukkitSerialization;
+        public V getValue() {
+            return this.value;
         }
     }
 
@@ -8,6 +8,13 @@ import java.util.UUID;
 public class ORMTypeReader {
 
     public static SqlDataType readFieldType(Field field) {
+        return readFieldType(field, SqlDataType.BASE64);
+    }
+
+    /**
+     * @param serializedType Type of the fields that are not supported natively (BASE64 or SERIALIZED)
+     */
+    public static SqlDataType readFieldType(Field field, SqlDataType serializedType) {
         Class<?> type = field.getType();
 
         if (type.isAssignableFrom(int.class)) {
@@ -31,7 +38,7 @@ public class ORMTypeReader {
         } else if (type.isAssignableFrom(UUID.class)) {
             return SqlDataType.UNIQUE_ID;
         }
-        return SqlDataType.BASE64;
+        return serializedType;
     }
 
 }
@@ -11,4 +11,10 @@ public @interface SqlReference {
     Class<?> reference();
     String[] rule();
 
+    /**
+     * Lazy references (List fields only) are filled with an ORMLazyList,
+     * the referenced objects are fetched on the first access
+     */
+    boolean lazy() default false;
+
 }
@@ -0,0 +1,25 @@
+package pl.socketbyte.sqldriver.orm.annotation;
+
+import pl.socketbyte.sqldriver.orm.serializer.Serializer;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Selects the serializer of a serialized (BASE64 or SERIALIZED) field
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface SqlSerializer {
+    /**
+     * Serializer class, the driver's default serializer if not set
+     */
+    Class<? extends Serializer> value() default Serializer.class;
+
+    /**
+     * Values of at least this many bytes are compressed with Deflate, negative disables the compression
+     */
+    int compressionThreshold() default -1;
+}
@@ -0,0 +1,40 @@
+package pl.socketbyte.sqldriver.orm.codec;
+
+import pl.socketbyte.sqldriver.orm.ORMFieldData;
+import pl.socketbyte.sqldriver.orm.ORMSerializer;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Base64;
+
+/**
+ * Codec for serialized objects stored as Base64 strings
+ */
+public class Base64Codec implements SerializedCodec {
+
+    @Override
+    public void write(PreparedStatement statement, int index, Object value, ORMFieldData data) throws SQLException {
+        statement.setString(index, value == null
+                ? null
+                : Base64.getEncoder().encodeToString(data.getSerializer().serialize(value)));
+    }
+
+    @Override
+    public Object read(ResultSet rs, int index, ORMFieldData data) throws SQLException {
+        byte[] serialized = readBytes(rs, index, data);
+
+        return serialized == null
+                ? null
+                : decode(serialized, data);
+    }
+
+    @Override
+    public byte[] readBytes(ResultSet rs, int index, ORMFieldData data) throws SQLException {
+        String value = rs.getString(index);
+
+        return value == null
+                ? null
+                : ORMSerializer.decodeBase64(value, data.isUsingBukkitSerialization());
+    }
+}
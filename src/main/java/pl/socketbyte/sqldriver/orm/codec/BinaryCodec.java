@@ -0,0 +1,38 @@
+package pl.socketbyte.sqldriver.orm.codec;
+
+import pl.socketbyte.sqldriver.orm.ORMFieldData;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Codec for serialized objects stored as raw bytes in BLOB columns
+ */
+public class BinaryCodec implements SerializedCodec {
+
+    @Override
+    public void write(PreparedStatement statement, int index, Object value, ORMFieldData data) throws SQLException {
+        statement.setBytes(index, value == null
+                ? null
+                : data.getSerializer().serialize(value));
+    }
+
+    @Override
+    public Object read(ResultSet rs, int index, ORMFieldData data) throws SQLException {
+        try (InputStream inputStream = rs.getBinaryStream(index)) {
+            return inputStream == null
+                    ? null
+                    : data.getSerializer().deserialize(inputStream);
+        } catch (IOException e) {
+            throw new SQLException("Unable to read the serialized object", e);
+        }
+    }
+
+    @Override
+    public byte[] readBytes(ResultSet rs, int index, ORMFieldData data) throws SQLException {
+        return rs.getBytes(index);
+    }
+}
@@ -0,0 +1,32 @@
+package pl.socketbyte.sqldriver.orm.codec;
+
+import pl.socketbyte.sqldriver.orm.ORMFieldData;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Converts the field values from and to their SQL representation
+ * Codecs are chosen by the SqlDataType of the field, see ORMCodecRegistry
+ */
+public interface ORMCodec {
+
+    /**
+     * Binds the field value to the statement
+     * @param statement Statement to bind the value to
+     * @param index Parameter index (starting with 1)
+     * @param value Value of the field, can be null
+     * @param data Field data
+     */
+    void write(PreparedStatement statement, int index, Object value, ORMFieldData data) throws SQLException;
+
+    /**
+     * Reads the field value from the current row
+     * @param rs ResultSet positioned on a row
+     * @param index Column index (starting with 1)
+     * @param data Field data
+     * @return Value assignable to the field, can be null
+     */
+    Object read(ResultSet rs, int index, ORMFieldData data) throws SQLException;
+}
@@ -0,0 +1,47 @@
+package pl.socketbyte.sqldriver.orm.codec;
+
+import pl.socketbyte.sqldriver.query.SqlDataType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Registry of the codecs used for each SqlDataType
+ * Every type uses PlainCodec unless a different codec is registered
+ */
+public class ORMCodecRegistry {
+    public static final ORMCodec PLAIN_CODEC = new PlainCodec();
+    public static final ORMCodec UNIQUE_ID_CODEC = new UniqueIdCodec();
+    public static final ORMCodec BASE64_CODEC = new Base64Codec();
+    public static final ORMCodec BINARY_CODEC = new BinaryCodec();
+
+    private volatile Map<SqlDataType, ORMCodec> codecs = new EnumMap<>(SqlDataType.class);
+
+    public ORMCodecRegistry() {
+        this.codecs.put(SqlDataType.UNIQUE_ID, UNIQUE_ID_CODEC);
+        this.codecs.put(SqlDataType.BASE64, BASE64_CODEC);
+        this.codecs.put(SqlDataType.SERIALIZED, BINARY_CODEC);
+    }
+
+    /**
+     * Registers a codec for given data type, replacing the previous one
+     * @param type SqlDataType
+     * @param codec Codec to use for the fields of given type
+     */
+    public synchronized void register(SqlDataType type, ORMCodec codec) {
+        Map<SqlDataType, ORMCodec> codecs = new EnumMap<>(this.codecs);
+        codecs.put(type, codec);
+
+        this.codecs = codecs;
+    }
+
+    /**
+     * @param type SqlDataType
+     * @return Codec used for the fields of given type
+     */
+    public ORMCodec get(SqlDataType type) {
+        ORMCodec codec = this.codecs.get(type);
+
+        return codec == null ? PLAIN_CODEC : codec;
+    }
+}
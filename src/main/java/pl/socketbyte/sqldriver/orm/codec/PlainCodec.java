@@ -0,0 +1,58 @@
+package pl.socketbyte.sqldriver.orm.codec;
+
+import pl.socketbyte.sqldriver.orm.ORMFieldData;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Codec for values natively supported by JDBC (numbers, booleans, strings, dates)
+ * The value is read with the getter matching the Java type of the field
+ */
+public class PlainCodec implements ORMCodec {
+
+    @Override
+    public void write(PreparedStatement statement, int index, Object value, ORMFieldData data) throws SQLException {
+        if (value instanceof Character) {
+            statement.setString(index, value.toString());
+            return;
+        }
+        statement.setObject(index, value);
+    }
+
+    @Override
+    public Object read(ResultSet rs, int index, ORMFieldData data) throws SQLException {
+        Class<?> type = data.getType();
+        Object value;
+
+        if (type == int.class || type == Integer.class) {
+            value = rs.getInt(index);
+        } else if (type == long.class || type == Long.class) {
+            value = rs.getLong(index);
+        } else if (type == double.class || type == Double.class) {
+            value = rs.getDouble(index);
+        } else if (type == boolean.class || type == Boolean.class) {
+            value = rs.getBoolean(index);
+        } else if (type == float.class || type == Float.class) {
+            value = rs.getFloat(index);
+        } else if (type == short.class || type == Short.class) {
+            value = rs.getShort(index);
+        } else if (type == byte.class || type == Byte.class) {
+            value = rs.getByte(index);
+        } else if (type == char.class || type == Character.class) {
+            String string = rs.getString(index);
+            return string == null || string.isEmpty() ? null : string.charAt(0);
+        } else if (type == String.class) {
+            return rs.getString(index);
+        } else if (type == BigDecimal.class) {
+            return rs.getBigDecimal(index);
+        } else {
+            return rs.getObject(index);
+        }
+
+        // primitive fields keep the JDBC default (0/false) for NULL values
+        return rs.wasNull() && !type.isPrimitive() ? null : value;
+    }
+}
@@ -0,0 +1,30 @@
+package pl.socketbyte.sqldriver.orm.codec;
+
+import pl.socketbyte.sqldriver.orm.ORMFieldData;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Codec of the serialized objects whose stored bytes can be read without decoding them,
+ * the change tracker keeps the bytes read with the row instead of serializing the value again
+ */
+public interface SerializedCodec extends ORMCodec {
+
+    /**
+     * Reads the serialized bytes of the field from the current row
+     * @param rs ResultSet positioned on a row
+     * @param index Column index (starting with 1)
+     * @param data Field data
+     * @return Bytes written by the field's serializer, null if the value is null
+     */
+    byte[] readBytes(ResultSet rs, int index, ORMFieldData data) throws SQLException;
+
+    /**
+     * @param serialized Bytes returned by readBytes(), not null
+     * @return Value assignable to the field
+     */
+    default Object decode(byte[] serialized, ORMFieldData data) {
+        return data.getSerializer().deserialize(serialized);
+    }
+}
@@ -0,0 +1,26 @@
+package pl.socketbyte.sqldriver.orm.codec;
+
+import pl.socketbyte.sqldriver.orm.ORMFieldData;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Codec for UUIDs stored as their string representation
+ */
+public class UniqueIdCodec implements ORMCodec {
+
+    @Override
+    public void write(PreparedStatement statement, int index, Object value, ORMFieldData data) throws SQLException {
+        statement.setString(index, value == null ? null : value.toString());
+    }
+
+    @Override
+    public Object read(ResultSet rs, int index, ORMFieldData data) throws SQLException {
+        String value = rs.getString(index);
+
+        return value == null ? null : UUID.fromString(value);
+    }
+}
@@ -0,0 +1,47 @@
+package pl.socketbyte.sqldriver.orm.serializer;
+
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+/**
+ * Bukkit object streams, supporting ConfigurationSerializable objects (e.g. ItemStacks)
+ * Used by the fields annotated with SqlUseBukkitSerialization
+ */
+public class BukkitSerializer implements Serializer {
+
+    @Override
+    public byte[] serialize(Object object) {
+        ReusableByteArrayOutputStream outputStream = ReusableByteArrayOutputStream.acquire();
+        try {
+            BukkitObjectOutputStream dataOutput = new BukkitObjectOutputStream(outputStream);
+
+            dataOutput.writeObject(object);
+            dataOutput.close();
+
+            return outputStream.toByteArray();
+        } catch (Exception e) {
+            throw new RuntimeException("Bukkit serialization failed", e);
+        } finally {
+            outputStream.release();
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] serialized) {
+        return deserialize(new ByteArrayInputStream(serialized));
+    }
+
+    @Override
+    public Object deserialize(InputStream inputStream) {
+        try {
+            BukkitObjectInputStream dataInput = new BukkitObjectInputStream(inputStream);
+
+            return dataInput.readObject();
+        } catch (Exception e) {
+            throw new RuntimeException("Bukkit deserialization failed", e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package pl.socketbyte.sqldriver.orm.serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate compression of the serialized values larger than the threshold
+ * Compressed values start with a 4-byte marker followed by the uncompressed length,
+ * smaller values are stored exactly as the delegate wrote them, so compression
+ * can be enabled for columns that already contain uncompressed values.
+ */
+public class CompressingSerializer implements Serializer {
+    private static final byte[] MARKER = {0x00, 'S', 'Z', 0x01};
+    private static final int HEADER_LENGTH = MARKER.length + 4;
+
+    private final Serializer delegate;
+    private final int threshold;
+    private final int level;
+
+    /**
+     * @param delegate Serializer of the objects
+     * @param threshold Minimum size of the serialized value in bytes to be compressed
+     */
+    public CompressingSerializer(Serializer delegate, int threshold) {
+        this(delegate, threshold, Deflater.BEST_SPEED);
+    }
+
+    /**
+     * @param delegate Serializer of the objects
+     * @param threshold Minimum size of the serialized value in bytes to be compressed
+     * @param level Deflate compression level (0-9)
+     */
+    public CompressingSerializer(Serializer delegate, int threshold, int level) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+        this.level = level;
+    }
+
+    public Serializer getDelegate() {
+        return this.delegate;
+    }
+
+    @Override
+    public byte[] serialize(Object object) {
+        byte[] serialized = this.delegate.serialize(object);
+        if (serialized.length < this.threshold)
+            return serialized;
+
+        Deflater deflater = new Deflater(this.level);
+        try {
+            deflater.setInput(serialized);
+            deflater.finish();
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(serialized.length / 2 + HEADER_LENGTH);
+            outputStream.write(MARKER, 0, MARKER.length);
+            writeInt(outputStream, serialized.length);
+
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                outputStream.write(buffer, 0, length);
+            }
+
+            // incompressible values are kept as they are
+            if (outputStream.size() >= serialized.length)
+                return serialized;
+            return outputStream.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] serialized) {
+        if (!isCompressed(serialized))
+            return this.delegate.deserialize(serialized);
+
+        int length = readInt(serialized, MARKER.length);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(serialized, HEADER_LENGTH, serialized.length - HEADER_LENGTH);
+
+            byte[] inflated = new byte[length];
+            int offset = 0;
+            while (offset < length && !inflater.finished()) {
+                int read = inflater.inflate(inflated, offset, length - offset);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    throw new RuntimeException("The compressed value is truncated");
+                offset += read;
+            }
+            return this.delegate.deserialize(inflated);
+        } catch (DataFormatException e) {
+            throw new RuntimeException("Unable to decompress the value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public void registerClass(Class<?> clazz) {
+        this.delegate.registerClass(clazz);
+    }
+
+    private static boolean isCompressed(byte[] serialized) {
+        if (serialized.length < HEADER_LENGTH)
+            return false;
+
+        for (int i = 0; i < MARKER.length; i++) {
+            if (serialized[i] != MARKER[i])
+                return false;
+        }
+        return true;
+    }
+
+    private static void writeInt(ByteArrayOutputStream outputStream, int value) {
+        outputStream.write(value >>> 24);
+        outputStream.write(value >>> 16);
+        outputStream.write(value >>> 8);
+        outputStream.write(value);
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+                | (bytes[offset + 2] & 0xFF) << 8 | bytes[offset + 3] & 0xFF;
+    }
+}
@@ -0,0 +1,211 @@
+package pl.socketbyte.sqldriver.orm.serializer;
+
+import org.nustaq.serialization.FSTConfiguration;
+import org.nustaq.serialization.FSTObjectInput;
+import org.nustaq.serialization.FSTObjectOutput;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * FST serializer, the default one
+ * FSTConfigurations with their object streams and buffers are kept in a small bounded pool,
+ * every call borrows one and returns it afterwards. The amount of configurations doesn't grow
+ * with the amount of threads (e.g. virtual threads), callers wait when all of them are in use.
+ * Registered classes are applied to every configuration in the same order, as FST writes them
+ * as ids derived from the registration order.
+ */
+public class FstSerializer implements Serializer {
+    private static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    private static final int MAXIMUM_RETAINED_SIZE = 1024 * 1024;
+
+    private final Supplier<FSTConfiguration> factory;
+
+    /**
+     * Registered classes in registration order
+     */
+    private final List<Class<?>> registeredClasses = new CopyOnWriteArrayList<>();
+
+    private final BlockingQueue<PooledConfiguration> pool;
+    private final AtomicInteger created = new AtomicInteger();
+    private final int poolSize;
+
+    public FstSerializer() {
+        this(FSTConfiguration::createDefaultConfiguration);
+    }
+
+    /**
+     * @param factory Creates the pooled configurations
+     */
+    public FstSerializer(Supplier<FSTConfiguration> factory) {
+        this(factory, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param factory Creates the pooled configurations
+     * @param poolSize Maximum amount of configurations, the amount of concurrent calls
+     */
+    public FstSerializer(Supplier<FSTConfiguration> factory, int poolSize) {
+        if (poolSize < 1)
+            throw new IllegalArgumentException("The pool size must be positive");
+
+        this.factory = factory;
+        this.poolSize = poolSize;
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * @return Idle configuration with the registered classes applied, a new one if the pool
+     * is not full yet, otherwise waits for one to be returned
+     */
+    private PooledConfiguration borrow() {
+        PooledConfiguration configuration = this.pool.poll();
+        if (configuration == null) {
+            configuration = create();
+            if (configuration == null) {
+                try {
+                    configuration = this.pool.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for an FST configuration", e);
+                }
+            }
+        }
+        configuration.update(this.registeredClasses);
+        return configuration;
+    }
+
+    private PooledConfiguration create() {
+        int created;
+        do {
+            created = this.created.get();
+            if (created >= this.poolSize)
+                return null;
+        } while (!this.created.compareAndSet(created, created + 1));
+
+        try {
+            return new PooledConfiguration(this.factory.get());
+        } catch (RuntimeException | Error e) {
+            this.created.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void release(PooledConfiguration configuration) {
+        this.pool.offer(configuration);
+    }
+
+    @Override
+    public byte[] serialize(Object object) {
+        PooledConfiguration configuration = borrow();
+        try {
+            FSTObjectOutput output = configuration.output;
+            output.resetForReUse();
+            output.writeObject(object);
+            byte[] serialized = output.getCopyOfWrittenBuffer();
+
+            // buffers that grew on a large value are dropped
+            if (output.getBuffer().length > MAXIMUM_RETAINED_SIZE)
+                configuration.output = new FSTObjectOutput(configuration.configuration);
+            return serialized;
+        } catch (Exception e) {
+            configuration.output = new FSTObjectOutput(configuration.configuration);
+            throw new RuntimeException("Serialization failed", e);
+        } finally {
+            release(configuration);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] serialized) {
+        PooledConfiguration configuration = borrow();
+        try {
+            FSTObjectInput input = configuration.input;
+            input.resetForReuseUseArray(serialized);
+            return input.readObject();
+        } catch (Exception e) {
+            throw new RuntimeException("Deserialization failed", e);
+        } finally {
+            configuration.resetInput();
+            release(configuration);
+        }
+    }
+
+    @Override
+    public Object deserialize(InputStream inputStream) {
+        PooledConfiguration configuration = borrow();
+        try {
+            FSTObjectInput input = configuration.input;
+            input.resetForReuse(inputStream);
+            return input.readObject();
+        } catch (Exception e) {
+            throw new RuntimeException("Deserialization failed", e);
+        } finally {
+            configuration.resetInput();
+            release(configuration);
+        }
+    }
+
+    /**
+     * Registers the class in every configuration, the classes must be registered
+     * in the same order whenever the data is read
+     */
+    @Override
+    public synchronized void registerClass(Class<?> clazz) {
+        if (!this.registeredClasses.contains(clazz))
+            this.registeredClasses.add(clazz);
+    }
+
+    /**
+     * @return Amount of configurations created so far, at most the pool size
+     */
+    public int getCreatedConfigurations() {
+        return this.created.get();
+    }
+
+    private static class PooledConfiguration {
+        private static final byte[] EMPTY = new byte[0];
+
+        private final FSTConfiguration configuration;
+        private FSTObjectOutput output;
+        private FSTObjectInput input;
+
+        /**
+         * Amount of the registered classes already applied to the configuration
+         */
+        private int registered;
+
+        private PooledConfiguration(FSTConfiguration configuration) {
+            this.configuration = configuration;
+            // FSTConfiguration.getObjectOutput() caches its streams per thread, these belong to the entry
+            this.output = new FSTObjectOutput(configuration);
+            this.input = new FSTObjectInput(configuration);
+        }
+
+        private void update(List<Class<?>> registeredClasses) {
+            if (this.registered == registeredClasses.size())
+                return;
+
+            for (int i = this.registered; i < registeredClasses.size(); i++) {
+                this.configuration.registerClass(registeredClasses.get(i));
+            }
+            this.registered = registeredClasses.size();
+        }
+
+        /**
+         * Drops the references to the read array or stream, a broken input is replaced
+         */
+        private void resetInput() {
+            try {
+                this.input.resetForReuseUseArray(EMPTY);
+            } catch (Exception e) {
+                this.input = new FSTObjectInput(this.configuration);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package pl.socketbyte.sqldriver.orm.serializer;
+
+import java.io.*;
+
+/**
+ * Standard Java serialization, the objects must implement Serializable
+ */
+public class JavaSerializer implements Serializer {
+
+    @Override
+    public byte[] serialize(Object object) {
+        ReusableByteArrayOutputStream outputStream = ReusableByteArrayOutputStream.acquire();
+        try {
+            try (ObjectOutputStream dataOutput = new ObjectOutputStream(outputStream)) {
+                dataOutput.writeObject(object);
+            }
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException("Java serialization failed", e);
+        } finally {
+            outputStream.release();
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] serialized) {
+        return deserialize(new ByteArrayInputStream(serialized));
+    }
+
+    @Override
+    public Object deserialize(InputStream inputStream) {
+        try {
+            return new ObjectInputStream(inputStream).readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException("Java deserialization failed", e);
+        }
+    }
+}
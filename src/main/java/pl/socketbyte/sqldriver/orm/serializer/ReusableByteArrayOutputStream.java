@@ -0,0 +1,43 @@
+package pl.socketbyte.sqldriver.orm.serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Growable output buffer reused by the stream based serializers
+ * Idle buffers are kept in a small bounded pool shared by all the threads, so the amount of
+ * retained buffers doesn't grow with the amount of threads (e.g. virtual threads).
+ * Buffers that grew over the retained size are dropped after use.
+ */
+class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+    private static final int INITIAL_SIZE = 1024;
+    private static final int MAXIMUM_RETAINED_SIZE = 1024 * 1024;
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private static final BlockingQueue<ReusableByteArrayOutputStream> BUFFERS = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private ReusableByteArrayOutputStream() {
+        super(INITIAL_SIZE);
+    }
+
+    /**
+     * @return Empty idle buffer, a new one if all the pooled buffers are in use
+     */
+    static ReusableByteArrayOutputStream acquire() {
+        ReusableByteArrayOutputStream buffer = BUFFERS.poll();
+        if (buffer == null)
+            return new ReusableByteArrayOutputStream();
+
+        buffer.reset();
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer to the pool, it's dropped if it's too large or the pool is full
+     */
+    void release() {
+        if (this.buf.length <= MAXIMUM_RETAINED_SIZE)
+            BUFFERS.offer(this);
+    }
+}
@@ -0,0 +1,106 @@
+package pl.socketbyte.sqldriver.orm.serializer;
+
+import org.nustaq.serialization.FSTConfiguration;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Compact FST serializer for plain data objects
+ * Registered classes are written as small ids instead of their names, so the registration order
+ * is the schema: it must be the same whenever the data is read. Shared references are not supported,
+ * every object is written as many times as it is referenced.
+ *
+ * Cyclic references are rejected before anything is written. The object graph is walked through
+ * the arrays, collections, maps and fields of the non-JDK classes, other JDK objects are leaves.
+ */
+public class SchemaSerializer extends FstSerializer {
+    private static final ClassValue<Field[]> FIELDS = new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> current = type; current != null && !isJdkClass(current); current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.getType().isPrimitive())
+                        continue;
+
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+            return fields.toArray(new Field[0]);
+        }
+    };
+
+    public SchemaSerializer() {
+        super(SchemaSerializer::createConfiguration);
+    }
+
+    @Override
+    public byte[] serialize(Object object) {
+        checkAcyclic(object, Collections.newSetFromMap(new IdentityHashMap<>()));
+        return super.serialize(object);
+    }
+
+    /**
+     * @param path Objects on the path from the root to the current object
+     */
+    private static void checkAcyclic(Object object, Set<Object> path) {
+        if (object == null || !isContainer(object.getClass()))
+            return;
+
+        if (!path.add(object))
+            throw new RuntimeException("SchemaSerializer doesn't support cyclic references, "
+                    + object.getClass().getName() + " references itself");
+
+        if (object instanceof Object[]) {
+            for (Object element : (Object[]) object) {
+                checkAcyclic(element, path);
+            }
+        }
+        else if (object instanceof Collection) {
+            for (Object element : (Collection<?>) object) {
+                checkAcyclic(element, path);
+            }
+        }
+        else if (object instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+                checkAcyclic(entry.getKey(), path);
+                checkAcyclic(entry.getValue(), path);
+            }
+        }
+        else {
+            for (Field field : FIELDS.get(object.getClass())) {
+                try {
+                    checkAcyclic(field.get(object), path);
+                } catch (IllegalAccessException e) {
+                    throw new RuntimeException("Unable to read the field " + field, e);
+                }
+            }
+        }
+        path.remove(object);
+    }
+
+    /**
+     * @return Whether objects of the class can reference other objects
+     */
+    private static boolean isContainer(Class<?> type) {
+        if (type.isArray())
+            return !type.getComponentType().isPrimitive();
+        return Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)
+                || !isJdkClass(type) && !Enum.class.isAssignableFrom(type);
+    }
+
+    private static boolean isJdkClass(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.");
+    }
+
+    private static FSTConfiguration createConfiguration() {
+        FSTConfiguration configuration = FSTConfiguration.createDefaultConfiguration();
+        configuration.setShareReferences(false);
+        return configuration;
+    }
+}
@@ -0,0 +1,41 @@
+package pl.socketbyte.sqldriver.orm.serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Serializer of the ORM fields that are not supported natively (SqlDataType.BASE64 and SERIALIZED)
+ * Implementations must be thread-safe. Custom serializers can be selected with the SqlSerializer
+ * annotation (they need a no-args constructor) or set as the driver's default.
+ */
+public interface Serializer {
+
+    byte[] serialize(Object object);
+
+    Object deserialize(byte[] serialized);
+
+    /**
+     * Reads the serialized object from the stream, e.g. ResultSet.getBinaryStream()
+     * The default implementation reads all the bytes first
+     */
+    default Object deserialize(InputStream inputStream) {
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+            return deserialize(outputStream.toByteArray());
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read the serialized object", e);
+        }
+    }
+
+    /**
+     * Registers the class ahead of time, serializers that don't need it ignore the call
+     */
+    default void registerClass(Class<?> clazz) {
+    }
+}
@@ -0,0 +1,118 @@
+package pl.socketbyte.sqldriver.orm.serializer;
+
+import pl.socketbyte.sqldriver.orm.ORMSerializer;
+
+import java.lang.reflect.InvocationTargetException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Serializers of a single driver, keyed by their classes
+ * Serializers selected by the SqlSerializer annotation are created on the first use
+ * unless an instance of the class was registered before
+ *
+ * Classes registered with registerClass() are part of the storage format, see registerClass().
+ * Serializers added later get the registered classes in the same order.
+ */
+public class SerializerRegistry {
+    private volatile Serializer defaultSerializer;
+    private final Map<Class<? extends Serializer>, Serializer> serializers = new ConcurrentHashMap<>();
+
+    /**
+     * Registered classes in registration order
+     */
+    private final List<Class<?>> registeredClasses = new CopyOnWriteArrayList<>();
+
+    public SerializerRegistry(Serializer defaultSerializer) {
+        this.defaultSerializer = defaultSerializer;
+    }
+
+    /**
+     * @return Serializer of the fields without a SqlSerializer annotation
+     */
+    public Serializer getDefault() {
+        return this.defaultSerializer;
+    }
+
+    public synchronized void setDefault(Serializer serializer) {
+        registerClasses(serializer);
+        this.defaultSerializer = serializer;
+    }
+
+    /**
+     * Registers the instance used by all the fields selecting its class
+     */
+    public synchronized void register(Serializer serializer) {
+        registerClasses(serializer);
+        this.serializers.put(serializer.getClass(), serializer);
+    }
+
+    /**
+     * @param type Serializer class
+     * @return Registered instance of the class, a new one is created if there is none
+     */
+    public Serializer get(Class<? extends Serializer> type) {
+        Serializer serializer = this.serializers.get(type);
+        if (serializer != null)
+            return serializer;
+
+        synchronized (this) {
+            return this.serializers.computeIfAbsent(type, key -> {
+                try {
+                    Serializer created = key.getDeclaredConstructor().newInstance();
+                    registerClasses(created);
+                    return created;
+                } catch (NoSuchMethodException | InstantiationException | IllegalAccessException e) {
+                    throw new RuntimeException("Serializer " + key.getName()
+                            + " has no accessible no-args constructor", e);
+                } catch (InvocationTargetException e) {
+                    throw new RuntimeException("Unable to create the serializer " + key.getName(), e.getCause());
+                }
+            });
+        }
+    }
+
+    /**
+     * Registers the class in the default serializer and all the other serializers
+     * FST writes the registered classes as ids derived from the registration order, so the order is part
+     * of the storage format: the same classes must be registered in the same order before the data is read.
+     * New classes can only be appended, values written with a class registered can't be read without it.
+     */
+    public synchronized void registerClass(Class<?> clazz) {
+        if (this.registeredClasses.contains(clazz))
+            return;
+
+        this.registeredClasses.add(clazz);
+        this.defaultSerializer.registerClass(clazz);
+        for (Serializer serializer : this.serializers.values()) {
+            if (serializer != this.defaultSerializer)
+                serializer.registerClass(clazz);
+        }
+    }
+
+    /**
+     * @return Registered classes in registration order
+     */
+    public List<Class<?>> getRegisteredClasses() {
+        return this.registeredClasses;
+    }
+
+    private void registerClasses(Serializer serializer) {
+        for (Class<?> clazz : this.registeredClasses) {
+            serializer.registerClass(clazz);
+        }
+    }
+
+    /**
+     * @return Registry with a new FST serializer as the default and the shared Bukkit serializer,
+     * so the class registrations of a driver don't affect the others
+     */
+    public static SerializerRegistry createDefault() {
+        SerializerRegistry registry = new SerializerRegistry(new FstSerializer());
+        registry.register(ORMSerializer.getBukkitSerializer());
+        return registry;
+    }
+}
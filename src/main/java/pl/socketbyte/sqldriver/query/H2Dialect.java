@@ -0,0 +1,79 @@
+package pl.socketbyte.sqldriver.query;
+
+/**
+ * H2 dialect, for embedded databases in tests and benchmarks
+ * The MySQL text and blob types are mapped onto VARCHAR and BLOB,
+ * so the text values are read as strings rather than CLOBs.
+ */
+public class H2Dialect implements SqlDialect {
+
+    @Override
+    public String getType(SqlDataType type) {
+        switch (type) {
+            case TINYTEXT:
+            case TEXT:
+            case MEDIUMTEXT:
+            case LONGTEXT:
+            case BASE64:
+                return "VARCHAR";
+            case TINYBLOB:
+            case MEDIUMBLOB:
+            case LONGBLOB:
+            case IMAGE:
+            case SERIALIZED:
+                return "BLOB";
+            case MEDIUMINT:
+                return "INT";
+            case YEAR:
+                return "SMALLINT";
+            case DATETIME:
+                return "TIMESTAMP";
+            default:
+                return type.real();
+        }
+    }
+
+    /**
+     * BLOB columns can't be indexed, so blob keys are created as VARBINARY
+     */
+    @Override
+    public String getKeyType(SqlDataType type) {
+        switch (type) {
+            case TINYBLOB:
+            case BLOB:
+            case MEDIUMBLOB:
+            case LONGBLOB:
+                return "VARBINARY";
+            default:
+                return getType(type);
+        }
+    }
+
+    @Override
+    public char getQuote() {
+        return '"';
+    }
+
+    /**
+     * MERGE INTO ... KEY(...), which replaces the whole row with the same key
+     */
+    @Override
+    public String upsert(String table, String[] records, String[] keyRecords, int rows) {
+        return new SqlQuery(this)
+                .mergeInto()
+                .table(table)
+                .columns(records)
+                .key(keyRecords)
+                .values(records.length, rows)
+                .done();
+    }
+
+    /**
+     * Only renames the column, H2 can't change the type in the same statement.
+     * The type and nullability of the renamed column are kept.
+     */
+    @Override
+    public String changeColumn(String name, String newName, SqlDataType type, boolean nullable) {
+        return " ALTER COLUMN " + quote(name) + " RENAME TO " + quote(newName);
+    }
+}
@@ -0,0 +1,71 @@
+package pl.socketbyte.sqldriver.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MySQL and MariaDB dialect
+ */
+public class MySqlDialect implements SqlDialect {
+
+    @Override
+    public String getType(SqlDataType type) {
+        return type.real();
+    }
+
+    /**
+     * Text and blob columns can't be keys without a length,
+     * so they are created as VARCHAR(255) and VARBINARY(255)
+     */
+    @Override
+    public String getKeyType(SqlDataType type) {
+        switch (type) {
+            case VARCHAR:
+            case TINYTEXT:
+            case TEXT:
+            case MEDIUMTEXT:
+            case LONGTEXT:
+                return "VARCHAR(255)";
+            case VARBINARY:
+            case TINYBLOB:
+            case BLOB:
+            case MEDIUMBLOB:
+            case LONGBLOB:
+                return "VARBINARY(255)";
+            default:
+                return getType(type);
+        }
+    }
+
+    @Override
+    public char getQuote() {
+        return '`';
+    }
+
+    /**
+     * INSERT ... ON DUPLICATE KEY UPDATE of all the non-key records
+     */
+    @Override
+    public String upsert(String table, String[] records, String[] keyRecords, int rows) {
+        List<String> updatedRecords = new ArrayList<>(Arrays.asList(records));
+        updatedRecords.removeAll(Arrays.asList(keyRecords));
+        // a table of key records only has nothing to overwrite
+        if (updatedRecords.isEmpty())
+            updatedRecords.add(keyRecords[0]);
+
+        return new SqlQuery(this)
+                .insertInto()
+                .table(table)
+                .columns(records)
+                .values(records.length, rows)
+                .onDuplicateKeyUpdate(updatedRecords.toArray(new String[0]))
+                .done();
+    }
+
+    @Override
+    public String changeColumn(String name, String newName, SqlDataType type, boolean nullable) {
+        return " CHANGE COLUMN " + quote(name) + " " + quote(newName) + " " + getType(type)
+                + (nullable ? "" : " NOT NULL");
+    }
+}
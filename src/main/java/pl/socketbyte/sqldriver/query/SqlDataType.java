@@ -48,7 +48,13 @@ public enum SqlDataType {
 
     // For ORM use
     @Deprecated
-    AUTO_DETECT;
+    AUTO_DETECT,
+
+    /**
+     * Serialized objects stored as raw bytes, without the Base64 overhead
+     * Declared last so the ordinals of the older constants don't change
+     */
+    SERIALIZED("MEDIUMBLOB");
 
     private String real;
 
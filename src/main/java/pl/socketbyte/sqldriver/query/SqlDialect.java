@@ -0,0 +1,98 @@
+package pl.socketbyte.sqldriver.query;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Database specific parts of the generated SQL, used by SqlQuery and the ORM queries
+ * The dialect is detected from the data source (see SqlDriver.getDialect()),
+ * MySQL/MariaDB is the default one.
+ */
+public interface SqlDialect {
+    SqlDialect MYSQL = new MySqlDialect();
+    SqlDialect H2 = new H2Dialect();
+
+    /**
+     * Words quoted when used as table or record names
+     */
+    Set<String> RESERVED_WORDS = new HashSet<>(Arrays.asList(
+            "ALL", "AND", "AS", "ASC", "BETWEEN", "BY", "CHECK", "COLUMN", "CONSTRAINT", "CREATE", "CROSS",
+            "DEFAULT", "DELETE", "DESC", "DISTINCT", "DROP", "EXISTS", "FALSE", "FETCH", "FOR", "FROM",
+            "FULL", "GROUP", "HAVING", "IN", "INDEX", "INNER", "INSERT", "INTERVAL", "IS", "JOIN", "KEY",
+            "LEFT", "LIKE", "LIMIT", "NOT", "NULL", "OFFSET", "ON", "OR", "ORDER", "PRIMARY", "RANGE",
+            "RIGHT", "ROW", "ROWS", "SELECT", "SET", "TABLE", "TRUE", "UNION", "UNIQUE", "UPDATE", "USER",
+            "USING", "VALUE", "VALUES", "WHERE", "WITH"));
+
+    /**
+     * @return Column type of given SqlDataType
+     */
+    String getType(SqlDataType type);
+
+    /**
+     * @return Column type of given SqlDataType when the column is a part of the primary key
+     */
+    default String getKeyType(SqlDataType type) {
+        return getType(type);
+    }
+
+    /**
+     * @return Character used to quote the identifiers
+     */
+    char getQuote();
+
+    /**
+     * Quotes the identifier if it's a reserved word, other identifiers are kept as they are
+     * so hand written queries can still refer to them without quotes
+     */
+    default String quote(String identifier) {
+        if (!RESERVED_WORDS.contains(identifier.toUpperCase(Locale.ROOT)))
+            return identifier;
+
+        return getQuote() + identifier + getQuote();
+    }
+
+    default String autoIncrement() {
+        return " AUTO_INCREMENT";
+    }
+
+    /**
+     * @return Clause limiting the amount of selected rows, the limit is a placeholder
+     */
+    default String limit() {
+        return " LIMIT ?";
+    }
+
+    /**
+     * @param table Table name
+     * @param records Records bound in each row, in this order regardless of the table column order
+     * @param keyRecords Records of the primary key
+     * @param rows Amount of rows
+     * @return Query inserting the rows or overwriting the existing rows with the same key
+     */
+    String upsert(String table, String[] records, String[] keyRecords, int rows);
+
+    /**
+     * @return ALTER TABLE clause renaming the column and changing its type
+     */
+    String changeColumn(String name, String newName, SqlDataType type, boolean nullable);
+
+    /**
+     * Detects the dialect from the JDBC URL, data source or driver class name
+     * Only an H2 JDBC URL (jdbc:h2:) or an H2 class name (org.h2.) selects H2,
+     * so database names like "oauth2" don't.
+     * @param description JDBC URL and class names separated by whitespace
+     * @return H2 for H2 databases, MYSQL otherwise
+     */
+    static SqlDialect detect(String description) {
+        if (description == null)
+            return MYSQL;
+
+        for (String part : description.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+            if (part.startsWith("jdbc:h2:") || part.startsWith("org.h2."))
+                return H2;
+        }
+        return MYSQL;
+    }
+}
@@ -0,0 +1,345 @@
+package pl.socketbyte.sqldriver.query;
+
+import java.util.*;
+
+/**
+ * Immutable WHERE condition tree, e.g.
+ * and(equal("clanTag", "ABC"), or(greater("coins", 100), isNull("nullableString")))
+ *
+ * The SQL text contains only placeholders, so predicates of the same structure
+ * produce the same text and share the cached query and prepared statement,
+ * only the values are bound. IN lists are padded to a power of two for the same reason.
+ */
+public abstract class SqlPredicate {
+
+    /**
+     * Lazily built SQL text of the MySQL dialect, predicates are immutable
+     */
+    private String sql;
+
+    SqlPredicate() {
+    }
+
+    /**
+     * @return SQL text of the condition in the MySQL dialect, without the WHERE keyword
+     */
+    public String toSql() {
+        String sql = this.sql;
+        if (sql == null)
+            this.sql = sql = toSql(SqlDialect.MYSQL, new StringBuilder());
+        return sql;
+    }
+
+    /**
+     * @return SQL text of the condition with the records quoted by the dialect, without the WHERE keyword
+     */
+    public String toSql(SqlDialect dialect) {
+        if (dialect == SqlDialect.MYSQL)
+            return toSql();
+        return toSql(dialect, new StringBuilder());
+    }
+
+    private String toSql(SqlDialect dialect, StringBuilder builder) {
+        appendTo(builder, dialect);
+        return builder.toString();
+    }
+
+    /**
+     * @return Bound values in placeholder order
+     */
+    public List<Argument> getArguments() {
+        List<Argument> arguments = new ArrayList<>();
+        collect(arguments);
+        return arguments;
+    }
+
+    abstract void appendTo(StringBuilder builder, SqlDialect dialect);
+
+    abstract void collect(List<Argument> arguments);
+
+    @Override
+    public String toString() {
+        return toSql();
+    }
+
+    public static SqlPredicate equal(String record, Object value) {
+        return new Comparison(record, "=", value);
+    }
+
+    public static SqlPredicate notEqual(String record, Object value) {
+        return new Comparison(record, "<>", value);
+    }
+
+    public static SqlPredicate less(String record, Object value) {
+        return new Comparison(record, "<", value);
+    }
+
+    public static SqlPredicate lessOrEqual(String record, Object value) {
+        return new Comparison(record, "<=", value);
+    }
+
+    public static SqlPredicate greater(String record, Object value) {
+        return new Comparison(record, ">", value);
+    }
+
+    public static SqlPredicate greaterOrEqual(String record, Object value) {
+        return new Comparison(record, ">=", value);
+    }
+
+    /**
+     * Inclusive range condition
+     */
+    public static SqlPredicate between(String record, Object from, Object to) {
+        return new Between(record, from, to);
+    }
+
+    /**
+     * IN condition, an empty collection never matches
+     */
+    public static SqlPredicate in(String record, Collection<?> values) {
+        return new In(record, new ArrayList<>(values));
+    }
+
+    public static SqlPredicate in(String record, Object... values) {
+        return new In(record, Arrays.asList(values));
+    }
+
+    public static SqlPredicate isNull(String record) {
+        return new Null(record, false);
+    }
+
+    public static SqlPredicate isNotNull(String record) {
+        return new Null(record, true);
+    }
+
+    /**
+     * LIKE condition, the pattern is bound as a string
+     */
+    public static SqlPredicate like(String record, String pattern) {
+        return new Like(record, pattern);
+    }
+
+    public static SqlPredicate and(SqlPredicate... predicates) {
+        return new Junction(" AND ", predicates);
+    }
+
+    public static SqlPredicate or(SqlPredicate... predicates) {
+        return new Junction(" OR ", predicates);
+    }
+
+    public static SqlPredicate not(SqlPredicate predicate) {
+        return new Not(predicate);
+    }
+
+    /**
+     * Value bound to a single placeholder
+     */
+    public static class Argument {
+        private final String record;
+        private final Object value;
+        private final boolean typed;
+
+        private Argument(String record, Object value, boolean typed) {
+            this.record = record;
+            this.value = value;
+            this.typed = typed;
+        }
+
+        /**
+         * @return Record the value is compared with
+         */
+        public String getRecord() {
+            return this.record;
+        }
+
+        public Object getValue() {
+            return this.value;
+        }
+
+        /**
+         * @return True if the value has the type of the record and should be written by its codec,
+         * false if it should be bound as it is (e.g. LIKE patterns)
+         */
+        public boolean isTyped() {
+            return this.typed;
+        }
+    }
+
+    private static class Comparison extends SqlPredicate {
+        private final String record;
+        private final String operator;
+        private final Object value;
+
+        private Comparison(String record, String operator, Object value) {
+            this.record = record;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        @Override
+        void appendTo(StringBuilder builder, SqlDialect dialect) {
+            builder.append(dialect.quote(this.record)).append(this.operator).append('?');
+        }
+
+        @Override
+        void collect(List<Argument> arguments) {
+            arguments.add(new Argument(this.record, this.value, true));
+        }
+    }
+
+    private static class Between extends SqlPredicate {
+        private final String record;
+        private final Object from;
+        private final Object to;
+
+        private Between(String record, Object from, Object to) {
+            this.record = record;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        void appendTo(StringBuilder builder, SqlDialect dialect) {
+            builder.append(dialect.quote(this.record)).append(" BETWEEN ? AND ?");
+        }
+
+        @Override
+        void collect(List<Argument> arguments) {
+            arguments.add(new Argument(this.record, this.from, true));
+            arguments.add(new Argument(this.record, this.to, true));
+        }
+    }
+
+    private static class In extends SqlPredicate {
+        private final String record;
+        private final List<?> values;
+
+        private In(String record, List<?> values) {
+            this.record = record;
+            this.values = values;
+        }
+
+        private int paddedSize() {
+            return Math.max(1, Integer.highestOneBit(this.values.size() - 1) << 1);
+        }
+
+        @Override
+        void appendTo(StringBuilder builder, SqlDialect dialect) {
+            if (this.values.isEmpty()) {
+                builder.append("1=0");
+                return;
+            }
+
+            builder.append(dialect.quote(this.record)).append(" IN (");
+            int size = paddedSize();
+            for (int i = 0; i < size; i++) {
+                if (i > 0)
+                    builder.append(", ");
+                builder.append('?');
+            }
+            builder.append(')');
+        }
+
+        @Override
+        void collect(List<Argument> arguments) {
+            if (this.values.isEmpty())
+                return;
+
+            int size = paddedSize();
+            for (int i = 0; i < size; i++) {
+                Object value = this.values.get(Math.min(i, this.values.size() - 1));
+                arguments.add(new Argument(this.record, value, true));
+            }
+        }
+    }
+
+    private static class Null extends SqlPredicate {
+        private final String record;
+        private final boolean not;
+
+        private Null(String record, boolean not) {
+            this.record = record;
+            this.not = not;
+        }
+
+        @Override
+        void appendTo(StringBuilder builder, SqlDialect dialect) {
+            builder.append(dialect.quote(this.record)).append(this.not ? " IS NOT NULL" : " IS NULL");
+        }
+
+        @Override
+        void collect(List<Argument> arguments) {
+        }
+    }
+
+    private static class Like extends SqlPredicate {
+        private final String record;
+        private final String pattern;
+
+        private Like(String record, String pattern) {
+            this.record = record;
+            this.pattern = pattern;
+        }
+
+        @Override
+        void appendTo(StringBuilder builder, SqlDialect dialect) {
+            builder.append(dialect.quote(this.record)).append(" LIKE ?");
+        }
+
+        @Override
+        void collect(List<Argument> arguments) {
+            arguments.add(new Argument(this.record, this.pattern, false));
+        }
+    }
+
+    private static class Junction extends SqlPredicate {
+        private final String operator;
+        private final SqlPredicate[] predicates;
+
+        private Junction(String operator, SqlPredicate[] predicates) {
+            if (predicates.length == 0)
+                throw new IllegalArgumentException("At least one predicate is required");
+
+            this.operator = operator;
+            this.predicates = predicates.clone();
+        }
+
+        @Override
+        void appendTo(StringBuilder builder, SqlDialect dialect) {
+            builder.append('(');
+            for (int i = 0; i < this.predicates.length; i++) {
+                if (i > 0)
+                    builder.append(this.operator);
+                this.predicates[i].appendTo(builder, dialect);
+            }
+            builder.append(')');
+        }
+
+        @Override
+        void collect(List<Argument> arguments) {
+            for (SqlPredicate predicate : this.predicates) {
+                predicate.collect(arguments);
+            }
+        }
+    }
+
+    private static class Not extends SqlPredicate {
+        private final SqlPredicate predicate;
+
+        private Not(SqlPredicate predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        void appendTo(StringBuilder builder, SqlDialect dialect) {
+            builder.append("NOT (");
+            this.predicate.appendTo(builder, dialect);
+            builder.append(')');
+        }
+
+        @Override
+        void collect(List<Argument> arguments) {
+            this.predicate.collect(arguments);
+        }
+    }
+}
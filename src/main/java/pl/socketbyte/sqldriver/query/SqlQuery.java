@@ -3,6 +3,7 @@ package pl.socketbyte.sqldriver.query;
 /**
  * SqlQuery helper class for building simple
  * SQL queries very easily and syntax error-proof
+ * The types, quoting and database specific clauses follow the SqlDialect (MySQL by default)
  */
 public class SqlQuery {
 
@@ -11,59 +12,92 @@ public class SqlQuery {
      */
     private final StringBuilder query;
 
-    private static final StringBuilder builder = new StringBuilder();
+    private final SqlDialect dialect;
+
+    /**
+     * Index of the opening bracket of CREATE TABLE records, -1 if it's not a CREATE TABLE query
+     */
+    private int recordsStart = -1;
 
     public SqlQuery() {
+        this(SqlDialect.MYSQL);
+    }
+
+    public SqlQuery(SqlDialect dialect) {
         this.query = new StringBuilder();
+        this.dialect = dialect;
     }
 
-    private SqlQuery(StringBuilder query) {
-        this.query = query;
+    public SqlDialect getDialect() {
+        return this.dialect;
     }
 
     public SqlQuery table(String tableName) {
-        return addToQuery(tableName);
+        return addToQuery(this.dialect.quote(tableName));
     }
 
     public SqlQuery createTable(String name) {
-        return addToQuery("CREATE TABLE IF NOT EXISTS " + name + " (");
+        addToQuery("CREATE TABLE IF NOT EXISTS ").table(name).addToQuery(" (");
+        this.recordsStart = this.query.length();
+        return this;
     }
 
     public SqlQuery record(String name, String type, boolean nullable) {
-        return addToQuery("," + name + " " + type + (nullable ? "" : " NOT NULL"));
+        return record(name, type, nullable, false);
     }
 
     public SqlQuery record(String name, String type, boolean nullable, boolean autoincrement) {
-        return addToQuery("," + name + " " + type + (nullable ? "" : " NOT NULL")
-                + (autoincrement ? " AUTO_INCREMENT" : ""));
+        this.query.append(',').append(this.dialect.quote(name)).append(' ').append(type);
+        if (!nullable)
+            this.query.append(" NOT NULL");
+        if (autoincrement)
+            this.query.append(this.dialect.autoIncrement());
+        return this;
     }
 
     public SqlQuery record(String name, SqlDataType type, boolean nullable) {
-        return addToQuery("," + name + " " + type.real() + (nullable ? "" : " NOT NULL"));
+        return record(name, this.dialect.getType(type), nullable, false);
     }
 
     public SqlQuery record(String name, SqlDataType type, boolean nullable, boolean autoincrement) {
-        return addToQuery("," + name + " " + type.real() + (nullable ? "" : " NOT NULL")
-                + (autoincrement ? " AUTO_INCREMENT" : ""));
+        return record(name, this.dialect.getType(type), nullable, autoincrement);
     }
 
-    public SqlQuery primaryKey(String key) {
-        return addToQuery(",PRIMARY_KEY(" + key + ")");
+    public SqlQuery primaryKey(String... keys) {
+        addToQuery(",PRIMARY KEY(");
+        return join(", ", "", keys).addToQuery(")");
     }
 
-    public SqlQuery select(String... values) {
-        builder.setLength(0);
+    public SqlQuery alterTable(String name) {
+        return addToQuery("ALTER TABLE ").table(name);
+    }
 
-        for (String value : values) {
-            builder.append(", ").append(value);
-        }
+    public SqlQuery addColumn(String name, SqlDataType type, boolean nullable) {
+        addToQuery(" ADD COLUMN ").addToQuery(this.dialect.quote(name)).addToQuery(" ")
+                .addToQuery(this.dialect.getType(type));
+        return addToQuery(nullable ? "" : " NOT NULL");
+    }
+
+    public SqlQuery dropColumn(String name) {
+        return addToQuery(" DROP COLUMN ").addToQuery(this.dialect.quote(name));
+    }
+
+    /**
+     * Renames the column and changes its type, see SqlDialect.changeColumn()
+     */
+    public SqlQuery changeColumn(String name, String newName, SqlDataType type, boolean nullable) {
+        return addToQuery(this.dialect.changeColumn(name, newName, type, nullable));
+    }
+
+    public SqlQuery select(String... values) {
+        addToQuery("SELECT ");
 
         if (values.length == 0) {
-            builder.append("*");
+            this.query.append('*');
         }
+        else join(", ", "", values);
 
-        return addToQuery("SELECT " +
-                builder.toString().replaceFirst(",", "") + " FROM ");
+        return addToQuery(" FROM ");
     }
 
     public SqlQuery update() {
@@ -74,42 +108,173 @@ public class SqlQuery {
         return addToQuery("INSERT INTO ");
     }
 
+    /**
+     * Column list of INSERT INTO or MERGE INTO, the values are bound in this order
+     * rather than in the order of the table columns
+     */
+    public SqlQuery columns(String... records) {
+        addToQuery(" (");
+        return join(", ", "", records).addToQuery(")");
+    }
+
+    public SqlQuery mergeInto() {
+        return addToQuery("MERGE INTO ");
+    }
+
+    /**
+     * KEY clause of MERGE INTO
+     */
+    public SqlQuery key(String... records) {
+        addToQuery(" KEY(");
+        return join(", ", "", records).addToQuery(")");
+    }
+
     public SqlQuery deleteFrom() {
         return addToQuery("DELETE FROM ");
     }
 
     public SqlQuery where(String... conditions) {
-        builder.setLength(0);
+        addToQuery(" WHERE ");
+        return join(" AND ", "=?", conditions);
+    }
+
+    public SqlQuery where(SqlPredicate predicate) {
+        return addToQuery(" WHERE ").addToQuery(predicate.toSql(this.dialect));
+    }
+
+    /**
+     * Starts the WHERE clause built with equal(), in(), and() etc.
+     */
+    public SqlQuery where() {
+        return addToQuery(" WHERE ");
+    }
+
+    public SqlQuery equal(String record) {
+        return addToQuery(this.dialect.quote(record)).addToQuery("=?");
+    }
+
+    public SqlQuery and() {
+        return addToQuery(" AND ");
+    }
 
-        for (String condition : conditions) {
-            builder.append(",").append(condition).append("=?");
+    public SqlQuery or() {
+        return addToQuery(" OR ");
+    }
+
+    /**
+     * IN condition with given amount of placeholders
+     */
+    public SqlQuery in(String record, int size) {
+        addToQuery(this.dialect.quote(record)).addToQuery(" IN (");
+        placeholders(size);
+        return addToQuery(")");
+    }
+
+    /**
+     * Row value IN condition, i.e. (a, b) IN ((?, ?), (?, ?))
+     * @param records Compared records
+     * @param rows Amount of compared rows
+     */
+    public SqlQuery in(String[] records, int rows) {
+        if (records.length == 1)
+            return in(records[0], rows);
+
+        addToQuery("(");
+        join(", ", "", records);
+        addToQuery(") IN (");
+        for (int row = 0; row < rows; row++) {
+            if (row > 0)
+                this.query.append(", ");
+            this.query.append('(');
+            placeholders(records.length);
+            this.query.append(')');
         }
+        return addToQuery(")");
+    }
 
-        return addToQuery(" WHERE " +
-                builder.toString().replaceFirst(",", ""));
+    /**
+     * Row value comparison with the placeholders, i.e. (a, b) > (?, ?)
+     * @param operator Comparison operator, e.g. "&gt;"
+     * @param records Compared records
+     */
+    public SqlQuery compare(String operator, String... records) {
+        if (records.length == 1)
+            return addToQuery(this.dialect.quote(records[0])).addToQuery(operator).addToQuery("?");
+
+        addToQuery("(");
+        join(", ", "", records);
+        addToQuery(")").addToQuery(operator).addToQuery("(");
+        placeholders(records.length);
+        return addToQuery(")");
     }
 
-    public SqlQuery values(int size) {
-        builder.setLength(0);
-        //size--;
+    public SqlQuery orderBy(String... records) {
+        addToQuery(" ORDER BY ");
+        return join(", ", "", records);
+    }
 
+    public SqlQuery orderByDescending(String... records) {
+        addToQuery(" ORDER BY ");
+        return join(", ", " DESC", records);
+    }
+
+    /**
+     * LIMIT clause with the limit as a placeholder
+     */
+    public SqlQuery limit() {
+        return addToQuery(this.dialect.limit());
+    }
+
+    private void placeholders(int size) {
         for (int i = 0; i < size; i++) {
-            builder.append(", ?");
+            if (i > 0)
+                this.query.append(", ");
+            this.query.append('?');
         }
+    }
 
-        return addToQuery(" VALUES (" +
-                builder.toString().replaceFirst(", ", "") + ") ");
+    /**
+     * Turns the INSERT into an upsert, the rows with an existing primary (or unique) key
+     * get the inserted values of given records instead (MySQL, see SqlDialect.upsert())
+     * @param records Records to overwrite, usually all but the primary ones
+     */
+    public SqlQuery onDuplicateKeyUpdate(String... records) {
+        addToQuery(" ON DUPLICATE KEY UPDATE ");
+        for (int i = 0; i < records.length; i++) {
+            if (i > 0)
+                this.query.append(", ");
+            String record = this.dialect.quote(records[i]);
+            this.query.append(record).append("=VALUES(").append(record).append(')');
+        }
+        return this;
     }
 
-    public SqlQuery set(String... conditions) {
-        builder.setLength(0);
+    public SqlQuery values(int size) {
+        return values(size, 1);
+    }
 
-        for (String condition : conditions) {
-            builder.append(",").append(condition).append("=?");
+    /**
+     * Multi-row VALUES clause
+     * @param size Amount of values per row
+     * @param rows Amount of rows
+     */
+    public SqlQuery values(int size, int rows) {
+        addToQuery(" VALUES ");
+
+        for (int row = 0; row < rows; row++) {
+            if (row > 0)
+                this.query.append(", ");
+            this.query.append('(');
+            placeholders(size);
+            this.query.append(')');
         }
 
-        return addToQuery(" SET (" +
-                builder.toString().replaceFirst(",", "") + ")");
+        return addToQuery(" ");
+    }
+
+    public SqlQuery set(String... conditions) {
+        addToQuery(" SET ");
+        return join(",", "=?", conditions);
     }
 
     public SqlQuery drop() {
@@ -117,13 +282,26 @@ public class SqlQuery {
     }
 
     public String done() {
-        if (this.query.toString().contains("CREATE TABLE")) {
-            return this.query.toString().replaceFirst("\\(,", "\\(") + ")";
+        if (this.recordsStart >= 0) {
+            if (this.query.length() > this.recordsStart && this.query.charAt(this.recordsStart) == ',')
+                this.query.deleteCharAt(this.recordsStart);
+            this.recordsStart = -1;
+            this.query.append(')');
         }
         return this.query.toString();
     }
 
+    private SqlQuery join(String separator, String suffix, String... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                this.query.append(separator);
+            this.query.append(this.dialect.quote(values[i])).append(suffix);
+        }
+        return this;
+    }
+
     private SqlQuery addToQuery(String text) {
-        return new SqlQuery(this.query.append(text));
+        this.query.append(text);
+        return this;
     }
 }
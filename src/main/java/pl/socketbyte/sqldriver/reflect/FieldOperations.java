@@ -7,4 +7,29 @@ public interface FieldOperations {
     <T> void setField(Class<? extends T> clazz, T instance, String fieldName, Object value);
     Field[] getFields(Class<?> clazz);
     void register(Class<?> clazz);
+
+    /**
+     * Resolves the field index once, so the field can be accessed without any name lookups
+     * @param clazz Class of the field
+     * @param fieldName Name of the field
+     * @return Index of the field in the array returned by getFields(clazz)
+     */
+    int getFieldIndex(Class<?> clazz, String fieldName);
+    <T> Object getField(Class<? extends T> clazz, T instance, int fieldIndex);
+    <T> void setField(Class<? extends T> clazz, T instance, int fieldIndex, Object value);
+
+    /*
+     * Primitive specialized accessors, they don't box the values
+     * Can only be used with the fields of exactly the same primitive type
+     */
+    <T> int getInt(Class<? extends T> clazz, T instance, int fieldIndex);
+    <T> void setInt(Class<? extends T> clazz, T instance, int fieldIndex, int value);
+    <T> long getLong(Class<? extends T> clazz, T instance, int fieldIndex);
+    <T> void setLong(Class<? extends T> clazz, T instance, int fieldIndex, long value);
+    <T> double getDouble(Class<? extends T> clazz, T instance, int fieldIndex);
+    <T> void setDouble(Class<? extends T> clazz, T instance, int fieldIndex, double value);
+    <T> float getFloat(Class<? extends T> clazz, T instance, int fieldIndex);
+    <T> void setFloat(Class<? extends T> clazz, T instance, int fieldIndex, float value);
+    <T> boolean getBoolean(Class<? extends T> clazz, T instance, int fieldIndex);
+    <T> void setBoolean(Class<? extends T> clazz, T instance, int fieldIndex, boolean value);
 }
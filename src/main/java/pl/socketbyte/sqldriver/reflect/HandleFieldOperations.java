@@ -0,0 +1,242 @@
+package pl.socketbyte.sqldriver.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Field operations backed by MethodHandles precomputed for every field of the class
+ * Unlike reflectasm it supports private fields (including the inherited ones),
+ * only static, final and synthetic fields are skipped.
+ *
+ * Fields should be accessed by their index, the name based methods are slower.
+ */
+public class HandleFieldOperations implements FieldOperations {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Map<Class<?>, ClassHandles> cachedHandles = new ConcurrentHashMap<>();
+
+    public ClassHandles getHandles(Class<?> clazz) {
+        ClassHandles handles = cachedHandles.get(clazz);
+        if (handles != null)
+            return handles;
+
+        handles = new ClassHandles(clazz);
+        cachedHandles.put(clazz, handles);
+
+        return handles;
+    }
+
+    @Override
+    public <T> Object getField(Class<? extends T> clazz, T instance, String fieldName) {
+        return getField(clazz, instance, getFieldIndex(clazz, fieldName));
+    }
+
+    @Override
+    public <T> void setField(Class<? extends T> clazz, T instance, String fieldName, Object value) {
+        setField(clazz, instance, getFieldIndex(clazz, fieldName), value);
+    }
+
+    @Override
+    public Field[] getFields(Class<?> clazz) {
+        return getHandles(clazz).fields.clone();
+    }
+
+    @Override
+    public void register(Class<?> clazz) {
+        getHandles(clazz);
+    }
+
+    @Override
+    public int getFieldIndex(Class<?> clazz, String fieldName) {
+        Integer index = getHandles(clazz).indexes.get(fieldName);
+        if (index == null)
+            throw new IllegalArgumentException("Unable to find the field " + fieldName);
+
+        return index;
+    }
+
+    @Override
+    public <T> Object getField(Class<? extends T> clazz, T instance, int fieldIndex) {
+        try {
+            return (Object) getHandles(clazz).getters[fieldIndex].invokeExact((Object) instance);
+        } catch (Throwable throwable) {
+            throw new RuntimeException("Unable to read the field value", throwable);
+        }
+    }
+
+    @Override
+    public <T> void setField(Class<? extends T> clazz, T instance, int fieldIndex, Object value) {
+        try {
+            getHandles(clazz).setters[fieldIndex].invokeExact((Object) instance, value);
+        } catch (Throwable throwable) {
+            throw new RuntimeException("Unable to set the field value", throwable);
+        }
+    }
+
+    @Override
+    public <T> int getInt(Class<? extends T> clazz, T instance, int fieldIndex) {
+        try {
+            return (int) getHandles(clazz).primitiveGetters[fieldIndex].invokeExact((Object) instance);
+        } catch (Throwable throwable) {
+            throw new RuntimeException("Unable to read the field value", throwable);
+        }
+    }
+
+    @Override
+    public <T> void setInt(Class<? extends T> clazz, T instance, int fieldIndex, int value) {
+        try {
+            getHandles(clazz).primitiveSetters[fieldIndex].invokeExact((Object) instance, value);
+        } catch (Throwable throwable) {
+            throw new RuntimeException("Unable to set the field value", throwable);
+        }
+    }
+
+    @Override
+    public <T> long getLong(Class<? extends T> clazz, T instance, int fieldIndex) {
+        try {
+            return (long) getHandles(clazz).primitiveGetters[fieldIndex].invokeExact((Object) instance);
+        } catch (Throwable throwable) {
+            throw new RuntimeException("Unable to read the field value", throwable);
+        }
+    }
+
+    @Override
+    public <T> void setLong(Class<? extends T> clazz, T instance, int fieldIndex, long value) {
+        try {
+            getHandles(clazz).primitiveSetters[fieldIndex].invokeExact((Object) instance, value);
+        } catch (Throwable throwable) {
+            throw new RuntimeException("Unable to set the field value", throwable);
+        }
+    }
+
+    @Override
+    public <T> double getDouble(Class<? extends T> clazz, T instance, int fieldIndex) {
+        try {
+            return (double) getHandles(clazz).primitiveGetters[fieldIndex].invokeExact((Object) instance);
+        } catch (Throwable throwable) {
+            throw new RuntimeException("Unable to read the field value", throwable);
+        }
+    }
+
+    @Override
+    public <T> void setDouble(Class<? extends T> clazz, T instance, int fieldIndex, double value) {
+        try {
+            getHandles(clazz).primitiveSetters[fieldIndex].invokeExact((Object) instance, value);
+        } catch (Throwable throwable) {
+            throw new RuntimeException("Unable to set the field value", throwable);
+        }
+    }
+
+    @Override
+    public <T> float getFloat(Class<? extends T> clazz, T instance, int fieldIndex) {
+        try {
+            return (float) getHandles(clazz).primitiveGetters[fieldIndex].invokeExact((Object) instance);
+        } catch (Throwable throwable) {
+            throw new RuntimeException("Unable to read the field value", throwable);
+        }
+    }
+
+    @Override
+    public <T> void setFloat(Class<? extends T> clazz, T instance, int fieldIndex, float value) {
+        try {
+            getHandles(clazz).primitiveSetters[fieldIndex].invokeExact((Object) instance, value);
+        } catch (Throwable throwable) {
+            throw new RuntimeException("Unable to set the field value", throwable);
+        }
+    }
+
+    @Override
+    public <T> boolean getBoolean(Class<? extends T> clazz, T instance, int fieldIndex) {
+        try {
+            return (boolean) getHandles(clazz).primitiveGetters[fieldIndex].invokeExact((Object) instance);
+        } catch (Throwable throwable) {
+            throw new RuntimeException("Unable to read the field value", throwable);
+        }
+    }
+
+    @Override
+    public <T> void setBoolean(Class<? extends T> clazz, T instance, int fieldIndex, boolean value) {
+        try {
+            getHandles(clazz).primitiveSetters[fieldIndex].invokeExact((Object) instance, value);
+        } catch (Throwable throwable) {
+            throw new RuntimeException("Unable to set the field value", throwable);
+        }
+    }
+
+    /**
+     * Getters and setters of all the fields of a single class
+     */
+    public static class ClassHandles {
+        private final Field[] fields;
+        private final MethodHandle[] getters;
+        private final MethodHandle[] setters;
+
+        /**
+         * Unboxed handles of the primitive fields, null for the other fields
+         */
+        private final MethodHandle[] primitiveGetters;
+        private final MethodHandle[] primitiveSetters;
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        private ClassHandles(Class<?> clazz) {
+            List<Field> fields = new ArrayList<>();
+            collectFields(clazz, fields);
+
+            this.fields = fields.toArray(new Field[0]);
+            this.getters = new MethodHandle[this.fields.length];
+            this.setters = new MethodHandle[this.fields.length];
+            this.primitiveGetters = new MethodHandle[this.fields.length];
+            this.primitiveSetters = new MethodHandle[this.fields.length];
+
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            for (int i = 0; i < this.fields.length; i++) {
+                Field field = this.fields[i];
+                field.setAccessible(true);
+
+                try {
+                    MethodHandle getter = lookup.unreflectGetter(field);
+                    MethodHandle setter = lookup.unreflectSetter(field);
+
+                    this.getters[i] = getter.asType(GETTER_TYPE);
+                    this.setters[i] = setter.asType(SETTER_TYPE);
+
+                    Class<?> type = field.getType();
+                    if (type.isPrimitive()) {
+                        this.primitiveGetters[i] = getter.asType(MethodType.methodType(type, Object.class));
+                        this.primitiveSetters[i] = setter.asType(MethodType.methodType(void.class, Object.class, type));
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new RuntimeException("Unable to access the field " + field.getName(), e);
+                }
+
+                // fields hidden by subclasses keep the index of the subclass field
+                this.indexes.put(field.getName(), i);
+            }
+        }
+
+        private static void collectFields(Class<?> clazz, List<Field> fields) {
+            if (clazz == null || clazz == Object.class)
+                return;
+
+            collectFields(clazz.getSuperclass(), fields);
+
+            for (Field field : clazz.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || field.isSynthetic())
+                    continue;
+
+                fields.add(field);
+            }
+        }
+    }
+}
@@ -3,12 +3,12 @@ package pl.socketbyte.sqldriver.reflect;
 import com.esotericsoftware.reflectasm.FieldAccess;
 
 import java.lang.reflect.Field;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ImprovedFieldOperations implements FieldOperations {
 
-    private final Map<Class<?>, FieldAccess> cachedFieldAccessors = new HashMap<>();
+    private final Map<Class<?>, FieldAccess> cachedFieldAccessors = new ConcurrentHashMap<>();
 
     public FieldAccess getFieldAccess(Class<?> clazz) {
         FieldAccess access = cachedFieldAccessors.get(clazz);
@@ -49,4 +49,75 @@ public class ImprovedFieldOperations implements FieldOperations {
         getFieldAccess(clazz);
     }
 
+    @Override
+    public int getFieldIndex(Class<?> clazz, String fieldName) {
+        FieldAccess access = getFieldAccess(clazz);
+
+        return access.getIndex(fieldName);
+    }
+
+    @Override
+    public <T> Object getField(Class<? extends T> clazz, T instance, int fieldIndex) {
+        FieldAccess access = getFieldAccess(clazz);
+
+        return access.get(instance, fieldIndex);
+    }
+
+    @Override
+    public <T> void setField(Class<? extends T> clazz, T instance, int fieldIndex, Object value) {
+        FieldAccess access = getFieldAccess(clazz);
+
+        access.set(instance, fieldIndex, value);
+    }
+
+    @Override
+    public <T> int getInt(Class<? extends T> clazz, T instance, int fieldIndex) {
+        return getFieldAccess(clazz).getInt(instance, fieldIndex);
+    }
+
+    @Override
+    public <T> void setInt(Class<? extends T> clazz, T instance, int fieldIndex, int value) {
+        getFieldAccess(clazz).setInt(instance, fieldIndex, value);
+    }
+
+    @Override
+    public <T> long getLong(Class<? extends T> clazz, T instance, int fieldIndex) {
+        return getFieldAccess(clazz).getLong(instance, fieldIndex);
+    }
+
+    @Override
+    public <T> void setLong(Class<? extends T> clazz, T instance, int fieldIndex, long value) {
+        getFieldAccess(clazz).setLong(instance, fieldIndex, value);
+    }
+
+    @Override
+    public <T> double getDouble(Class<? extends T> clazz, T instance, int fieldIndex) {
+        return getFieldAccess(clazz).getDouble(instance, fieldIndex);
+    }
+
+    @Override
+    public <T> void setDouble(Class<? extends T> clazz, T instance, int fieldIndex, double value) {
+        getFieldAccess(clazz).setDouble(instance, fieldIndex, value);
+    }
+
+    @Override
+    public <T> float getFloat(Class<? extends T> clazz, T instance, int fieldIndex) {
+        return getFieldAccess(clazz).getFloat(instance, fieldIndex);
+    }
+
+    @Override
+    public <T> void setFloat(Class<? extends T> clazz, T instance, int fieldIndex, float value) {
+        getFieldAccess(clazz).setFloat(instance, fieldIndex, value);
+    }
+
+    @Override
+    public <T> boolean getBoolean(Class<? extends T> clazz, T instance, int fieldIndex) {
+        return getFieldAccess(clazz).getBoolean(instance, fieldIndex);
+    }
+
+    @Override
+    public <T> void setBoolean(Class<? extends T> clazz, T instance, int fieldIndex, boolean value) {
+        getFieldAccess(clazz).setBoolean(instance, fieldIndex, value);
+    }
+
 }
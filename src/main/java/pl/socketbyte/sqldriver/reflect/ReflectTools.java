@@ -6,5 +6,6 @@ public class ReflectTools {
 
     public static final FieldOperations IMPROVED_FIELD_OPERATIONS = new ImprovedFieldOperations();
     public static final FieldOperations REGULAR_FIELD_OPERATIONS = new RegularFieldOperations();
+    public static final FieldOperations HANDLE_FIELD_OPERATIONS = new HandleFieldOperations();
 
 }
@@ -1,9 +1,27 @@
 package pl.socketbyte.sqldriver.reflect;
 
 import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class RegularFieldOperations implements FieldOperations {
 
+    private final Map<Class<?>, Field[]> cachedFields = new ConcurrentHashMap<>();
+
+    private Field[] getAccessibleFields(Class<?> clazz) {
+        Field[] fields = cachedFields.get(clazz);
+        if (fields != null)
+            return fields;
+
+        fields = clazz.getFields();
+        for (Field field : fields) {
+            field.setAccessible(true);
+        }
+        cachedFields.put(clazz, fields);
+
+        return fields;
+    }
+
     @Override
     public <T> Object getField(Class<? extends T> clazz,
                                T instance, String fieldName) {
@@ -37,6 +55,124 @@ public class RegularFieldOperations implements FieldOperations {
 
     @Override
     public void register(Class<?> clazz) {
+        getAccessibleFields(clazz);
+    }
+
+    @Override
+    public int getFieldIndex(Class<?> clazz, String fieldName) {
+        Field[] fields = getAccessibleFields(clazz);
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].getName().equals(fieldName))
+                return i;
+        }
+        throw new IllegalArgumentException("Unable to find the field " + fieldName);
+    }
+
+    @Override
+    public <T> Object getField(Class<? extends T> clazz, T instance, int fieldIndex) {
+        try {
+            return getAccessibleFields(clazz)[fieldIndex].get(instance);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to read the field value", e);
+        }
+    }
+
+    @Override
+    public <T> void setField(Class<? extends T> clazz, T instance, int fieldIndex, Object value) {
+        try {
+            getAccessibleFields(clazz)[fieldIndex].set(instance, value);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to set the field value", e);
+        }
+    }
+
+    @Override
+    public <T> int getInt(Class<? extends T> clazz, T instance, int fieldIndex) {
+        try {
+            return getAccessibleFields(clazz)[fieldIndex].getInt(instance);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to read the field value", e);
+        }
+    }
+
+    @Override
+    public <T> void setInt(Class<? extends T> clazz, T instance, int fieldIndex, int value) {
+        try {
+            getAccessibleFields(clazz)[fieldIndex].setInt(instance, value);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to set the field value", e);
+        }
+    }
+
+    @Override
+    public <T> long getLong(Class<? extends T> clazz, T instance, int fieldIndex) {
+        try {
+            return getAccessibleFields(clazz)[fieldIndex].getLong(instance);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to read the field value", e);
+        }
+    }
 
+    @Override
+    public <T> void setLong(Class<? extends T> clazz, T instance, int fieldIndex, long value) {
+        try {
+            getAccessibleFields(clazz)[fieldIndex].setLong(instance, value);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to set the field value", e);
+        }
+    }
+
+    @Override
+    public <T> double getDouble(Class<? extends T> clazz, T instance, int fieldIndex) {
+        try {
+            return getAccessibleFields(clazz)[fieldIndex].getDouble(instance);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to read the field value", e);
+        }
+    }
+
+    @Override
+    public <T> void setDouble(Class<? extends T> clazz, T instance, int fieldIndex, double value) {
+        try {
+            getAccessibleFields(clazz)[fieldIndex].setDouble(instance, value);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to set the field value", e);
+        }
+    }
+
+    @Override
+    public <T> float getFloat(Class<? extends T> clazz, T instance, int fieldIndex) {
+        try {
+            return getAccessibleFields(clazz)[fieldIndex].getFloat(instance);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to read the field value", e);
+        }
+    }
+
+    @Override
+    public <T> void setFloat(Class<? extends T> clazz, T instance, int fieldIndex, float value) {
+        try {
+            getAccessibleFields(clazz)[fieldIndex].setFloat(instance, value);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to set the field value", e);
+        }
+    }
+
+    @Override
+    public <T> boolean getBoolean(Class<? extends T> clazz, T instance, int fieldIndex) {
+        try {
+            return getAccessibleFields(clazz)[fieldIndex].getBoolean(instance);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to read the field value", e);
+        }
+    }
+
+    @Override
+    public <T> void setBoolean(Class<? extends T> clazz, T instance, int fieldIndex, boolean value) {
+        try {
+            getAccessibleFields(clazz)[fieldIndex].setBoolean(instance, value);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to set the field value", e);
+        }
     }
 }
@@ -0,0 +1,128 @@
+package pl.socketbyte.sqldriver;
+
+import org.junit.After;
+import org.junit.Test;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class AsyncSqlDriverTest extends H2TestBase {
+    private static final String CALLBACK_THREAD = "callback-thread";
+
+    @SqlObject(tableName = "async_rows")
+    public static class Row {
+        @SqlPrimary
+        public int id;
+        public String name;
+    }
+
+    private final ExecutorService callbackExecutor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, CALLBACK_THREAD));
+    private AsyncSqlDriver async;
+
+    @After
+    public void closeAsync() {
+        if (this.async != null)
+            this.async.close();
+        this.callbackExecutor.shutdownNow();
+    }
+
+    @Test
+    public void completesOnCallbackExecutor() throws Exception {
+        createTables(Row.class);
+        this.async = AsyncSqlDriver.create(this.driver, this.callbackExecutor);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> future = this.async.execute(connection -> {
+            started.countDown();
+            await(release);
+            return Thread.currentThread().getName();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // registered before the completion, so it runs on the completing thread
+        CompletableFuture<String> completingThread = future.thenApply(worker -> Thread.currentThread().getName());
+        release.countDown();
+
+        assertTrue(future.get(5, TimeUnit.SECONDS).startsWith("SqlDriver-Async-"));
+        assertEquals(CALLBACK_THREAD, completingThread.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void runsOrmOperations() throws Exception {
+        createTables(Row.class);
+        this.async = AsyncSqlDriver.create(this.driver);
+
+        Row row = new Row();
+        row.id = 1;
+        row.name = "async";
+        this.async.connection().insert(row).get(5, TimeUnit.SECONDS);
+
+        List<Row> rows = this.async.connection().<Row>select(Row.class).get(5, TimeUnit.SECONDS);
+        assertEquals(1, rows.size());
+        assertEquals("async", rows.get(0).name);
+    }
+
+    @Test
+    public void returnsConnectionAfterFailure() throws Exception {
+        this.async = AsyncSqlDriver.create(this.driver);
+
+        BlockingQueue<SqlConnection> borrowed = new LinkedBlockingQueue<>();
+        CompletableFuture<Object> future = this.async.execute(connection -> {
+            borrowed.add(connection);
+            throw new IllegalStateException("failed task");
+        });
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("The task threw");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertTrue(isClosed(borrowed.poll(5, TimeUnit.SECONDS)));
+    }
+
+    @Test
+    public void failsFutureWhenQueueIsFull() throws Exception {
+        this.async = AsyncSqlDriver.create(this.driver, AsyncSqlDriver.createBoundedExecutor(1, 1), null);
+
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> running = this.async.execute(connection -> {
+            await(release);
+            return null;
+        });
+        CompletableFuture<Object> queued = this.async.execute(connection -> null);
+        CompletableFuture<Object> rejected = this.async.execute(connection -> null);
+
+        assertTrue(rejected.isCompletedExceptionally());
+        try {
+            rejected.join();
+            fail("The queue was full");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+    }
+
+    private static boolean isClosed(SqlConnection connection) throws SQLException {
+        return connection.getRawConnection().isClosed();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS))
+                throw new IllegalStateException("Timed out");
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package pl.socketbyte.sqldriver;
+
+import org.junit.After;
+import org.junit.Before;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base of the tests running against the embedded in-memory H2 database (src/test/resources/h2.properties)
+ * Every test gets a new driver with a borrowed connection, the tables created
+ * with createTables() are dropped after the test.
+ */
+public abstract class H2TestBase {
+    protected static final String PROPERTIES = "/h2.properties";
+
+    protected SqlDriver driver;
+    protected SqlConnection connection;
+
+    private final List<Class<?>> tables = new ArrayList<>();
+
+    @Before
+    public void openDriver() {
+        this.driver = SqlDriver.create(PROPERTIES);
+        this.connection = this.driver.borrow();
+    }
+
+    @After
+    public void closeDriver() {
+        try {
+            for (Class<?> clazz : this.tables) {
+                this.connection.drop(clazz);
+            }
+        } finally {
+            this.connection.close();
+            this.driver.close();
+        }
+    }
+
+    /**
+     * Registers the classes and creates their tables, the tables are dropped after the test
+     */
+    protected void createTables(Class<?>... classes) {
+        for (Class<?> clazz : classes) {
+            this.driver.register(clazz);
+            this.connection.createTable(clazz);
+            this.tables.add(clazz);
+        }
+    }
+
+    protected void execute(String query) throws SQLException {
+        try (PreparedStatement statement = this.connection.getRawConnection().prepareStatement(query)) {
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * @return Value of the first column of the first row, null if there are no rows
+     */
+    protected Object queryValue(String query) throws SQLException {
+        try (PreparedStatement statement = this.connection.getRawConnection().prepareStatement(query);
+             ResultSet rs = statement.executeQuery()) {
+            return rs.next() ? rs.getObject(1) : null;
+        }
+    }
+
+    protected long count(String table) throws SQLException {
+        return ((Number) queryValue("SELECT COUNT(*) FROM " + table)).longValue();
+    }
+}
@@ -0,0 +1,65 @@
+package pl.socketbyte.sqldriver;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class PageTokenTest {
+
+    @Test
+    public void roundTripsSupportedValues() {
+        PageToken token = new PageToken(1, 2L, (short) 3, (byte) 4, 5.5, 6.5f, true, 'c',
+                "za\u017c\u00f3\u0142\u0107", UUID.randomUUID(), null);
+
+        String encoded = token.encode();
+        assertEquals(token, PageToken.decode(encoded));
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnsupportedValues() {
+        new PageToken(new Date()).encode();
+    }
+
+    @Test
+    public void rejectsMalformedTokens() {
+        String valid = new PageToken("key", 1).encode();
+        byte[] bytes = Base64.getUrlDecoder().decode(valid);
+
+        assertRejected("not a token!");
+        assertRejected(valid.substring(0, valid.length() - 2));
+        assertRejected(valid + "AAAA");
+        assertRejected(Base64.getUrlEncoder().encodeToString(new byte[] { 1, 1, 'X' }));
+
+        byte[] otherVersion = bytes.clone();
+        otherVersion[0] = 2;
+        assertRejected(Base64.getUrlEncoder().encodeToString(otherVersion));
+
+        byte[] longString = bytes.clone();
+        longString[6] = 127;
+        assertRejected(Base64.getUrlEncoder().encodeToString(longString));
+    }
+
+    @Test
+    public void neverDeserializesObjects() {
+        // the FST encoded form of the old tokens is rejected instead of being deserialized
+        String serialized = Base64.getUrlEncoder().encodeToString(
+                pl.socketbyte.sqldriver.orm.ORMSerializer.serializeBytes(new ArrayList<>(), false));
+        assertRejected(serialized);
+        assertRejected(Base64.getUrlEncoder().encodeToString(new byte[] { (byte) 0xAC, (byte) 0xED, 0, 5 }));
+    }
+
+    private static void assertRejected(String token) {
+        try {
+            PageToken.decode(token);
+            fail("Token " + token + " must be rejected");
+        } catch (IllegalArgumentException expected) {
+            // malformed
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package pl.socketbyte.sqldriver;
+
+import org.junit.Test;
+import pl.socketbyte.sqldriver.orm.ORMStatement;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PaginationTest extends H2TestBase {
+
+    @SqlObject(tableName = "paged_entries")
+    public static class Entry {
+        @SqlPrimary
+        public String category;
+        @SqlPrimary
+        public int position;
+        public boolean visible;
+    }
+
+    private void insert(int categories, int positions) {
+        List<Entry> entries = new ArrayList<>();
+        for (int category = 0; category < categories; category++) {
+            for (int position = 0; position < positions; position++) {
+                Entry entry = new Entry();
+                entry.category = "c" + category;
+                entry.position = position;
+                entry.visible = position % 2 == 0;
+                entries.add(entry);
+            }
+        }
+        this.connection.insertAll(entries);
+    }
+
+    /**
+     * Walks all the pages, every token is passed through its string form
+     */
+    private List<Entry> selectAllPages(ORMStatement<Entry> statement, int pageSize, boolean descending,
+                                       ORMStatement.Where... whereConditions) {
+        List<Entry> selected = new ArrayList<>();
+        PageToken token = null;
+        do {
+            Page<Entry> page = statement.selectPage(pageSize, token, descending, whereConditions);
+            assertTrue(page.getObjects().size() <= pageSize);
+            selected.addAll(page.getObjects());
+
+            token = page.hasNext() ? PageToken.decode(page.getNextToken().encode()) : null;
+        } while (token != null);
+        return selected;
+    }
+
+    @Test
+    public void walksCompositeKeysInOrder() {
+        createTables(Entry.class);
+        insert(3, 7);
+        ORMStatement<Entry> statement = this.connection.makeORMStatement(Entry.class);
+
+        List<Entry> ascending = selectAllPages(statement, 4, false);
+        assertEquals(21, ascending.size());
+        for (int i = 0; i < ascending.size(); i++) {
+            assertEquals("c" + i / 7, ascending.get(i).category);
+            assertEquals(i % 7, ascending.get(i).position);
+        }
+
+        List<Entry> descending = selectAllPages(statement, 5, true);
+        assertEquals(21, descending.size());
+        assertEquals("c2", descending.get(0).category);
+        assertEquals(6, descending.get(0).position);
+        assertEquals(0, descending.get(20).position);
+    }
+
+    @Test
+    public void filtersEveryPage() {
+        createTables(Entry.class);
+        insert(2, 10);
+        ORMStatement<Entry> statement = this.connection.makeORMStatement(Entry.class);
+
+        List<Entry> visible = selectAllPages(statement, 3, false, statement.new Where<>("visible", true));
+        assertEquals(10, visible.size());
+        for (Entry entry : visible) {
+            assertTrue(entry.visible);
+        }
+    }
+
+    @Test
+    public void endsWithoutToken() {
+        createTables(Entry.class);
+        insert(1, 4);
+
+        Page<Entry> page = this.connection.selectPage(Entry.class, 4, null);
+        assertEquals(4, page.getObjects().size());
+        assertFalse(page.hasNext());
+        assertNull(page.getNextToken());
+    }
+}
@@ -0,0 +1,114 @@
+package pl.socketbyte.sqldriver;
+
+import org.junit.Test;
+import pl.socketbyte.sqldriver.cache.CacheStatistics;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.Assert.*;
+
+public class StatementCacheTest extends H2TestBase {
+    private static final String FIRST = "SELECT 1";
+    private static final String SECOND = "SELECT 2";
+    private static final String THIRD = "SELECT 3";
+
+    private final CacheStatistics statistics = new CacheStatistics();
+
+    private StatementCache createCache(int maximumSize) {
+        return new StatementCache(this.connection.getRawConnection(), maximumSize, this.statistics);
+    }
+
+    @Test
+    public void reusesReleasedStatements() throws SQLException {
+        StatementCache cache = createCache(4);
+
+        PreparedStatement first;
+        try (CachedStatement statement = cache.borrow(FIRST)) {
+            first = statement.getStatement();
+        }
+        try (CachedStatement statement = cache.borrow(FIRST)) {
+            assertSame(first, statement.getStatement());
+            assertFalse(first.isClosed());
+        }
+
+        assertEquals(1, this.statistics.getMisses());
+        assertEquals(1, this.statistics.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * The same query borrowed twice at once gets two statements, only the one released first is kept
+     */
+    @Test
+    public void closesNestedDuplicates() throws SQLException {
+        StatementCache cache = createCache(4);
+
+        CachedStatement outer = cache.borrow(FIRST);
+        CachedStatement inner = cache.borrow(FIRST);
+        assertNotSame(outer.getStatement(), inner.getStatement());
+        assertEquals(2, this.statistics.getMisses());
+
+        inner.close();
+        outer.close();
+
+        assertFalse(inner.getStatement().isClosed());
+        assertTrue(outer.getStatement().isClosed());
+        assertEquals(1, cache.size());
+
+        try (CachedStatement statement = cache.borrow(FIRST)) {
+            assertSame(inner.getStatement(), statement.getStatement());
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedStatements() throws SQLException {
+        StatementCache cache = createCache(2);
+
+        PreparedStatement first = borrowAndRelease(cache, FIRST);
+        PreparedStatement second = borrowAndRelease(cache, SECOND);
+        // touches the first one, so the second one is the eldest
+        borrowAndRelease(cache, FIRST);
+        PreparedStatement third = borrowAndRelease(cache, THIRD);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, this.statistics.getEvictions());
+        assertTrue(second.isClosed());
+        assertFalse(first.isClosed());
+        assertFalse(third.isClosed());
+
+        assertNotSame(second, borrowAndRelease(cache, SECOND));
+        assertEquals(2, this.statistics.getEvictions());
+    }
+
+    @Test
+    public void closesStatementsWhenDisabled() throws SQLException {
+        StatementCache cache = createCache(0);
+
+        PreparedStatement statement = borrowAndRelease(cache, FIRST);
+
+        assertTrue(statement.isClosed());
+        assertEquals(0, cache.size());
+        assertEquals(0, this.statistics.getEvictions());
+    }
+
+    @Test
+    public void closesStatementsWithConnection() throws SQLException {
+        SqlConnection connection = this.driver.borrow();
+        PreparedStatement statement;
+        try (CachedStatement cached = connection.prepareCached(FIRST)) {
+            statement = cached.getStatement();
+        }
+        assertFalse(statement.isClosed());
+
+        connection.close();
+
+        assertTrue(statement.isClosed());
+    }
+
+    private static PreparedStatement borrowAndRelease(StatementCache cache, String query) throws SQLException {
+        try (CachedStatement statement = cache.borrow(query)) {
+            return statement.getStatement();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package pl.socketbyte.sqldriver;
+
+import org.junit.Test;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class WriteBehindQueueTest extends H2TestBase {
+
+    @SqlObject(tableName = "queued_accounts")
+    public static class Account {
+        @SqlPrimary
+        public int id;
+        public String name;
+        public long coins;
+    }
+
+    private static Account account(int id, String name, long coins) {
+        Account account = new Account();
+        account.id = id;
+        account.name = name;
+        account.coins = coins;
+        return account;
+    }
+
+    private WriteBehindQueue createQueue() {
+        return new WriteBehindQueue(this.driver, 100, 100, TimeUnit.MINUTES.toMillis(1),
+                WriteBehindQueue.OverflowPolicy.BLOCK);
+    }
+
+    @Test
+    public void coalescesRepeatedWrites() throws SQLException {
+        createTables(Account.class);
+        try (WriteBehindQueue queue = createQueue()) {
+            Account updated = account(1, "updated", 0);
+            queue.insert(updated);
+            for (int i = 1; i <= 100; i++) {
+                updated.coins = i;
+                queue.update(updated);
+            }
+
+            Account deleted = account(2, "deleted", 0);
+            queue.insert(deleted);
+            queue.delete(deleted);
+
+            assertEquals(1, queue.size());
+            queue.flush();
+            assertEquals(0, queue.size());
+        }
+
+        assertEquals(1, count("queued_accounts"));
+        assertEquals(100L, ((Number) queryValue("SELECT coins FROM queued_accounts WHERE id=1")).longValue());
+    }
+
+    @Test
+    public void rollsBackFailedFlush() throws SQLException {
+        createTables(Account.class);
+        this.connection.insert(account(1, "existing", 0));
+
+        try (WriteBehindQueue queue = createQueue()) {
+            queue.insert(account(2, "inserted", 0));
+            Account invalid = account(1, null, 5);
+            queue.update(invalid);
+
+            try {
+                queue.flush();
+                fail("The update of a NOT NULL record to null must fail");
+            } catch (RuntimeException expected) {
+                // the insert is rolled back together with the failed update
+            }
+            assertEquals(1, count("queued_accounts"));
+            assertEquals(2, queue.size());
+
+            invalid.name = "valid";
+            queue.flush();
+        }
+
+        assertEquals(2, count("queued_accounts"));
+        assertEquals("valid", queryValue("SELECT name FROM queued_accounts WHERE id=1"));
+    }
+
+    @Test
+    public void reportsBackgroundFailures() throws Exception {
+        createTables(Account.class);
+        this.connection.insert(account(1, "existing", 0));
+
+        CountDownLatch failed = new CountDownLatch(1);
+        AtomicReference<Exception> error = new AtomicReference<>();
+        WriteBehindQueue queue = new WriteBehindQueue(this.driver, 100, 100, 20,
+                WriteBehindQueue.OverflowPolicy.REJECT);
+        queue.setErrorHandler(exception -> {
+            error.set(exception);
+            failed.countDown();
+        });
+
+        Account invalid = account(1, null, 5);
+        queue.update(invalid);
+        assertTrue(failed.await(10, TimeUnit.SECONDS));
+        assertNotNull(error.get());
+
+        invalid.name = "valid";
+        queue.close();
+        assertEquals(0, queue.size());
+        assertEquals(5L, ((Number) queryValue("SELECT coins FROM queued_accounts WHERE id=1")).longValue());
+    }
+}
@@ -0,0 +1,87 @@
+package pl.socketbyte.sqldriver.cache;
+
+import org.junit.Test;
+import pl.socketbyte.sqldriver.H2TestBase;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SqlCacheTest extends H2TestBase {
+
+    @SqlObject(tableName = "cached_accounts")
+    public static class Account {
+        @SqlPrimary
+        public long id;
+        public long coins;
+    }
+
+    private Account insert(long id, long coins) {
+        Account account = new Account();
+        account.id = id;
+        account.coins = coins;
+        this.connection.insert(account);
+        return account;
+    }
+
+    @Test
+    public void readsThroughCache() {
+        createTables(Account.class);
+        this.driver.enableCache(Account.class, 10, 0, TimeUnit.SECONDS);
+        insert(1, 10);
+
+        Account first = this.connection.selectByPrimary(Account.class, 1L);
+        Account second = this.connection.selectByPrimary(Account.class, 1L);
+        assertSame(first, second);
+        assertEquals(1, this.driver.getCache(Account.class).getStatistics().getHits());
+    }
+
+    @Test
+    public void invalidatesKeysSelectedWithOtherNumberTypes() {
+        createTables(Account.class);
+        this.driver.enableCache(Account.class, 10, 0, TimeUnit.SECONDS);
+        Account account = insert(1, 10);
+
+        Account cached = this.connection.selectByPrimary(Account.class, 1);
+        assertSame(cached, this.connection.selectByPrimary(Account.class, 1L));
+
+        account.coins = 20;
+        this.connection.update(account);
+        assertEquals(20, this.connection.selectByPrimary(Account.class, 1).coins);
+
+        this.connection.delete(account);
+        assertNull(this.connection.selectByPrimary(Account.class, 1));
+    }
+
+    @Test
+    public void invalidatesDroppedTables() {
+        createTables(Account.class);
+        this.driver.enableCache(Account.class, 10, 0, TimeUnit.SECONDS);
+        insert(1, 10);
+        assertNotNull(this.connection.selectByPrimary(Account.class, 1L));
+
+        this.connection.drop(Account.class);
+        this.connection.createTable(Account.class);
+        assertNull(this.connection.selectByPrimary(Account.class, 1L));
+    }
+
+    @Test
+    public void rejectsReadsOlderThanInvalidation() {
+        VersionedSqlCache<Object, Object> cache = new VersionedSqlCache<>(new LruSqlCache<>(10));
+
+        long version = cache.getVersion(1L);
+        cache.invalidate(1L);
+        assertFalse(cache.putIfUnchanged(1L, "stale", version));
+        assertNull(cache.get(1L));
+
+        version = cache.getVersion(1L);
+        assertTrue(cache.putIfUnchanged(1L, "fresh", version));
+        assertEquals("fresh", cache.get(1L));
+
+        version = cache.getVersion(2L);
+        cache.invalidateAll();
+        assertFalse(cache.putIfUnchanged(2L, "stale", version));
+    }
+}
@@ -0,0 +1,88 @@
+package pl.socketbyte.sqldriver.orm;
+
+import org.junit.Test;
+import pl.socketbyte.sqldriver.H2TestBase;
+import pl.socketbyte.sqldriver.orm.annotation.SqlField;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+import pl.socketbyte.sqldriver.query.SqlDataType;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BinaryMigrationTest extends H2TestBase {
+
+    @SqlObject(tableName = "migrated_profiles")
+    public static class Profile {
+        @SqlPrimary
+        public int id;
+        @SqlField(type = SqlDataType.SERIALIZED)
+        public ArrayList<String> friends;
+        public String name;
+    }
+
+    private static Profile profile(int id, String name, String... friends) {
+        Profile profile = new Profile();
+        profile.id = id;
+        profile.name = name;
+        profile.friends = new ArrayList<>(Arrays.asList(friends));
+        return profile;
+    }
+
+    /**
+     * Creates the table in the old layout, with the serialized field stored as Base64 in the middle column
+     */
+    private void createLegacyTable(int rows) throws SQLException {
+        execute("CREATE TABLE migrated_profiles (id INT NOT NULL, friends VARCHAR NOT NULL, "
+                + "name VARCHAR NOT NULL, PRIMARY KEY(id))");
+        for (int i = 0; i < rows; i++) {
+            String friends = ORMSerializer.serialize(new ArrayList<>(Arrays.asList("friend" + i)), false);
+            execute("INSERT INTO migrated_profiles VALUES (" + i + ", '" + friends + "', 'name" + i + "')");
+        }
+        createTables(Profile.class);
+    }
+
+    private Profile select(int id) {
+        return this.connection.selectByPrimary(Profile.class, id);
+    }
+
+    @Test
+    public void convertsBase64Values() throws SQLException {
+        createLegacyTable(5);
+
+        assertEquals(5, this.connection.migrateToBinary(Profile.class, "friends"));
+        for (int i = 0; i < 5; i++) {
+            Profile profile = select(i);
+            assertEquals("name" + i, profile.name);
+            assertEquals(Arrays.asList("friend" + i), profile.friends);
+        }
+
+        // migrated columns are skipped
+        assertEquals(0, this.connection.migrateToBinary(Profile.class, "friends"));
+    }
+
+    @Test
+    public void insertsAfterMigration() throws SQLException {
+        createLegacyTable(1);
+        this.connection.migrateToBinary(Profile.class, "friends");
+
+        // the migrated column is now the last column of the table
+        this.connection.insert(profile(10, "inserted", "a", "b"));
+        List<Profile> profiles = Arrays.asList(profile(11, "first"), profile(12, "second", "c"));
+        this.connection.insertAll(profiles);
+        this.connection.upsertAll(Arrays.asList(profile(0, "renamed", "d"), profile(13, "upserted")));
+
+        assertEquals("inserted", select(10).name);
+        assertEquals(Arrays.asList("a", "b"), select(10).friends);
+        assertEquals("second", select(12).name);
+        assertEquals(Arrays.asList("c"), select(12).friends);
+        assertEquals("renamed", select(0).name);
+        assertEquals(Arrays.asList("d"), select(0).friends);
+        assertTrue(select(13).friends.isEmpty());
+        assertEquals(5, count("migrated_profiles"));
+    }
+}
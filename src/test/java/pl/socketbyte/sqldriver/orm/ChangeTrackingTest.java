@@ -0,0 +1,226 @@
+package pl.socketbyte.sqldriver.orm;
+
+import org.junit.Test;
+import pl.socketbyte.sqldriver.BatchResult;
+import pl.socketbyte.sqldriver.H2TestBase;
+import pl.socketbyte.sqldriver.orm.annotation.SqlField;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+import pl.socketbyte.sqldriver.orm.annotation.SqlSerializer;
+import pl.socketbyte.sqldriver.orm.serializer.FstSerializer;
+import pl.socketbyte.sqldriver.query.SqlDataType;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ChangeTrackingTest extends H2TestBase {
+
+    @SqlObject(tableName = "tracked_players")
+    public static class Player {
+        @SqlPrimary
+        public int id;
+        public String name;
+        public long coins;
+        public ArrayList<String> friends = new ArrayList<>();
+    }
+
+    public static class CountingSerializer extends FstSerializer {
+        private final AtomicInteger serialized = new AtomicInteger();
+
+        @Override
+        public byte[] serialize(Object object) {
+            this.serialized.incrementAndGet();
+            return super.serialize(object);
+        }
+    }
+
+    @SqlObject(tableName = "tracked_inventories")
+    public static class Inventory {
+        @SqlPrimary
+        public int id;
+        @SqlSerializer(CountingSerializer.class)
+        public ArrayList<String> items = new ArrayList<>();
+        @SqlField(type = SqlDataType.SERIALIZED)
+        @SqlSerializer(CountingSerializer.class)
+        public ArrayList<String> rewards = new ArrayList<>();
+    }
+
+    private List<Player> insert(int players) {
+        List<Player> inserted = new ArrayList<>();
+        for (int i = 0; i < players; i++) {
+            Player player = new Player();
+            player.id = i;
+            player.name = "player" + i;
+            inserted.add(player);
+        }
+        this.connection.insertAll(inserted);
+        return inserted;
+    }
+
+    private Player select(int id) {
+        return this.connection.selectByPrimary(Player.class, id);
+    }
+
+    /**
+     * Changes the name behind the driver's back, it's kept only if the update doesn't set the name
+     */
+    private void renameInDatabase(int id) throws SQLException {
+        execute("UPDATE tracked_players SET name='external' WHERE id=" + id);
+    }
+
+    private List<String> names(List<ORMFieldData> fields) {
+        List<String> names = new ArrayList<>();
+        for (ORMFieldData field : fields) {
+            names.add(field.getName());
+        }
+        return names;
+    }
+
+    @Test
+    public void writesOnlyChangedRecords() throws SQLException {
+        createTables(Player.class);
+        this.driver.enableChangeTracking(Player.class);
+        insert(1);
+
+        Player player = select(0);
+        ORMChangeTracker<Player> tracker = this.driver.getChangeTracker(Player.class);
+        assertTrue(tracker.getChangedFields(player).isEmpty());
+
+        player.coins = 50;
+        player.friends.add("friend");
+        assertEquals(Arrays.asList("coins", "friends"), names(tracker.getChangedFields(player)));
+
+        renameInDatabase(0);
+        this.connection.update(player);
+        Player updated = select(0);
+        assertEquals("external", updated.name);
+        assertEquals(50, updated.coins);
+        assertEquals(Arrays.asList("friend"), updated.friends);
+        assertTrue(tracker.getChangedFields(player).isEmpty());
+    }
+
+    @Test
+    public void skipsUnchangedObjects() throws SQLException {
+        createTables(Player.class);
+        this.driver.enableChangeTracking(Player.class);
+        insert(5);
+
+        List<Player> players = this.connection.makeORMStatement(Player.class).select();
+        players.get(1).coins = 10;
+        players.get(3).coins = 30;
+        players.get(4).name = "renamed";
+        for (int i = 0; i < 5; i++) {
+            renameInDatabase(i);
+        }
+
+        BatchResult result = this.connection.updateAll(players);
+        assertEquals(3, result.getObjectCount());
+        assertEquals(2, result.getBatchCount());
+        assertEquals(3, result.getAffectedRows());
+
+        assertEquals("external", select(0).name);
+        assertEquals("external", select(1).name);
+        assertEquals(10, select(1).coins);
+        assertEquals("external", select(3).name);
+        assertEquals("renamed", select(4).name);
+
+        // nothing changed since the update
+        assertEquals(0, this.connection.updateAll(players).getObjectCount());
+    }
+
+    @Test
+    public void updatesUntrackedObjectsAsWhole() throws SQLException {
+        createTables(Player.class);
+        this.driver.enableChangeTracking(Player.class);
+        insert(1);
+        this.driver.getChangeTracker(Player.class).forget(select(0));
+
+        Player player = new Player();
+        player.id = 0;
+        player.name = "manual";
+        renameInDatabase(0);
+        this.connection.update(player);
+        assertEquals("manual", select(0).name);
+    }
+
+    @Test
+    public void forgetsDeletedObjects() {
+        createTables(Player.class);
+        this.driver.enableChangeTracking(Player.class);
+        List<Player> players = insert(3);
+        ORMChangeTracker<Player> tracker = this.driver.getChangeTracker(Player.class);
+        assertEquals(3, tracker.size());
+
+        this.connection.deleteAll(players.subList(0, 2));
+        assertEquals(1, tracker.size());
+        assertNull(tracker.getChangedFields(players.get(0)));
+    }
+
+    /**
+     * An update with conditions doesn't refresh the snapshot, the next update can't skip the records
+     */
+    @Test
+    public void forgetsObjectsUpdatedWithConditions() {
+        createTables(Player.class);
+        this.driver.enableChangeTracking(Player.class);
+        Player player = insert(1).get(0);
+        player.coins = 10;
+        this.connection.update(player);
+
+        ORMStatement<Player> statement = this.connection.makeORMStatement(Player.class);
+        player.coins = 20;
+        this.connection.update(player, statement.new Where<>("id", 0));
+        assertEquals(20, select(0).coins);
+        assertNull(this.driver.getChangeTracker(Player.class).getChangedFields(player));
+
+        player.coins = 10;
+        this.connection.update(player);
+        assertEquals(10, select(0).coins);
+    }
+
+    /**
+     * Serialized fields are snapshotted by the bytes read with the row, only the comparison serializes them
+     */
+    @Test
+    public void snapshotsStoredBytes() {
+        createTables(Inventory.class);
+        this.driver.enableChangeTracking(Inventory.class);
+        List<Inventory> inventories = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Inventory inventory = new Inventory();
+            inventory.id = i;
+            inventory.items.add("item" + i);
+            inventory.rewards.add("reward" + i);
+            inventories.add(inventory);
+        }
+        this.connection.insertAll(inventories);
+
+        AtomicInteger serialized = ((CountingSerializer) this.driver.getSerializers()
+                .get(CountingSerializer.class)).serialized;
+        serialized.set(0);
+        List<Inventory> selected = this.connection.makeORMStatement(Inventory.class).select();
+        assertEquals(3, selected.size());
+        assertEquals(0, serialized.get());
+
+        ORMChangeTracker<Inventory> tracker = this.driver.getChangeTracker(Inventory.class);
+        Inventory inventory = selected.get(1);
+        assertTrue(tracker.getChangedFields(inventory).isEmpty());
+        assertEquals(2, serialized.get());
+
+        inventory.items.add("added");
+        assertEquals(Arrays.asList("items"), names(tracker.getChangedFields(inventory)));
+        inventory.rewards.clear();
+        assertEquals(Arrays.asList("items", "rewards"), names(tracker.getChangedFields(inventory)));
+
+        this.connection.update(inventory);
+        Inventory updated = this.connection.selectByPrimary(Inventory.class, 1);
+        assertEquals(Arrays.asList("item1", "added"), updated.items);
+        assertTrue(updated.rewards.isEmpty());
+        assertTrue(tracker.getChangedFields(updated).isEmpty());
+    }
+}
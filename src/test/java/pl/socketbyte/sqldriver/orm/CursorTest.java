@@ -0,0 +1,122 @@
+package pl.socketbyte.sqldriver.orm;
+
+import org.junit.Test;
+import pl.socketbyte.sqldriver.H2TestBase;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+import pl.socketbyte.sqldriver.query.SqlPredicate;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class CursorTest extends H2TestBase {
+
+    @SqlObject(tableName = "cursor_rows")
+    public static class Row {
+        @SqlPrimary
+        public int id;
+        public int value;
+    }
+
+    private void insert(int rows) {
+        List<Row> inserted = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Row row = new Row();
+            row.id = i;
+            row.value = i % 10;
+            inserted.add(row);
+        }
+        this.connection.insertAll(inserted);
+    }
+
+    @Test
+    public void streamsEveryRow() {
+        createTables(Row.class);
+        insert(250);
+        this.driver.setFetchSize(16);
+
+        Set<Integer> ids;
+        try (Stream<Row> stream = this.connection.stream(Row.class)) {
+            ids = stream.map(row -> row.id).collect(Collectors.toSet());
+        }
+        assertEquals(250, ids.size());
+
+        try (Stream<Row> stream = this.connection.makeORMStatement(Row.class)
+                .stream(SqlPredicate.equal("value", 3))) {
+            assertEquals(25, stream.count());
+        }
+    }
+
+    @Test
+    public void fillsReusedObject() {
+        createTables(Row.class);
+        insert(20);
+
+        Row reused = new Row();
+        Set<Row> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        int[] sum = new int[1];
+        this.connection.makeORMStatement(Row.class).forEach(reused, row -> {
+            distinct.add(row);
+            sum[0] += row.id;
+        });
+        assertEquals(1, distinct.size());
+        assertSame(reused, distinct.iterator().next());
+        assertEquals(190, sum[0]);
+    }
+
+    @Test
+    public void closesEarly() {
+        createTables(Row.class);
+        insert(20);
+
+        ORMCursor<Row> cursor = this.connection.makeORMStatement(Row.class).cursor();
+        assertTrue(cursor.hasNext());
+        cursor.next();
+        cursor.close();
+        assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    public void reportsFailedPrepare() {
+        ORMStatement<Row> statement = this.connection.makeORMStatement(Row.class);
+        try {
+            statement.cursor();
+            fail("The table doesn't exist");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+    }
+
+    @Test
+    public void closesStatementWhenResultSetFails() {
+        boolean[] statementClosed = new boolean[1];
+        PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("close"))
+                        statementClosed[0] = true;
+                    return null;
+                });
+        ResultSet resultSet = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("close"))
+                        throw new SQLException("broken result set");
+                    return null;
+                });
+
+        ORMCursor<Row> cursor = new ORMCursor<>(statement, resultSet, null, null);
+        try {
+            cursor.close();
+            fail("Closing the result set failed");
+        } catch (RuntimeException e) {
+            assertEquals("broken result set", e.getCause().getMessage());
+        }
+        assertTrue(statementClosed[0]);
+    }
+}
@@ -0,0 +1,111 @@
+package pl.socketbyte.sqldriver.orm;
+
+import org.junit.Test;
+import pl.socketbyte.sqldriver.H2TestBase;
+import pl.socketbyte.sqldriver.SelectionResult;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+import pl.socketbyte.sqldriver.orm.annotation.SqlReference;
+import pl.socketbyte.sqldriver.orm.annotation.SqlTransient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class LazyReferenceTest extends H2TestBase {
+
+    @SqlObject(tableName = "lazy_items")
+    public static class Item {
+        @SqlPrimary
+        public int id;
+        public String ownerName;
+    }
+
+    @SqlObject(tableName = "lazy_owners")
+    public static class Owner {
+        @SqlPrimary
+        public String name;
+        @SqlTransient
+        @SqlReference(reference = Item.class, rule = "ownerName=name", lazy = true)
+        public List<Item> items;
+    }
+
+    private void insert() {
+        List<Owner> owners = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Owner owner = new Owner();
+            owner.name = "owner" + i;
+            owners.add(owner);
+
+            for (int j = 0; j < i; j++) {
+                Item item = new Item();
+                item.id = items.size();
+                item.ownerName = owner.name;
+                items.add(item);
+            }
+        }
+        this.connection.insertAll(owners);
+        this.connection.insertAll(items);
+    }
+
+    private static Owner find(List<Owner> owners, String name) {
+        for (Owner owner : owners) {
+            if (owner.name.equals(name))
+                return owner;
+        }
+        throw new AssertionError("No owner named " + name);
+    }
+
+    @Test
+    public void loadsTheWholeGroupOnFirstAccess() {
+        createTables(Item.class, Owner.class);
+        insert();
+
+        List<Owner> owners = this.connection.selectWithReferences(Owner.class);
+        assertEquals(3, owners.size());
+        for (Owner owner : owners) {
+            assertTrue(owner.items instanceof ORMLazyList);
+            assertFalse(((ORMLazyList<?>) owner.items).isLoaded());
+        }
+
+        assertEquals(2, find(owners, "owner2").items.size());
+        for (Owner owner : owners) {
+            assertTrue(((ORMLazyList<?>) owner.items).isLoaded());
+            for (Item item : owner.items) {
+                assertEquals(owner.name, item.ownerName);
+            }
+        }
+        assertTrue(find(owners, "owner0").items.isEmpty());
+        assertEquals(1, find(owners, "owner1").items.size());
+    }
+
+    @Test
+    public void behavesLikeArrayListAfterLoading() {
+        createTables(Item.class, Owner.class);
+        insert();
+
+        Owner owner = find(this.connection.selectWithReferences(Owner.class), "owner1");
+        Item added = new Item();
+        owner.items.add(added);
+        assertEquals(2, owner.items.size());
+        assertSame(added, owner.items.remove(1));
+        assertEquals(1, owner.items.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void selectAllInstallsLazyLists() {
+        createTables(Item.class, Owner.class);
+        insert();
+
+        Map<Class<?>, SelectionResult> selected = this.connection.selectAll(Owner.class);
+        List<Owner> owners = selected.get(Owner.class).getObjects();
+        for (Owner owner : owners) {
+            assertTrue(owner.items instanceof ORMLazyList);
+        }
+        assertEquals(3, owners.stream().mapToInt(owner -> owner.items.size()).sum());
+    }
+}
@@ -0,0 +1,109 @@
+package pl.socketbyte.sqldriver.orm;
+
+import org.junit.Test;
+import pl.socketbyte.sqldriver.H2TestBase;
+import pl.socketbyte.sqldriver.orm.annotation.SqlField;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+import pl.socketbyte.sqldriver.query.SqlDataType;
+import pl.socketbyte.sqldriver.query.SqlPredicate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ProjectionTest extends H2TestBase {
+
+    @SqlObject(tableName = "projected_players")
+    public static class Player {
+        @SqlPrimary
+        public int id;
+        @SqlField(name = "player_name")
+        public String name;
+        public long coins;
+        @SqlField(type = SqlDataType.SERIALIZED)
+        public ArrayList<String> inventory;
+    }
+
+    public static class PlayerSummary {
+        public String name;
+        public long coins;
+    }
+
+    public static class WrongSummary {
+        public int coins;
+    }
+
+    public static class UnknownSummary {
+        public String nickname;
+    }
+
+    private void insert() {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Player player = new Player();
+            player.id = i;
+            player.name = "player" + i;
+            player.coins = i * 100;
+            player.inventory = new ArrayList<>(Arrays.asList("sword", "shield"));
+            players.add(player);
+        }
+        this.connection.insertAll(players);
+    }
+
+    @Test
+    public void selectsOnlyGivenFields() {
+        createTables(Player.class);
+        insert();
+
+        List<Player> players = this.connection.selectFields(Player.class,
+                SqlPredicate.greaterOrEqual("coins", 200), "id", "name");
+        assertEquals(2, players.size());
+        for (Player player : players) {
+            assertEquals("player" + player.id, player.name);
+            assertEquals(0, player.coins);
+            assertNull(player.inventory);
+        }
+
+        assertEquals(4, this.connection.makeORMStatement(Player.class).selectFields(null, "coins").size());
+    }
+
+    @Test
+    public void mapsDtos() {
+        createTables(Player.class);
+        insert();
+
+        List<PlayerSummary> summaries = this.connection.select(Player.class, PlayerSummary.class,
+                SqlPredicate.equal("id", 3));
+        assertEquals(1, summaries.size());
+        assertEquals("player3", summaries.get(0).name);
+        assertEquals(300, summaries.get(0).coins);
+
+        assertEquals(4, this.connection.makeORMStatement(Player.class).select(PlayerSummary.class).size());
+    }
+
+    @Test
+    public void rejectsMismatchedDtos() {
+        ORMClassData<Player> classData = this.driver.getClassData(Player.class);
+        try {
+            ORMProjection.of(classData, WrongSummary.class, this.driver.getOperations());
+            fail("The coins types differ");
+        } catch (RuntimeException e) {
+            assertEquals("Projected field WrongSummary.coins must be of type long", e.getMessage());
+        }
+
+        try {
+            ORMProjection.of(classData, UnknownSummary.class, this.driver.getOperations());
+            fail("Player has no nickname");
+        } catch (RuntimeException e) {
+            assertEquals("Player has no SqlField named nickname", e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyProjections() {
+        ORMProjection.of(this.driver.getClassData(Player.class));
+    }
+}
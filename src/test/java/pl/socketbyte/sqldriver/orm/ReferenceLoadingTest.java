@@ -0,0 +1,132 @@
+package pl.socketbyte.sqldriver.orm;
+
+import org.junit.Test;
+import pl.socketbyte.sqldriver.H2TestBase;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+import pl.socketbyte.sqldriver.orm.annotation.SqlReference;
+import pl.socketbyte.sqldriver.orm.annotation.SqlTransient;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ReferenceLoadingTest extends H2TestBase {
+
+    @SqlObject(tableName = "reference_members")
+    public static class Member {
+        @SqlPrimary
+        public int id;
+        public String clanTag;
+        public int rank;
+        @SqlTransient
+        @SqlReference(reference = Clan.class, rule = "tag=clanTag")
+        public Clan clan;
+    }
+
+    @SqlObject(tableName = "reference_clans")
+    public static class Clan {
+        @SqlPrimary
+        public String tag;
+        public String name;
+        @SqlTransient
+        @SqlReference(reference = Member.class, rule = {"clanTag=tag", "rank=4"})
+        public List<Member> leaders;
+    }
+
+    /**
+     * Inserts the clans C0..C(clans-1), each with a leader (rank 4) and a regular member (rank 1)
+     */
+    private void insert(int clans) {
+        List<Clan> insertedClans = new ArrayList<>();
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < clans; i++) {
+            Clan clan = new Clan();
+            clan.tag = "C" + i;
+            clan.name = "Clan " + i;
+            insertedClans.add(clan);
+
+            for (int rank : new int[] { 4, 1 }) {
+                Member member = new Member();
+                member.id = members.size();
+                member.clanTag = clan.tag;
+                member.rank = rank;
+                members.add(member);
+            }
+        }
+        this.connection.insertAll(insertedClans);
+        this.connection.insertAll(members);
+    }
+
+    @Test
+    public void loadsSingleReferences() {
+        createTables(Member.class, Clan.class);
+        insert(3);
+        Member orphan = new Member();
+        orphan.id = 100;
+        orphan.clanTag = "NONE";
+        this.connection.insert(orphan);
+
+        List<Member> members = this.connection.selectWithReferences(Member.class);
+        assertEquals(7, members.size());
+        for (Member member : members) {
+            if (member.id == 100)
+                assertNull(member.clan);
+            else assertEquals(member.clanTag, member.clan.tag);
+        }
+    }
+
+    @Test
+    public void loadsFilteredListReferencesWithDepth() {
+        createTables(Member.class, Clan.class);
+        insert(3);
+
+        ORMStatement<Clan> statement = this.connection.makeORMStatement(Clan.class);
+        List<Clan> clans = this.connection.selectWithReferences(Clan.class, 2, statement.new Where<>("tag", "C1"));
+        assertEquals(1, clans.size());
+
+        List<Member> leaders = clans.get(0).leaders;
+        assertEquals(1, leaders.size());
+        assertEquals(4, leaders.get(0).rank);
+        assertEquals("C1", leaders.get(0).clan.tag);
+    }
+
+    @Test
+    public void batchesAndPadsKeyLookups() {
+        createTables(Member.class, Clan.class);
+        insert(11);
+        this.driver.setBatchSize(4);
+
+        // 11 keys are sent as batches of 4, 4 and 3 keys padded to 4
+        List<Member> members = this.connection.selectWithReferences(Member.class);
+        assertEquals(22, members.size());
+        for (Member member : members) {
+            assertEquals(member.clanTag, member.clan.tag);
+        }
+
+        List<Clan> clans = this.connection.selectWithReferences(Clan.class);
+        Set<Integer> leaders = new HashSet<>();
+        for (Clan clan : clans) {
+            assertEquals(1, clan.leaders.size());
+            assertTrue(leaders.add(clan.leaders.get(0).id));
+        }
+        assertEquals(11, leaders.size());
+    }
+
+    @Test
+    public void selectsEveryKeyOnce() {
+        createTables(Member.class, Clan.class);
+        insert(5);
+        this.driver.setBatchSize(4);
+
+        ORMStatement<Clan> statement = this.connection.makeORMStatement(Clan.class);
+        List<Clan> clans = statement.selectIn(new String[0], new String[0], new String[] { "tag" },
+                Arrays.asList("C0", "C1", "C2", "C3", "C4", "C9"));
+
+        Set<String> tags = new HashSet<>();
+        for (Clan clan : clans) {
+            assertTrue(tags.add(clan.tag));
+        }
+        assertEquals(new HashSet<>(Arrays.asList("C0", "C1", "C2", "C3", "C4")), tags);
+    }
+}
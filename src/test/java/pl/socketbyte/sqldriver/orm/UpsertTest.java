@@ -0,0 +1,138 @@
+package pl.socketbyte.sqldriver.orm;
+
+import org.junit.Test;
+import pl.socketbyte.sqldriver.BatchResult;
+import pl.socketbyte.sqldriver.H2TestBase;
+import pl.socketbyte.sqldriver.orm.annotation.SqlField;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+import pl.socketbyte.sqldriver.query.SqlDataType;
+import pl.socketbyte.sqldriver.reflect.ReflectTools;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class UpsertTest extends H2TestBase {
+
+    @SqlObject(tableName = "upserted_scores")
+    public static class Score {
+        @SqlPrimary
+        public String player;
+        @SqlPrimary
+        public int season;
+        public long points;
+    }
+
+    @SqlObject(tableName = "upserted_tags")
+    public static class Tag {
+        @SqlPrimary
+        public String name;
+    }
+
+    @SqlObject(tableName = "upserted_blobs")
+    public static class BlobKey {
+        @SqlPrimary
+        @SqlField(type = SqlDataType.BLOB)
+        public byte[] hash;
+        @SqlPrimary
+        public String name;
+    }
+
+    @SqlObject(tableName = "upserted_serialized")
+    public static class SerializedKey {
+        @SqlPrimary
+        public ArrayList<String> key;
+    }
+
+    private static Score score(String player, int season, long points) {
+        Score score = new Score();
+        score.player = player;
+        score.season = season;
+        score.points = points;
+        return score;
+    }
+
+    private long points(String player, int season) throws SQLException {
+        return ((Number) queryValue("SELECT points FROM upserted_scores WHERE player='" + player
+                + "' AND season=" + season)).longValue();
+    }
+
+    @Test
+    public void insertsOrOverwrites() throws SQLException {
+        createTables(Score.class);
+
+        this.connection.upsert(score("a", 1, 10));
+        this.connection.upsert(score("a", 1, 20));
+        this.connection.upsert(score("a", 2, 5));
+        assertEquals(20, points("a", 1));
+        assertEquals(5, points("a", 2));
+        assertEquals(2, count("upserted_scores"));
+    }
+
+    @Test
+    public void upsertsBatches() throws SQLException {
+        createTables(Score.class);
+        this.connection.insertAll(Arrays.asList(score("a", 1, 1), score("b", 1, 1)));
+
+        List<Score> scores = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            scores.add(score(i % 2 == 0 ? "a" : "b", i / 2 + 1, 100 + i));
+        }
+        BatchResult result = this.connection.makeORMStatement(Score.class).upsertAll(scores, 3);
+        assertEquals(3, result.getBatchCount());
+        assertEquals(7, result.getObjectCount());
+        assertEquals(100, points("a", 1));
+        assertEquals(101, points("b", 1));
+        assertEquals(106, points("a", 4));
+        assertEquals(7, count("upserted_scores"));
+
+        this.driver.useMultiRowInserts();
+        scores.add(score("c", 1, 1));
+        for (Score score : scores) {
+            score.points *= 2;
+        }
+        this.connection.makeORMStatement(Score.class).upsertAll(scores, 3);
+        assertEquals(200, points("a", 1));
+        assertEquals(2, points("c", 1));
+        assertEquals(8, count("upserted_scores"));
+    }
+
+    @Test
+    public void upsertsKeyOnlyTables() throws SQLException {
+        createTables(Tag.class);
+
+        Tag tag = new Tag();
+        tag.name = "tag";
+        this.connection.upsertAll(Arrays.asList(tag, tag));
+        this.connection.upsert(tag);
+        assertEquals(1, count("upserted_tags"));
+    }
+
+    @Test
+    public void createsBlobKeys() throws SQLException {
+        assertTrue(ORMClassData.read(BlobKey.class, ReflectTools.REGULAR_FIELD_OPERATIONS).getQueries().createTable()
+                .contains("hash VARBINARY(255) NOT NULL,name VARCHAR(255) NOT NULL"));
+
+        createTables(BlobKey.class);
+        BlobKey key = new BlobKey();
+        key.hash = new byte[] { 1, 2, 3 };
+        key.name = "key";
+        this.connection.upsert(key);
+        this.connection.upsert(key);
+        assertEquals(1, count("upserted_blobs"));
+    }
+
+    @Test
+    public void rejectsSerializedKeys() {
+        try {
+            this.driver.register(SerializedKey.class);
+            fail("Serialized fields can't be keys");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("SerializedKey.key"));
+        }
+    }
+}
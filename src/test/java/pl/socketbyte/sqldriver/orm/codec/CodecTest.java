@@ -0,0 +1,120 @@
+package pl.socketbyte.sqldriver.orm.codec;
+
+import org.junit.Test;
+import pl.socketbyte.sqldriver.H2TestBase;
+import pl.socketbyte.sqldriver.orm.ORMFieldData;
+import pl.socketbyte.sqldriver.orm.annotation.SqlNullable;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+import pl.socketbyte.sqldriver.query.SqlDataType;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class CodecTest extends H2TestBase {
+
+    @SqlObject(tableName = "codec_values")
+    public static class Values {
+        @SqlPrimary
+        public UUID uniqueId;
+        public String name;
+        @SqlNullable
+        public String nullableName;
+        public int intValue;
+        public long longValue;
+        public double doubleValue;
+        public float floatValue;
+        public short shortValue;
+        public byte byteValue;
+        public boolean booleanValue;
+        public char charValue;
+        public ArrayList<String> tags;
+        @SqlNullable
+        public ArrayList<String> nullableTags;
+    }
+
+    private static Values create() {
+        Values values = new Values();
+        values.uniqueId = UUID.randomUUID();
+        values.name = "name";
+        values.intValue = Integer.MIN_VALUE;
+        values.longValue = Long.MAX_VALUE;
+        values.doubleValue = 0.25;
+        values.floatValue = 1.5f;
+        values.shortValue = Short.MAX_VALUE;
+        values.byteValue = Byte.MIN_VALUE;
+        values.booleanValue = true;
+        values.charValue = 'x';
+        values.tags = new ArrayList<>(Arrays.asList("a", "b"));
+        return values;
+    }
+
+    @Test
+    public void roundTripsEveryType() {
+        createTables(Values.class);
+        Values inserted = create();
+        this.connection.insert(inserted);
+
+        Values selected = this.connection.selectByPrimary(Values.class, inserted.uniqueId);
+        assertEquals(inserted.uniqueId, selected.uniqueId);
+        assertEquals("name", selected.name);
+        assertNull(selected.nullableName);
+        assertEquals(Integer.MIN_VALUE, selected.intValue);
+        assertEquals(Long.MAX_VALUE, selected.longValue);
+        assertEquals(0.25, selected.doubleValue, 0);
+        assertEquals(1.5f, selected.floatValue, 0);
+        assertEquals(Short.MAX_VALUE, selected.shortValue);
+        assertEquals(Byte.MIN_VALUE, selected.byteValue);
+        assertTrue(selected.booleanValue);
+        assertEquals('x', selected.charValue);
+        assertEquals(Arrays.asList("a", "b"), selected.tags);
+        assertNull(selected.nullableTags);
+    }
+
+    @Test
+    public void keepsStringsThatLookLikeOtherTypes() {
+        createTables(Values.class);
+        Values inserted = create();
+        inserted.name = UUID.randomUUID().toString();
+        inserted.nullableName = "YWJjZA==";
+        this.connection.insert(inserted);
+
+        Values selected = this.connection.selectByPrimary(Values.class, inserted.uniqueId);
+        assertEquals(inserted.name, selected.name);
+        assertEquals("YWJjZA==", selected.nullableName);
+    }
+
+    @Test
+    public void usesRegisteredCodec() throws SQLException {
+        this.driver.registerCodec(SqlDataType.TEXT, new UpperCaseCodec());
+        createTables(Values.class);
+        Values inserted = create();
+        this.connection.insert(inserted);
+
+        assertEquals("NAME", queryValue("SELECT name FROM codec_values"));
+        List<Values> selected = this.connection.makeORMStatement(Values.class).select();
+        assertEquals("name", selected.get(0).name);
+    }
+
+    private static class UpperCaseCodec implements ORMCodec {
+
+        @Override
+        public void write(PreparedStatement statement, int index, Object value, ORMFieldData data)
+                throws SQLException {
+            statement.setString(index, value == null ? null : value.toString().toUpperCase());
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index, ORMFieldData data) throws SQLException {
+            String value = rs.getString(index);
+            return value == null ? null : value.toLowerCase();
+        }
+    }
+}
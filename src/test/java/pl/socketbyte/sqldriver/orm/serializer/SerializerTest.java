@@ -0,0 +1,288 @@
+package pl.socketbyte.sqldriver.orm.serializer;
+
+import org.junit.Test;
+import org.nustaq.serialization.FSTConfiguration;
+import pl.socketbyte.sqldriver.H2TestBase;
+import pl.socketbyte.sqldriver.SqlDriver;
+import pl.socketbyte.sqldriver.orm.annotation.SqlField;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+import pl.socketbyte.sqldriver.orm.annotation.SqlSerializer;
+import pl.socketbyte.sqldriver.query.SqlDataType;
+
+import java.io.ByteArrayInputStream;
+import java.io.Serializable;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class SerializerTest extends H2TestBase {
+
+    public static class Stats implements Serializable {
+        public int kills;
+        public String title;
+        public List<String> achievements = new ArrayList<>();
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Stats))
+                return false;
+            Stats stats = (Stats) o;
+            return this.kills == stats.kills && Objects.equals(this.title, stats.title)
+                    && this.achievements.equals(stats.achievements);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.kills, this.title, this.achievements);
+        }
+    }
+
+    public static class Reward implements Serializable {
+        public long coins = 100;
+    }
+
+    public static class Node implements Serializable {
+        public String name;
+        public Node next;
+        public List<Node> children = new ArrayList<>();
+    }
+
+    public static class FailingSerializer extends JavaSerializer {
+        public FailingSerializer() {
+            throw new IllegalStateException("Not configured");
+        }
+    }
+
+    public static class ConfiguredSerializer extends JavaSerializer {
+        public ConfiguredSerializer(int level) {
+        }
+    }
+
+    @SqlObject(tableName = "serialized_players")
+    public static class Player {
+        @SqlPrimary
+        public int id;
+        @SqlField(type = SqlDataType.SERIALIZED)
+        @SqlSerializer(value = JavaSerializer.class, compressionThreshold = 64)
+        public Stats stats;
+    }
+
+    private static Stats stats(int achievements) {
+        Stats stats = new Stats();
+        stats.kills = 42;
+        stats.title = "Champion";
+        for (int i = 0; i < achievements; i++) {
+            stats.achievements.add("achievement" + i);
+        }
+        return stats;
+    }
+
+    private static void assertRoundTrip(Serializer serializer, Object object) {
+        byte[] serialized = serializer.serialize(object);
+        assertEquals(object, serializer.deserialize(serialized));
+        assertEquals(object, serializer.deserialize(new ByteArrayInputStream(serialized)));
+    }
+
+    @Test
+    public void roundTripsObjects() {
+        for (Serializer serializer : Arrays.asList(new FstSerializer(), new SchemaSerializer(),
+                new JavaSerializer(), new CompressingSerializer(new FstSerializer(), 64))) {
+            assertRoundTrip(serializer, stats(0));
+            assertRoundTrip(serializer, stats(100));
+            assertRoundTrip(serializer, new HashMap<>(Collections.singletonMap("key", 1L)));
+        }
+    }
+
+    @Test
+    public void compressesLargeValuesOnly() {
+        Serializer delegate = new JavaSerializer();
+        CompressingSerializer serializer = new CompressingSerializer(delegate, 1024);
+
+        Stats small = stats(1);
+        assertArrayEquals(delegate.serialize(small), serializer.serialize(small));
+
+        Stats large = stats(500);
+        byte[] compressed = serializer.serialize(large);
+        assertTrue(compressed.length < delegate.serialize(large).length / 2);
+        assertEquals(large, serializer.deserialize(compressed));
+
+        // values written before the compression was enabled are still readable
+        assertEquals(large, serializer.deserialize(delegate.serialize(large)));
+    }
+
+    @Test
+    public void keepsIncompressibleValues() {
+        Serializer delegate = new JavaSerializer();
+        CompressingSerializer serializer = new CompressingSerializer(delegate, 16);
+
+        byte[] random = new byte[4096];
+        new Random(1).nextBytes(random);
+        assertArrayEquals(delegate.serialize(random), serializer.serialize(random));
+    }
+
+    @Test
+    public void storesAnnotatedFields() throws SQLException {
+        createTables(Player.class);
+
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Player player = new Player();
+            player.id = i;
+            player.stats = stats(i * 200);
+            players.add(player);
+        }
+        this.connection.insertAll(players);
+
+        Blob stored = (Blob) queryValue("SELECT stats FROM serialized_players WHERE id=1");
+        assertTrue(stored.length() < new JavaSerializer().serialize(players.get(1).stats).length / 2);
+        for (Player player : players) {
+            assertEquals(player.stats, this.connection.selectByPrimary(Player.class, player.id).stats);
+        }
+    }
+
+    @Test
+    public void registersSerializedClassesExplicitly() {
+        this.driver.register(Player.class);
+        assertTrue(this.driver.getSerializers().getRegisteredClasses().isEmpty());
+
+        Stats stats = stats(1);
+        int unregistered = new FstSerializer().serialize(stats).length;
+        this.driver.registerSerializedClasses(Stats.class);
+        assertEquals(Collections.singletonList(Stats.class), this.driver.getSerializers().getRegisteredClasses());
+        assertTrue(this.driver.getSerializers().getDefault().serialize(stats).length < unregistered);
+
+        // serializers set later get the registered classes too
+        this.driver.setSerializer(new SchemaSerializer());
+        SchemaSerializer reader = new SchemaSerializer();
+        reader.registerClass(Stats.class);
+        byte[] serialized = this.driver.getSerializers().getDefault().serialize(stats);
+        assertEquals(stats, reader.deserialize(serialized));
+    }
+
+    @Test
+    public void keepsRegistrationsPerDriver() {
+        SqlDriver other = SqlDriver.create(PROPERTIES);
+        try {
+            this.driver.registerSerializedClasses(Stats.class);
+            assertTrue(other.getSerializers().getRegisteredClasses().isEmpty());
+            assertNotSame(this.driver.getSerializers().getDefault(), other.getSerializers().getDefault());
+
+            Stats stats = stats(1);
+            byte[] serialized = other.getSerializers().getDefault().serialize(stats);
+            assertArrayEquals(new FstSerializer().serialize(stats), serialized);
+            assertEquals(stats, this.driver.getSerializers().getDefault().deserialize(
+                    this.driver.getSerializers().getDefault().serialize(stats)));
+        } finally {
+            other.close();
+        }
+    }
+
+    @Test
+    public void sharesBoundedPool() throws Exception {
+        FstSerializer serializer = new FstSerializer(FSTConfiguration::createDefaultConfiguration, 2);
+        serializer.registerClass(Stats.class);
+        assertRoundTrip(serializer, stats(1));
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                int achievements = i;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 50; j++) {
+                        assertRoundTrip(serializer, stats(achievements));
+                        assertRoundTrip(new JavaSerializer(), stats(achievements));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(2, serializer.getCreatedConfigurations());
+
+        // classes registered later reach the pooled configurations
+        Reward reward = new Reward();
+        int unregistered = serializer.serialize(reward).length;
+        serializer.registerClass(Reward.class);
+        byte[] serialized = serializer.serialize(reward);
+        assertTrue(serialized.length < unregistered);
+
+        FstSerializer reader = new FstSerializer();
+        reader.registerClass(Stats.class);
+        reader.registerClass(Reward.class);
+        assertEquals(reward.coins, ((Reward) reader.deserialize(serialized)).coins);
+    }
+
+    @Test
+    public void recoversFromFailedCalls() {
+        FstSerializer serializer = new FstSerializer(FSTConfiguration::createDefaultConfiguration, 1);
+        try {
+            serializer.deserialize(new byte[] { 1, 2, 3, 4, 5 });
+            fail("The bytes aren't a serialized object");
+        } catch (RuntimeException expected) {
+            // malformed
+        }
+        assertRoundTrip(serializer, stats(3));
+    }
+
+    @Test
+    public void rejectsCyclicReferences() {
+        SchemaSerializer serializer = new SchemaSerializer();
+
+        // shared references are written twice, but they aren't cycles
+        Node leaf = new Node();
+        leaf.name = "leaf";
+        Node root = new Node();
+        root.next = leaf;
+        root.children.add(leaf);
+        Node copy = (Node) serializer.deserialize(serializer.serialize(root));
+        assertEquals("leaf", copy.next.name);
+        assertEquals("leaf", copy.children.get(0).name);
+
+        leaf.children.add(root);
+        try {
+            serializer.serialize(root);
+            fail("The graph is cyclic");
+        } catch (RuntimeException expected) {
+            assertTrue(expected.getMessage().contains("cyclic references"));
+        }
+
+        Node self = new Node();
+        self.next = self;
+        try {
+            serializer.serialize(self);
+            fail("The node references itself");
+        } catch (RuntimeException expected) {
+            assertTrue(expected.getMessage().contains("cyclic references"));
+        }
+    }
+
+    @Test
+    public void reportsSerializersThatCantBeCreated() {
+        SerializerRegistry registry = SerializerRegistry.createDefault();
+        try {
+            registry.get(ConfiguredSerializer.class);
+            fail("The serializer has no no-args constructor");
+        } catch (RuntimeException expected) {
+            assertTrue(expected.getCause() instanceof NoSuchMethodException);
+        }
+
+        try {
+            registry.get(FailingSerializer.class);
+            fail("The constructor throws");
+        } catch (RuntimeException expected) {
+            assertTrue(expected.getCause() instanceof IllegalStateException);
+        }
+
+        assertTrue(registry.get(JavaSerializer.class) instanceof JavaSerializer);
+    }
+}
@@ -0,0 +1,116 @@
+package pl.socketbyte.sqldriver.query;
+
+import org.junit.Test;
+import pl.socketbyte.sqldriver.SqlConnection;
+import pl.socketbyte.sqldriver.SqlDriver;
+import pl.socketbyte.sqldriver.orm.annotation.SqlField;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SqlDialectTest {
+
+    @SqlObject(tableName = "dialect_entries")
+    public static class Entry {
+        @SqlPrimary
+        public String key;
+        @SqlField(name = "value")
+        public String text;
+        public long version;
+    }
+
+    private static Entry entry(String key, String text, long version) {
+        Entry entry = new Entry();
+        entry.key = key;
+        entry.text = text;
+        entry.version = version;
+        return entry;
+    }
+
+    @Test
+    public void detectsH2Only() {
+        assertSame(SqlDialect.H2, SqlDialect.detect("jdbc:h2:mem:test null null"));
+        assertSame(SqlDialect.H2, SqlDialect.detect("JDBC:H2:tcp://localhost/db"));
+        assertSame(SqlDialect.H2, SqlDialect.detect("null org.h2.jdbcx.JdbcDataSource null"));
+        assertSame(SqlDialect.H2, SqlDialect.detect("null null org.h2.Driver"));
+
+        assertSame(SqlDialect.MYSQL, SqlDialect.detect("jdbc:mariadb://db/oauth2 null null"));
+        assertSame(SqlDialect.MYSQL, SqlDialect.detect("jdbc:mysql://h2-cluster.local/app null null"));
+        assertSame(SqlDialect.MYSQL, SqlDialect.detect("null org.mariadb.jdbc.MariaDbDataSource null"));
+        assertSame(SqlDialect.MYSQL, SqlDialect.detect(""));
+        assertSame(SqlDialect.MYSQL, SqlDialect.detect(null));
+    }
+
+    @Test
+    public void buildsUpserts() {
+        String[] records = { "key", "value", "version" };
+        String[] keyRecords = { "key" };
+
+        assertEquals("INSERT INTO t (`key`, `value`, version) VALUES (?, ?, ?), (?, ?, ?)  "
+                        + "ON DUPLICATE KEY UPDATE `value`=VALUES(`value`), version=VALUES(version)",
+                SqlDialect.MYSQL.upsert("t", records, keyRecords, 2));
+        assertEquals("INSERT INTO t (`key`) VALUES (?)  ON DUPLICATE KEY UPDATE `key`=VALUES(`key`)",
+                SqlDialect.MYSQL.upsert("t", keyRecords, keyRecords, 1));
+        assertEquals("MERGE INTO t (\"key\", \"value\", version) KEY(\"key\") VALUES (?, ?, ?) ",
+                SqlDialect.H2.upsert("t", records, keyRecords, 1));
+    }
+
+    @Test
+    public void buildsTables() {
+        assertEquals("CREATE TABLE IF NOT EXISTS `order` (`key` VARCHAR(255) NOT NULL,body MEDIUMBLOB,"
+                        + "PRIMARY KEY(`key`))",
+                new SqlQuery(SqlDialect.MYSQL).createTable("order")
+                        .record("key", SqlDialect.MYSQL.getKeyType(SqlDataType.TEXT), false)
+                        .record("body", SqlDataType.SERIALIZED, true)
+                        .primaryKey("key").done());
+        assertEquals("CREATE TABLE IF NOT EXISTS \"order\" (\"key\" VARCHAR NOT NULL,body BLOB,"
+                        + "PRIMARY KEY(\"key\"))",
+                new SqlQuery(SqlDialect.H2).createTable("order")
+                        .record("key", SqlDialect.H2.getKeyType(SqlDataType.TEXT), false)
+                        .record("body", SqlDataType.SERIALIZED, true)
+                        .primaryKey("key").done());
+    }
+
+    @Test
+    public void upsertsWithH2Dialect() {
+        upsert("/h2.properties", null);
+    }
+
+    @Test
+    public void upsertsWithMySqlDialect() {
+        // H2 in MySQL mode understands the MySQL dialect
+        upsert("/h2-mysql.properties", SqlDialect.MYSQL);
+    }
+
+    private void upsert(String properties, SqlDialect dialect) {
+        SqlDriver driver = SqlDriver.create(properties);
+        try (SqlConnection connection = driver.borrow()) {
+            if (dialect != null)
+                driver.setDialect(dialect);
+            else assertSame(SqlDialect.H2, driver.getDialect());
+
+            driver.register(Entry.class);
+            connection.createTable(Entry.class);
+            try {
+                connection.insert(entry("a", "first", 1));
+                connection.upsertAll(Arrays.asList(entry("a", "second", 2), entry("b", "new", 1)));
+                connection.upsert(entry("b", "newer", 2));
+
+                List<Entry> entries = connection.makeORMStatement(Entry.class).select();
+                assertEquals(2, entries.size());
+                for (Entry entry : entries) {
+                    assertEquals(2, entry.version);
+                    assertEquals(entry.key.equals("a") ? "second" : "newer", entry.text);
+                }
+            } finally {
+                connection.drop(Entry.class);
+            }
+        } finally {
+            driver.close();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package pl.socketbyte.sqldriver.query;
+
+import org.junit.Test;
+import pl.socketbyte.sqldriver.H2TestBase;
+import pl.socketbyte.sqldriver.orm.annotation.SqlNullable;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static pl.socketbyte.sqldriver.query.SqlPredicate.*;
+
+public class SqlPredicateTest extends H2TestBase {
+
+    @SqlObject(tableName = "predicate_players")
+    public static class Player {
+        @SqlPrimary
+        public int id;
+        public String name;
+        @SqlNullable
+        public String clanTag;
+        public long coins;
+        public UUID uniqueId;
+    }
+
+    private List<Player> insert() {
+        List<Player> players = new ArrayList<>();
+        String[] clanTags = { "ABC", "XYZ", null };
+        for (int i = 0; i < 12; i++) {
+            Player player = new Player();
+            player.id = i;
+            player.name = "player" + i;
+            player.clanTag = clanTags[i % 3];
+            player.coins = i * 10;
+            player.uniqueId = UUID.randomUUID();
+            players.add(player);
+        }
+        this.connection.insertAll(players);
+        return players;
+    }
+
+    private Set<Integer> select(SqlPredicate predicate) {
+        Set<Integer> ids = new TreeSet<>();
+        for (Player player : this.connection.select(Player.class, predicate)) {
+            ids.add(player.id);
+        }
+        return ids;
+    }
+
+    private static Set<Integer> ids(Integer... ids) {
+        return new TreeSet<>(Arrays.asList(ids));
+    }
+
+    @Test
+    public void buildsPlaceholdersOnly() {
+        SqlPredicate predicate = and(equal("clanTag", "ABC"), or(greater("coins", 100), isNull("order")));
+        assertEquals("(clanTag=? AND (coins>? OR `order` IS NULL))", predicate.toSql());
+        assertEquals("(clanTag=? AND (coins>? OR \"order\" IS NULL))", predicate.toSql(SqlDialect.H2));
+        assertEquals(2, predicate.getArguments().size());
+
+        // same structure, same text
+        assertEquals(predicate.toSql(),
+                and(equal("clanTag", "XYZ"), or(greater("coins", 5), isNull("order"))).toSql());
+    }
+
+    @Test
+    public void padsInLists() {
+        assertEquals("id IN (?, ?, ?, ?)", in("id", 1, 2, 3).toSql());
+        assertEquals(in("id", 1, 2, 3).toSql(), in("id", 4, 5, 6, 7).toSql());
+        assertEquals("id IN (?)", in("id", 1).toSql());
+        assertEquals("1=0", in("id", Collections.emptyList()).toSql());
+        assertEquals(4, in("id", 1, 2, 3).getArguments().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyJunctions() {
+        and();
+    }
+
+    @Test
+    public void selectsMatchingRows() {
+        createTables(Player.class);
+        List<Player> players = insert();
+
+        assertEquals(ids(0, 3, 6, 9), select(equal("clanTag", "ABC")));
+        assertEquals(ids(2, 5, 8, 11), select(isNull("clanTag")));
+        assertEquals(ids(3, 6), select(and(equal("clanTag", "ABC"), between("coins", 30, 60))));
+        assertEquals(ids(0, 1, 11), select(or(less("coins", 20), greaterOrEqual("coins", 110))));
+        assertEquals(ids(1, 4, 7, 10), select(not(or(equal("clanTag", "ABC"), isNull("clanTag")))));
+        assertEquals(ids(1, 10, 11), select(like("name", "player1%")));
+        assertEquals(ids(2, 4, 5), select(in("id", 2, 4, 5, 99, 100)));
+        assertEquals(ids(), select(in("id", Collections.emptyList())));
+        assertEquals(ids(7), select(equal("uniqueId", players.get(7).uniqueId)));
+    }
+
+    @Test
+    public void deletesMatchingRows() throws SQLException {
+        createTables(Player.class);
+        insert();
+
+        assertEquals(4, this.connection.delete(Player.class, isNull("clanTag")));
+        assertEquals(0, this.connection.delete(Player.class, in("id", Collections.emptyList())));
+        assertEquals(8, count("predicate_players"));
+        assertEquals(ids(1, 4, 7, 10), select(notEqual("clanTag", "ABC")));
+    }
+}
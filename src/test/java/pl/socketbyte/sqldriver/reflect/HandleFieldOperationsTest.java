@@ -0,0 +1,123 @@
+package pl.socketbyte.sqldriver.reflect;
+
+import org.junit.Test;
+import pl.socketbyte.sqldriver.H2TestBase;
+import pl.socketbyte.sqldriver.orm.annotation.SqlObject;
+import pl.socketbyte.sqldriver.orm.annotation.SqlPrimary;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HandleFieldOperationsTest extends H2TestBase {
+
+    public static class Base {
+        @SqlPrimary
+        private int id;
+        protected String name;
+        private static int ignoredStatic;
+        private final int ignoredFinal = 1;
+    }
+
+    @SqlObject(tableName = "handle_accounts")
+    public static class Account extends Base {
+        // hides Base.name
+        private String name;
+        private long coins;
+        private double ratio;
+        private boolean active;
+
+        public Account() {
+        }
+
+        Account(int id, String name, long coins) {
+            super.id = id;
+            this.name = name;
+            this.coins = coins;
+            this.ratio = coins / 2.0;
+            this.active = coins > 0;
+        }
+    }
+
+    private final HandleFieldOperations operations = new HandleFieldOperations();
+
+    private static List<String> names(Field[] fields) {
+        List<String> names = new ArrayList<>();
+        for (Field field : fields) {
+            names.add(field.getDeclaringClass().getSimpleName() + "." + field.getName());
+        }
+        return names;
+    }
+
+    @Test
+    public void collectsPrivateAndInheritedFields() {
+        List<String> names = names(this.operations.getFields(Account.class));
+        assertEquals("[Base.id, Base.name, Account.name, Account.coins, Account.ratio, Account.active]",
+                names.toString());
+    }
+
+    @Test
+    public void resolvesHiddenFieldsToSubclass() {
+        Account account = new Account(1, "sub", 0);
+        ((Base) account).name = "base";
+
+        int index = this.operations.getFieldIndex(Account.class, "name");
+        assertEquals(2, index);
+        assertEquals("sub", this.operations.getField(Account.class, account, "name"));
+
+        this.operations.setField(Account.class, account, "name", "changed");
+        assertEquals("changed", account.name);
+        assertEquals("base", ((Base) account).name);
+    }
+
+    @Test
+    public void roundTripsPrimitives() {
+        Account account = new Account(7, "a", 5);
+        int id = this.operations.getFieldIndex(Account.class, "id");
+        int coins = this.operations.getFieldIndex(Account.class, "coins");
+        int ratio = this.operations.getFieldIndex(Account.class, "ratio");
+        int active = this.operations.getFieldIndex(Account.class, "active");
+
+        assertEquals(7, this.operations.getInt(Account.class, account, id));
+        this.operations.setInt(Account.class, account, id, 8);
+        assertEquals(8, this.operations.getInt(Account.class, account, id));
+        assertEquals(8, this.operations.getField(Account.class, account, id));
+
+        this.operations.setLong(Account.class, account, coins, Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, this.operations.getLong(Account.class, account, coins));
+        this.operations.setDouble(Account.class, account, ratio, 0.25);
+        assertEquals(0.25, this.operations.getDouble(Account.class, account, ratio), 0);
+        this.operations.setBoolean(Account.class, account, active, false);
+        assertFalse(this.operations.getBoolean(Account.class, account, active));
+
+        // boxed values go through the generic handles
+        this.operations.setField(Account.class, account, coins, 3L);
+        assertEquals(3L, account.coins);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownFields() {
+        this.operations.getFieldIndex(Account.class, "missing");
+    }
+
+    @Test
+    public void storesPrivateFieldsThroughDriver() {
+        this.driver.useMethodHandles();
+        createTables(Account.class);
+
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            accounts.add(new Account(i, "account" + i, i * 10));
+        }
+        this.connection.insertAll(accounts);
+
+        Account selected = this.connection.selectByPrimary(Account.class, 2);
+        assertEquals(2, ((Base) selected).id);
+        assertEquals("account2", selected.name);
+        assertEquals(20, selected.coins);
+        assertEquals(10.0, selected.ratio, 0);
+        assertTrue(selected.active);
+    }
+}